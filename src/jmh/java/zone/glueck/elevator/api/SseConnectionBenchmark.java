@@ -0,0 +1,131 @@
+package zone.glueck.elevator.api;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import zone.glueck.elevator.ElevatorApplication;
+import zone.glueck.elevator.events.CarStateEvent;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Opens a few thousand concurrent {@code /service/events} connections against the running application, with the web
+ * layer on platform or virtual threads, and reports what holding them open costs: the time to open them all, the live
+ * platform threads and the heap retained per connection. The client runs on virtual threads in the same JVM, so the
+ * platform thread count is the server's, and the heap figure is an upper bound including the client side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SseConnectionBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"1000", "4000"})
+    private int connections;
+
+    private ConfigurableApplicationContext context;
+
+    private SseBroadcaster sseBroadcaster;
+
+    private SseFrame probe;
+
+    private HttpClient client;
+
+    private URI events;
+
+    private final List<CompletableFuture<HttpResponse<Stream<String>>>> responses = new ArrayList<>();
+
+    @Setup
+    public void startApplication() {
+        context = new SpringApplicationBuilder(ElevatorApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--logging.level.root=WARN"
+        );
+        sseBroadcaster = context.getBean(SseBroadcaster.class);
+        probe = context.getBean(SseEventEncoder.class).encode(new CarStateEvent("probe", "AVAILABLE", 0));
+        events = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/service/events");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @TearDown
+    public void stopApplication() {
+        client.close();
+        context.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeConnections() throws InterruptedException {
+        responses.forEach(response -> response.join().body().close());
+        responses.clear();
+        while (sseBroadcaster.getSubscriberCount() > 0) {
+            // the server only notices a closed connection when it next writes to it
+            sseBroadcaster.broadcast(SseEventFilter.EventType.CAR_STATE, "probe", 0, null, probe);
+            Thread.sleep(50L);
+        }
+    }
+
+    @Benchmark
+    public void holdConnections(Footprint footprint) throws InterruptedException {
+        final var before = footprint.usedHeap();
+        for (int i = 0; i < connections; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(events).build(), HttpResponse.BodyHandlers.ofLines()));
+        }
+        while (sseBroadcaster.getSubscriberCount() < connections) {
+            Thread.sleep(10L);
+        }
+        // the response headers go out with the first event
+        sseBroadcaster.broadcast(SseEventFilter.EventType.CAR_STATE, "probe", 0, null, probe);
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+        footprint.platformThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        footprint.heapBytesPerConnection = (footprint.usedHeap() - before) / connections;
+    }
+
+    /**
+     * Figures reported next to the time of each iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public long platformThreads;
+
+        public long heapBytesPerConnection;
+
+        private long usedHeap() {
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package zone.glueck.elevator.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the subscribers of a single car state in a building where every floor has a few displays subscribed to its own
+ * floor, and a few dashboards to everything: through the compiled routing index, and by asking every subscriber's
+ * filter in turn. Also measures a display reconnecting, which unsubscribes and subscribes it again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseRoutingBenchmark {
+
+    private static final int DISPLAYS_PER_FLOOR = 4;
+
+    private static final int DASHBOARDS = 8;
+
+    @Param({"20", "100", "300"})
+    private int numberOfFloors;
+
+    private final SseRoutingIndex<Integer> index = new SseRoutingIndex<>();
+
+    private final List<SseEventFilter> filters = new ArrayList<>();
+
+    private int floor;
+
+    @Setup
+    public void subscribe() {
+        for (int floor = 0; floor <= numberOfFloors; floor++) {
+            for (int i = 0; i < DISPLAYS_PER_FLOOR; i++) {
+                filters.add(new SseEventFilter(null, Set.of(floor), null));
+            }
+        }
+        for (int i = 0; i < DASHBOARDS; i++) {
+            filters.add(SseEventFilter.ALL);
+        }
+        for (int i = 0; i < filters.size(); i++) {
+            index.add(i, filters.get(i));
+        }
+    }
+
+    @Benchmark
+    public void routingIndex(Blackhole blackhole) {
+        index.route(SseEventFilter.EventType.CAR_STATE, "Car 1", nextFloor(), blackhole::consume);
+    }
+
+    @Benchmark
+    public void resubscribe() {
+        final var display = nextFloor() * DISPLAYS_PER_FLOOR;
+        index.remove(display);
+        index.add(display, filters.get(display));
+    }
+
+    @Benchmark
+    public void filterPerSubscriber(Blackhole blackhole) {
+        final var floor = nextFloor();
+        for (int i = 0; i < filters.size(); i++) {
+            if (filters.get(i).matches(SseEventFilter.EventType.CAR_STATE, "Car 1", floor)) {
+                blackhole.consume(i);
+            }
+        }
+    }
+
+    private int nextFloor() {
+        floor = floor == numberOfFloors ? 0 : floor + 1;
+        return floor;
+    }
+
+}
@@ -0,0 +1,80 @@
+package zone.glueck.elevator.cars;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A full trip from the lobby to the top floor in virtual time, exercising the stop set of each car type: every add,
+ * lookup, next-stop and removal, plus the floors request matching along the way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarTripBenchmark {
+
+    @Param({"4", "20", "100", "300"})
+    private int numberOfFloors;
+
+    /**
+     * The standard car picks up a hall call on every floor on the way up and each rider asks for the top floor.
+     */
+    @Benchmark
+    public int standardCarCollectingEveryFloor() {
+        final var scheduler = new VirtualTimeTaskScheduler();
+        final var car = new StandardCar(scheduler, "Car 1");
+        car.setNumberOfFloors(numberOfFloors);
+        final var topFloor = Set.of(numberOfFloors);
+        car.setRiderCueEventConsumer(riderCueEvent ->
+                car.processFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), topFloor))
+        );
+
+        for (int floor = 0; floor < numberOfFloors; floor++) {
+            car.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, floor));
+        }
+        while (scheduler.runNext()) {
+            // ride to the top
+        }
+        return car.getCurrentFloor();
+    }
+
+    /**
+     * The express car takes one rider from the lobby who asks for every floor.
+     */
+    @Benchmark
+    public int expressCarStoppingEveryFloor() {
+        final var scheduler = new VirtualTimeTaskScheduler();
+        final var car = new ExpressCar(scheduler, "ECar 1");
+        car.setNumberOfFloors(numberOfFloors);
+        final Set<Integer> everyFloor = IntStream.rangeClosed(1, numberOfFloors).boxed().collect(Collectors.toSet());
+        car.setRiderCueEventConsumer(riderCueEvent ->
+                car.processFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), everyFloor))
+        );
+
+        car.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0));
+        while (scheduler.runNext()) {
+            // ride to the top
+        }
+        return car.getCurrentFloor();
+    }
+}
@@ -0,0 +1,133 @@
+package zone.glueck.elevator.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a single dispatch decision against a busy fleet. Every car is mid-trip and the request pool has already
+ * been offered once, so each call estimates and offers the request to the whole fleet: the worst case the service
+ * thread sees during rush hour. Each dispatcher works its own fleet, rebuilt every iteration so the cars do not pile up
+ * the requests they accepted in earlier ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @State(Scope.Benchmark)
+    public abstract static class Fleet {
+
+        @Param({"4", "20", "100", "300"})
+        private int numberOfFloors;
+
+        @Param({"1", "4", "16", "64"})
+        private int numberOfCars;
+
+        private final Dispatcher dispatcher;
+
+        private List<Car> cars;
+
+        private ServiceRequestEvent[] requests;
+
+        private int next;
+
+        protected Fleet(Dispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+        }
+
+        @Setup
+        public void setUpRequests() {
+            requests = requests(numberOfFloors, 1024, 42L);
+        }
+
+        @Setup(Level.Iteration)
+        public void setUpCars() {
+            cars = busyFleet(new VirtualTimeTaskScheduler(), numberOfFloors, numberOfCars);
+            for (ServiceRequestEvent request : requests) {
+                dispatcher.dispatch(request, cars);
+            }
+            next = 0;
+        }
+
+        Car dispatchNext() {
+            return dispatcher.dispatch(requests[next++ & (requests.length - 1)], cars);
+        }
+    }
+
+    public static class LowestCostFleet extends Fleet {
+
+        public LowestCostFleet() {
+            super(new LowestCostDispatcher());
+        }
+    }
+
+    public static class FirstAcceptFleet extends Fleet {
+
+        public FirstAcceptFleet() {
+            super(new FirstAcceptDispatcher());
+        }
+    }
+
+    @Benchmark
+    public Car lowestCost(LowestCostFleet fleet) {
+        return fleet.dispatchNext();
+    }
+
+    @Benchmark
+    public Car firstAccept(FirstAcceptFleet fleet) {
+        return fleet.dispatchNext();
+    }
+
+    /**
+     * @return standard cars each heading up to a different floor, spread evenly through the building
+     */
+    static List<Car> busyFleet(VirtualTimeTaskScheduler scheduler, int numberOfFloors, int numberOfCars) {
+        final List<Car> cars = new ArrayList<>(numberOfCars);
+        for (int i = 0; i < numberOfCars; i++) {
+            final var car = new StandardCar(scheduler, "Car " + (i + 1));
+            car.setNumberOfFloors(numberOfFloors);
+            final var floor = 1 + (i * (numberOfFloors - 1)) / numberOfCars;
+            car.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, floor));
+            cars.add(car);
+        }
+        return cars;
+    }
+
+    /**
+     * @return a seeded pool of hall calls from every floor, count must be a power of two
+     */
+    static ServiceRequestEvent[] requests(int numberOfFloors, int count, long seed) {
+        final var random = new Random(seed);
+        final var requests = new ServiceRequestEvent[count];
+        for (int i = 0; i < count; i++) {
+            final var floor = random.nextInt(numberOfFloors + 1);
+            final var direction = floor == numberOfFloors || (floor > 0 && random.nextBoolean()) ?
+                    Direction.DESCENDING : Direction.ASCENDING;
+            requests[i] = new ServiceRequestEvent(UUID.randomUUID(), direction, floor);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,95 @@
+package zone.glueck.elevator.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands a burst of hall calls from the calling thread to the single threaded service scheduler and waits for the
+ * service to have run them all, either one executor task per call, like the old {@code @Async} path, or through
+ * {@link RingBufferElevatorService}. Sample time gives the tail of the whole burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InboundHandOffBenchmark {
+
+    private static final int NUMBER_OF_FLOORS = 20;
+
+    @Param({"executor", "ring"})
+    private String handOff;
+
+    @Param({"1", "64", "1024"})
+    private int burst;
+
+    private ServiceRequestEvent[] requests;
+
+    private ThreadPoolTaskScheduler serviceThread;
+
+    private NonBlockingElevatorService service;
+
+    private RingBufferElevatorService ring;
+
+    @Setup
+    public void setUp() {
+        requests = DispatchBenchmark.requests(NUMBER_OF_FLOORS, burst, 42L);
+        serviceThread = new ThreadPoolTaskScheduler();
+        serviceThread.setPoolSize(1);
+        serviceThread.initialize();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpService() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(NUMBER_OF_FLOORS);
+        final var scheduler = new VirtualTimeTaskScheduler();
+        service = new NonBlockingElevatorService(
+                configuration,
+                DispatchBenchmark.busyFleet(scheduler, NUMBER_OF_FLOORS, 4),
+                new LowestCostDispatcher(),
+                scheduler.getClock()
+        );
+        ring = new RingBufferElevatorService(service, serviceThread, 4096);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serviceThread.shutdown();
+    }
+
+    @Benchmark
+    public void handOff() throws Exception {
+        if (handOff.equals("ring")) {
+            for (ServiceRequestEvent request : requests) {
+                ring.processServiceRequest(request);
+            }
+        } else {
+            for (ServiceRequestEvent request : requests) {
+                serviceThread.execute(() -> service.processServiceRequest(request));
+            }
+        }
+        // everything queued before this task has run once it completes, a long burst may have queued more drains
+        do {
+            serviceThread.submit(() -> { }).get();
+        } while (ring.getBacklog() > 0L);
+    }
+}
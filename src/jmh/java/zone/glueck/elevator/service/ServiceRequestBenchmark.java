@@ -0,0 +1,71 @@
+package zone.glueck.elevator.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link NonBlockingElevatorService#processServiceRequest(ServiceRequestEvent)} end to end: dispatch, on-the-way
+ * acceptance and queueing of calls no car can take. The service keeps state between calls, so every iteration starts
+ * from a fresh busy fleet and measures a fixed batch of hall calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, batchSize = ServiceRequestBenchmark.BATCH_SIZE)
+@Measurement(iterations = 20, batchSize = ServiceRequestBenchmark.BATCH_SIZE)
+@Fork(1)
+public class ServiceRequestBenchmark {
+
+    static final int BATCH_SIZE = 1024;
+
+    @Param({"4", "20", "100", "300"})
+    private int numberOfFloors;
+
+    @Param({"1", "4", "16", "64"})
+    private int numberOfCars;
+
+    private ServiceRequestEvent[] requests;
+
+    private NonBlockingElevatorService service;
+
+    private int next;
+
+    @Setup
+    public void setUpRequests() {
+        requests = DispatchBenchmark.requests(numberOfFloors, BATCH_SIZE, 42L);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpService() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(numberOfFloors);
+        final var scheduler = new VirtualTimeTaskScheduler();
+        service = new NonBlockingElevatorService(
+                configuration,
+                DispatchBenchmark.busyFleet(scheduler, numberOfFloors, numberOfCars),
+                new LowestCostDispatcher(),
+                scheduler.getClock()
+        );
+        next = 0;
+    }
+
+    @Benchmark
+    public void processServiceRequest() {
+        service.processServiceRequest(requests[next++ & (requests.length - 1)]);
+    }
+}
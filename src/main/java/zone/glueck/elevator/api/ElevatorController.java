@@ -1,25 +1,31 @@
 package zone.glueck.elevator.api;
 
-import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
 import zone.glueck.elevator.api.models.*;
-import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.DestinationRequestEvent;
 import zone.glueck.elevator.events.FloorsRequestEvent;
-import zone.glueck.elevator.events.RiderCueEvent;
 import zone.glueck.elevator.events.ServiceRequestEvent;
 import zone.glueck.elevator.service.ElevatorService;
+import zone.glueck.elevator.utils.Direction;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static zone.glueck.elevator.cars.EventPublisherCar.State.MOVING;
 
 @RestController
 public class ElevatorController {
@@ -28,45 +34,65 @@ public class ElevatorController {
 
     private final ElevatorService elevatorService;
 
-    private final Set<SseEmitter> sseEmitters;
+    private final SseBroadcaster sseBroadcaster;
+
+    private final SseEventEncoder sseEventEncoder;
+
+    private final ReactiveEventStream reactiveEventStream;
 
-    public ElevatorController(ElevatorService elevatorService) throws IOException {
+    private final UserDefinedElevatorConfiguration configuration;
+
+    /**
+     * The floor each car last reported, the floor a moving car is leaving. Only written on the service thread.
+     */
+    private final Map<String, Integer> carFloors = new ConcurrentHashMap<>();
+
+    public ElevatorController(
+            ElevatorService elevatorService,
+            SseBroadcaster sseBroadcaster,
+            SseEventEncoder sseEventEncoder,
+            ReactiveEventStream reactiveEventStream,
+            UserDefinedElevatorConfiguration configuration
+    ) {
         this.elevatorService = elevatorService;
-        this.sseEmitters = new CopyOnWriteArraySet<>();
+        this.sseBroadcaster = sseBroadcaster;
+        this.sseEventEncoder = sseEventEncoder;
+        this.reactiveEventStream = reactiveEventStream;
+        this.configuration = configuration;
 
         initPushNotification();
     }
 
     private void initPushNotification() {
         elevatorService.addRiderCueListener(riderCueEvent -> {
-            log.info("publishing rider cue event: {}", riderCueEvent);
-            final var riderCue = toModel(riderCueEvent);
-            sseEmitters.forEach(sseEmitter -> {
-                try {
-                    sseEmitter.send(riderCue, MediaType.APPLICATION_JSON);
-                } catch (IOException ex) {
-                    log.error("failed to send cue event: {}", riderCueEvent, ex);
-                }
-            });
+            log.debug("publishing rider cue event: {}", riderCueEvent);
+            sseBroadcaster.broadcast(
+                    SseEventFilter.EventType.RIDER_CUE,
+                    riderCueEvent.carId(),
+                    riderCueEvent.serviceRequestEvent().originationFloor(),
+                    null,
+                    sseEventEncoder.encode(riderCueEvent)
+            );
         });
         elevatorService.addCarStateListener(carStateEvent -> {
-            log.info("publishing elevator state event: {}", carStateEvent);
-            final var carState = toModel(carStateEvent);
-            sseEmitters.forEach(sseEmitter -> {
-                try {
-                    sseEmitter.send(carState, MediaType.APPLICATION_JSON);
-                } catch (IOException ex) {
-                    log.error("failed to send car event: {}", carStateEvent, ex);
-                }
-            });
+            log.debug("publishing elevator state event: {}", carStateEvent);
+            // a moving car reports its target floor, displays on the floor it leaves need to see it go too
+            final var lastFloor = carFloors.put(carStateEvent.carName(), carStateEvent.currentFloor());
+            final var departureFloor = MOVING.name().equals(carStateEvent.status()) && lastFloor != null ?
+                    lastFloor :
+                    carStateEvent.currentFloor();
+            // only the newest state of each car matters to a subscriber that is behind
+            sseBroadcaster.broadcast(
+                    SseEventFilter.EventType.CAR_STATE,
+                    carStateEvent.carName(),
+                    carStateEvent.currentFloor(),
+                    departureFloor,
+                    carStateEvent.carName(),
+                    sseEventEncoder.encode(carStateEvent)
+            );
         });
     }
 
-    @PreDestroy
-    public void destroy() {
-        sseEmitters.forEach(ResponseBodyEmitter::complete);
-    }
-
     @GetMapping("/configuration")
     public Configuration getConfiguration() {
         return new Configuration(
@@ -79,7 +105,7 @@ public class ElevatorController {
     public RiderServiceRequest createServiceRequest(@RequestBody RiderServiceRequest riderServiceRequest) {
         riderServiceRequest.setId(UUID.randomUUID());
 
-        log.info("thread: {}", Thread.currentThread().getName());
+        log.debug("thread: {}", Thread.currentThread().getName());
 
         final var serviceRequestEvent = toEvent(riderServiceRequest);
         elevatorService.processServiceRequest(serviceRequestEvent);
@@ -87,11 +113,33 @@ public class ElevatorController {
         return riderServiceRequest;
     }
 
+    /**
+     * Where a recent service request stands, for clients that would rather poll than follow every event.
+     */
+    @GetMapping("/service/{serviceId}")
+    public RiderServiceStatus getServiceRequestStatus(@PathVariable("serviceId") UUID id) {
+        final var serviceRequestStatus = elevatorService.getServiceRequestStatus(id);
+        if (serviceRequestStatus == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown service request");
+        }
+        return new RiderServiceStatus(serviceRequestStatus);
+    }
+
     @PostMapping("/service/{serviceId}/floors")
     public RiderFloorsRequest createFloorsRequest(@PathVariable("serviceId") UUID id, @RequestBody RiderFloorsRequest riderFloorsRequest) {
         if (!id.equals(riderFloorsRequest.getRiderServiceRequest().getId())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "service request id mismatch");
         }
+        if (riderFloorsRequest.getRiders() != null && riderFloorsRequest.getRiders() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "negative number of riders");
+        }
+        if (riderFloorsRequest.getRequestedFloors() == null ||
+                !riderFloorsRequest.getRequestedFloors().stream().allMatch(this::isValidFloor)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid requested floors");
+        }
+        if (!elevatorService.isActiveServiceRequest(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown service request");
+        }
 
         final var floorsRequestEvent = toEvent(riderFloorsRequest);
         elevatorService.processFloorsRequest(floorsRequestEvent);
@@ -99,11 +147,118 @@ public class ElevatorController {
         return riderFloorsRequest;
     }
 
+    /**
+     * A hall call from a destination dispatch panel. The response names the car to board, the rider never makes a
+     * floors request for it.
+     */
+    @PostMapping("/service/destination")
+    public CompletableFuture<RiderDestinationRequest> createDestinationRequest(@RequestBody RiderDestinationRequest riderDestinationRequest) {
+        final var originationFloor = riderDestinationRequest.getOriginationFloor();
+        final var destinationFloor = riderDestinationRequest.getDestinationFloor();
+        if (!isValidFloor(originationFloor) || !isValidFloor(destinationFloor) || originationFloor == destinationFloor) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid destination request");
+        }
+        riderDestinationRequest.setId(UUID.randomUUID());
+
+        final var serviceRequestEvent = new ServiceRequestEvent(
+                riderDestinationRequest.getId(),
+                destinationFloor > originationFloor ? Direction.ASCENDING : Direction.DESCENDING,
+                originationFloor
+        );
+        return elevatorService.processDestinationRequest(new DestinationRequestEvent(serviceRequestEvent, destinationFloor))
+                .thenApply(carName -> {
+                    riderDestinationRequest.setCarName(carName);
+                    return riderDestinationRequest;
+                });
+    }
+
+    /**
+     * Accepts many hall calls and floor selections at once. The whole batch is validated before any of it is handed to
+     * the service, so either every request is processed or none is. A batch may select floors for a service request
+     * only once.
+     */
+    @PostMapping("/service/batch")
+    public RiderBatchRequest createBatchRequest(@RequestBody RiderBatchRequest riderBatchRequest) {
+        final var riderServiceRequests = riderBatchRequest.getServiceRequests() == null ?
+                List.<RiderServiceRequest>of() : riderBatchRequest.getServiceRequests();
+        final var riderFloorsRequests = riderBatchRequest.getFloorsRequests() == null ?
+                List.<RiderFloorsRequest>of() : riderBatchRequest.getFloorsRequests();
+
+        if (riderServiceRequests.size() + riderFloorsRequests.size() > configuration.getMaxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "batch larger than " + configuration.getMaxBatchSize());
+        }
+        for (int i = 0; i < riderServiceRequests.size(); i++) {
+            final var riderServiceRequest = riderServiceRequests.get(i);
+            if (riderServiceRequest == null || !isValidServiceRequest(riderServiceRequest)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid service request at index " + i);
+            }
+        }
+        final Set<UUID> serviceRequestIds = new HashSet<>();
+        for (int i = 0; i < riderFloorsRequests.size(); i++) {
+            final var riderFloorsRequest = riderFloorsRequests.get(i);
+            if (
+                    riderFloorsRequest == null ||
+                    riderFloorsRequest.getRiderServiceRequest() == null ||
+                    riderFloorsRequest.getRiderServiceRequest().getId() == null ||
+                    riderFloorsRequest.getRequestedFloors() == null ||
+                    riderFloorsRequest.getRequestedFloors().isEmpty() ||
+                    (riderFloorsRequest.getRiders() != null && riderFloorsRequest.getRiders() < 0) ||
+                    !riderFloorsRequest.getRequestedFloors().stream().allMatch(this::isValidFloor)
+            ) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid floors request at index " + i);
+            }
+            if (!serviceRequestIds.add(riderFloorsRequest.getRiderServiceRequest().getId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "duplicate service request at index " + i);
+            }
+            if (!elevatorService.isActiveServiceRequest(riderFloorsRequest.getRiderServiceRequest().getId())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown service request at index " + i);
+            }
+        }
+
+        final List<ServiceRequestEvent> serviceRequestEvents = new ArrayList<>(riderServiceRequests.size());
+        for (RiderServiceRequest riderServiceRequest : riderServiceRequests) {
+            riderServiceRequest.setId(UUID.randomUUID());
+            serviceRequestEvents.add(toEvent(riderServiceRequest));
+        }
+        final List<FloorsRequestEvent> floorsRequestEvents = new ArrayList<>(riderFloorsRequests.size());
+        for (RiderFloorsRequest riderFloorsRequest : riderFloorsRequests) {
+            floorsRequestEvents.add(toEvent(riderFloorsRequest));
+        }
+        elevatorService.processBatch(serviceRequestEvents, floorsRequestEvents);
+
+        return riderBatchRequest;
+    }
+
+    /**
+     * Subscribes to the events that pass every given filter, e.g. a floor display to {@code ?floor=3}, or to every
+     * event in the building without any.
+     * @param carIds the cars to receive events of
+     * @param floors the floors to receive rider cues from and car states at
+     * @param eventTypes {@code CAR_STATE}, {@code RIDER_CUE} or both
+     */
     @GetMapping("/service/events")
-    public SseEmitter registerServiceListener() {
-        final var sseEmitter = new SseEmitter(-1L);
-        sseEmitters.add(sseEmitter);
-        return sseEmitter;
+    public SseEmitter registerServiceListener(
+            @RequestParam(name = "car", required = false) Set<String> carIds,
+            @RequestParam(name = "floor", required = false) Set<Integer> floors,
+            @RequestParam(name = "type", required = false) Set<SseEventFilter.EventType> eventTypes
+    ) {
+        return sseBroadcaster.subscribe(new SseEventFilter(carIds, floors, eventTypes));
+    }
+
+    /**
+     * The same events as {@link #registerServiceListener(Set, Set, Set)}, streamed with flow control per subscriber.
+     */
+    @GetMapping(path = "/service/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> streamServiceEvents() {
+        return reactiveEventStream.subscribe();
+    }
+
+    private boolean isValidServiceRequest(RiderServiceRequest riderServiceRequest) {
+        return riderServiceRequest.getDirection() != null && isValidFloor(riderServiceRequest.getOriginationFloor());
+    }
+
+    private boolean isValidFloor(Integer floor) {
+        return floor != null && floor >= 0 && floor <= elevatorService.getNumberOfFloors();
     }
 
     private ServiceRequestEvent toEvent(RiderServiceRequest riderServiceRequest) {
@@ -116,33 +271,14 @@ public class ElevatorController {
 
     private FloorsRequestEvent toEvent(RiderFloorsRequest riderFloorsRequest) {
         final var serviceRequestEvent = toEvent(riderFloorsRequest.getRiderServiceRequest());
+        if (riderFloorsRequest.getRiders() == null) {
+            return new FloorsRequestEvent(serviceRequestEvent, riderFloorsRequest.getRequestedFloors());
+        }
         return new FloorsRequestEvent(
                 serviceRequestEvent,
-                riderFloorsRequest.getRequestedFloors()
+                riderFloorsRequest.getRequestedFloors(),
+                riderFloorsRequest.getRiders()
         );
     }
 
-    private RiderServiceRequest toModel(ServiceRequestEvent serviceRequestEvent) {
-        final var riderServiceRequest = new RiderServiceRequest();
-        riderServiceRequest.setId(serviceRequestEvent.id());
-        riderServiceRequest.setDirection(serviceRequestEvent.direction());
-        riderServiceRequest.setOriginationFloor(serviceRequestEvent.originationFloor());
-        return riderServiceRequest;
-    }
-
-    private RiderCue toModel(RiderCueEvent riderCueEvent) {
-        final var riderCue = new RiderCue();
-        riderCue.setServiceRequest(toModel(riderCueEvent.serviceRequestEvent()));
-        riderCue.setCarName(riderCueEvent.carId());
-        return riderCue;
-    }
-
-    private CarState toModel(CarStateEvent carStateEvent) {
-        final var carState = new CarState();
-        carState.setCarName(carStateEvent.carName());
-        carState.setStatus(carStateEvent.status());
-        carState.setCurrentFloor(carStateEvent.currentFloor());
-        return carState;
-    }
-
 }
@@ -0,0 +1,97 @@
+package zone.glueck.elevator.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import zone.glueck.elevator.api.models.Configuration;
+import zone.glueck.elevator.api.models.FleetCarRequest;
+import zone.glueck.elevator.api.models.FloorsChangeRequest;
+import zone.glueck.elevator.service.ElevatorService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Changes the running fleet. Taking a car out of service is two steps: drain it, which stops it taking calls and hands
+ * the ones it accepted to the other cars, then remove it once it has finished the trips of the riders aboard. Changes
+ * last until the application restarts with its configured fleet.
+ */
+@RestController
+@RequestMapping("/admin")
+public class FleetAdminController {
+
+    private final ElevatorService elevatorService;
+
+    public FleetAdminController(ElevatorService elevatorService) {
+        this.elevatorService = elevatorService;
+    }
+
+    @PostMapping("/cars")
+    public CompletableFuture<FleetCarRequest> addCar(@RequestBody FleetCarRequest fleetCarRequest) {
+        if (fleetCarRequest.getElevatorType() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "missing elevator type");
+        }
+        return elevatorService.addCar(fleetCarRequest.getElevatorType()).thenApply(carName -> {
+            if (carName == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown elevator type");
+            }
+            fleetCarRequest.setCarName(carName);
+            return fleetCarRequest;
+        });
+    }
+
+    @PostMapping("/cars/{carName}/drain")
+    public CompletableFuture<Void> drainCar(@PathVariable("carName") String carName) {
+        return elevatorService.drainCar(carName).thenAccept(drained -> {
+            if (!drained) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown car");
+            }
+        });
+    }
+
+    /**
+     * Fails with {@code 409 Conflict} while the car is still taking calls or carrying riders, try again once it is
+     * drained and available.
+     */
+    @DeleteMapping("/cars/{carName}")
+    public CompletableFuture<Void> removeCar(@PathVariable("carName") String carName) {
+        return elevatorService.removeCar(carName).handle((removed, ex) -> {
+            rethrowConflict(ex);
+            if (!removed) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown car");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Fails with {@code 409 Conflict} while a call, stop or busy car is above the new top floor, try again once the cars
+     * are done up there.
+     */
+    @PutMapping("/floors")
+    public CompletableFuture<Configuration> setNumberOfFloors(@RequestBody FloorsChangeRequest floorsChangeRequest) {
+        final var totalFloors = floorsChangeRequest.getTotalFloors();
+        if (totalFloors == null || totalFloors < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid number of floors");
+        }
+        return elevatorService.setNumberOfFloors(totalFloors).handle((ignored, ex) -> {
+            rethrowConflict(ex);
+            return new Configuration(elevatorService.getNumberOfFloors(), elevatorService.getElevatorNames());
+        });
+    }
+
+    /**
+     * Answers an {@link IllegalStateException} from the service with {@code 409 Conflict} and passes any other failure
+     * on.
+     */
+    private static void rethrowConflict(Throwable ex) {
+        final var cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof IllegalStateException) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, cause.getMessage());
+        }
+        if (cause != null) {
+            throw new CompletionException(cause);
+        }
+    }
+
+}
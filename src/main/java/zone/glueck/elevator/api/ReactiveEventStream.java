@@ -0,0 +1,87 @@
+package zone.glueck.elevator.api;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.service.ElevatorService;
+
+import java.time.Duration;
+
+/**
+ * Car states and rider cues as a {@link Flux}, the reactive counterpart of {@link SseBroadcaster}. Every event is
+ * encoded once and emitted into a multicast sink on the service thread; each subscriber gets its own flow controlled
+ * view of it, so a slow client only ever holds back itself.
+ * <p>
+ * A subscriber that falls behind only receives the newest state of each car, older ones are conflated away. Rider
+ * cues are buffered up to the SSE queue capacity, a client that lets more pile up misses the newest ones. Like an
+ * {@link SseBroadcaster} subscription, the stream completes once the SSE timeout is up.
+ */
+@Component
+public class ReactiveEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveEventStream.class);
+
+    private final Sinks.Many<Message> sink;
+
+    private final int queueCapacity;
+
+    @Nullable
+    private final Duration timeout;
+
+    public ReactiveEventStream(
+            ElevatorService elevatorService,
+            SseEventEncoder sseEventEncoder,
+            UserDefinedElevatorConfiguration configuration
+    ) {
+        // subscribers request unbounded from the sink, their own operators below apply the backpressure
+        final Sinks.Many<Message> events = Sinks.many().multicast().directBestEffort();
+        elevatorService.addRiderCueListener(riderCueEvent ->
+                events.tryEmitNext(new Message(null, sseEventEncoder.toJson(riderCueEvent))));
+        elevatorService.addCarStateListener(carStateEvent ->
+                events.tryEmitNext(new Message(carStateEvent.carName(), sseEventEncoder.toJson(carStateEvent))));
+        this.sink = events;
+        this.queueCapacity = configuration.getSseQueueCapacity();
+        final var sseTimeout = configuration.getSseTimeout();
+        this.timeout = sseTimeout == null || sseTimeout.isZero() || sseTimeout.isNegative() ? null : sseTimeout;
+    }
+
+    /**
+     * @return the events published from now on, as JSON objects
+     */
+    public Flux<String> subscribe() {
+        final var riderCues = sink.asFlux()
+                .filter(message -> message.coalescingKey() == null)
+                .onBackpressureBuffer(
+                        queueCapacity,
+                        message -> log.debug("dropping rider cue for a slow subscriber"),
+                        BufferOverflowStrategy.DROP_LATEST
+                );
+        final var carStates = sink.asFlux()
+                .filter(message -> message.coalescingKey() != null)
+                .groupBy(Message::coalescingKey)
+                .flatMap(Flux::onBackpressureLatest, Integer.MAX_VALUE, 1);
+        final var events = Flux.merge(1, riderCues, carStates).map(Message::json);
+        // Spring streams a Flux without a timeout of its own
+        return timeout == null ? events : events.take(timeout);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sink.tryEmitComplete();
+    }
+
+    /**
+     * @param coalescingKey the car whose state this is, {@code null} for a rider cue
+     * @param json the encoded event
+     */
+    private record Message(@Nullable String coalescingKey, String json) {
+
+    }
+
+}
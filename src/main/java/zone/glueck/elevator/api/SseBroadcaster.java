@@ -0,0 +1,99 @@
+package zone.glueck.elevator.api;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Fans events out to the Server Sent Event subscribers that want them. Each event is routed once through an
+ * {@link SseRoutingIndex} of the subscribers' filters, so a subscriber never even sees the events it filtered out.
+ * Publishing is non-blocking: each {@link SseSubscriber} has its own bounded queue that is drained on the
+ * {@code sseBroadcastExecutor}, never on the elevator service thread. Closed, failed or hopelessly slow subscribers
+ * remove themselves.
+ */
+@Component
+public class SseBroadcaster {
+
+    private final SseRoutingIndex<SseSubscriber> subscribers = new SseRoutingIndex<>();
+
+    private final Executor executor;
+
+    private final int queueCapacity;
+
+    private final long timeoutMillis;
+
+    public SseBroadcaster(
+            @Qualifier("sseBroadcastExecutor") Executor executor,
+            UserDefinedElevatorConfiguration configuration
+    ) {
+        this.executor = executor;
+        this.queueCapacity = configuration.getSseQueueCapacity();
+        final var timeout = configuration.getSseTimeout();
+        this.timeoutMillis = timeout == null || timeout.isZero() || timeout.isNegative() ? -1L : timeout.toMillis();
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(SseEventFilter.ALL);
+    }
+
+    /**
+     * @param filter the events the subscriber wants
+     */
+    public SseEmitter subscribe(@NonNull SseEventFilter filter) {
+        final var subscriber = new SseSubscriber(new SseEmitter(timeoutMillis), executor, queueCapacity, subscribers::remove);
+        subscribers.add(subscriber, filter);
+        return subscriber.getSseEmitter();
+    }
+
+    /**
+     * Queues the frame for every subscriber that wants the event. The same frame instance is shared by all of them.
+     * @param eventType the kind of event
+     * @param carId the car the event is about
+     * @param floor the floor the event is about, the origination floor of a cue or the floor of a car
+     * @param coalescingKey unsent frames with the same key are replaced by this one, {@code null} to always deliver
+     * @param frame the encoded event
+     */
+    public void broadcast(
+            @NonNull SseEventFilter.EventType eventType,
+            @NonNull String carId,
+            int floor,
+            @Nullable String coalescingKey,
+            @NonNull SseFrame frame
+    ) {
+        subscribers.route(eventType, carId, floor, subscriber -> subscriber.publish(coalescingKey, frame));
+    }
+
+    /**
+     * Queues the frame for every subscriber that wants the event on either floor, like the state of a car leaving one
+     * floor for another. Each subscriber gets it once.
+     * @param floor the floor the event is about, the target of a moving car
+     * @param otherFloor the other floor the event is about, the floor a moving car leaves
+     * @see #broadcast(SseEventFilter.EventType, String, int, String, SseFrame)
+     */
+    public void broadcast(
+            @NonNull SseEventFilter.EventType eventType,
+            @NonNull String carId,
+            int floor,
+            int otherFloor,
+            @Nullable String coalescingKey,
+            @NonNull SseFrame frame
+    ) {
+        subscribers.route(eventType, carId, floor, otherFloor, subscriber -> subscriber.publish(coalescingKey, frame));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        subscribers.clear().forEach(SseSubscriber::complete);
+    }
+
+}
@@ -0,0 +1,121 @@
+package zone.glueck.elevator.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes broadcast events straight to their Server Sent Event wire format with a streaming {@link JsonGenerator}, so
+ * each event is serialized once no matter how many subscribers receive it. The reactive stream takes the bare JSON.
+ */
+@Component
+public class SseEventEncoder {
+
+    private static final byte[] DATA_PREFIX = "data:".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] EVENT_SUFFIX = "\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonFactory jsonFactory;
+
+    public SseEventEncoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * @return {@code {"carName":..,"status":..,"currentFloor":..}} as an event frame
+     */
+    public SseFrame encode(@NonNull CarStateEvent carStateEvent) {
+        return encode(carState(carStateEvent));
+    }
+
+    /**
+     * @return {@code {"serviceRequest":{"id":..,"direction":..,"originationFloor":..},"carName":..}} as an event frame
+     */
+    public SseFrame encode(@NonNull RiderCueEvent riderCueEvent) {
+        return encode(riderCue(riderCueEvent));
+    }
+
+    /**
+     * @return the car state as the JSON object {@link #encode(CarStateEvent)} frames
+     */
+    public String toJson(@NonNull CarStateEvent carStateEvent) {
+        return toJson(carState(carStateEvent));
+    }
+
+    /**
+     * @return the rider cue as the JSON object {@link #encode(RiderCueEvent)} frames
+     */
+    public String toJson(@NonNull RiderCueEvent riderCueEvent) {
+        return toJson(riderCue(riderCueEvent));
+    }
+
+    private static JsonWriter carState(CarStateEvent carStateEvent) {
+        return generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("carName", carStateEvent.carName());
+            generator.writeStringField("status", carStateEvent.status());
+            generator.writeNumberField("currentFloor", carStateEvent.currentFloor());
+            generator.writeEndObject();
+        };
+    }
+
+    private static JsonWriter riderCue(RiderCueEvent riderCueEvent) {
+        return generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName("serviceRequest");
+            writeServiceRequest(generator, riderCueEvent.serviceRequestEvent());
+            generator.writeStringField("carName", riderCueEvent.carId());
+            generator.writeEndObject();
+        };
+    }
+
+    private static void writeServiceRequest(JsonGenerator generator, ServiceRequestEvent serviceRequestEvent) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", serviceRequestEvent.id().toString());
+        generator.writeStringField("direction", serviceRequestEvent.direction().name());
+        generator.writeNumberField("originationFloor", serviceRequestEvent.originationFloor());
+        generator.writeEndObject();
+    }
+
+    private SseFrame encode(JsonWriter writer) {
+        final var output = new ByteArrayOutputStream(128);
+        try {
+            output.write(DATA_PREFIX);
+            try (var generator = jsonFactory.createGenerator(output)) {
+                writer.write(generator);
+            }
+            output.write(EVENT_SUFFIX);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to encode event", ex);
+        }
+        return SseFrame.of(output.toByteArray());
+    }
+
+    private String toJson(JsonWriter writer) {
+        final var output = new ByteArrayOutputStream(128);
+        try (var generator = jsonFactory.createGenerator(output)) {
+            writer.write(generator);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to encode event", ex);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+
+        void write(JsonGenerator generator) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,45 @@
+package zone.glueck.elevator.api;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.Set;
+
+/**
+ * The events a Server Sent Event subscriber wants. An event must pass every non-empty criterion, an empty one lets
+ * everything through.
+ * @param carIds the cars whose states and cues to receive
+ * @param floors the floors to receive rider cues from and the states of cars at, leaving or heading for
+ * @param eventTypes the kinds of event to receive
+ */
+public record SseEventFilter(
+        @NonNull Set<String> carIds,
+        @NonNull Set<Integer> floors,
+        @NonNull Set<EventType> eventTypes
+) {
+
+    /**
+     * Every event in the building.
+     */
+    public static final SseEventFilter ALL = new SseEventFilter(Set.of(), Set.of(), Set.of());
+
+    public enum EventType {
+        CAR_STATE, RIDER_CUE
+    }
+
+    public SseEventFilter(@Nullable Set<String> carIds, @Nullable Set<Integer> floors, @Nullable Set<EventType> eventTypes) {
+        this.carIds = carIds == null ? Set.of() : Set.copyOf(carIds);
+        this.floors = floors == null ? Set.of() : Set.copyOf(floors);
+        this.eventTypes = eventTypes == null ? Set.of() : Set.copyOf(eventTypes);
+    }
+
+    /**
+     * @return {@code true} if the subscriber wants the event
+     */
+    public boolean matches(@NonNull EventType eventType, @NonNull String carId, int floor) {
+        return (eventTypes.isEmpty() || eventTypes.contains(eventType)) &&
+                (carIds.isEmpty() || carIds.contains(carId)) &&
+                (floors.isEmpty() || floors.contains(floor));
+    }
+
+}
@@ -0,0 +1,20 @@
+package zone.glueck.elevator.api;
+
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.util.Set;
+
+/**
+ * A complete, already encoded Server Sent Event ({@code data:<json>\n\n}). Frames are immutable, so one frame is shared
+ * by every subscriber and written out as-is.
+ * @param parts the single part written to each emitter
+ */
+public record SseFrame(@NonNull Set<DataWithMediaType> parts) {
+
+    public static SseFrame of(byte[] frame) {
+        return new SseFrame(Set.of(new DataWithMediaType(frame, MediaType.TEXT_EVENT_STREAM)));
+    }
+
+}
@@ -0,0 +1,210 @@
+package zone.glueck.elevator.api;
+
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Finds the subscribers of an event without asking each of them. The filters are compiled into a table per event type
+ * that is keyed by car and floor, so routing an event costs four lookups however many subscribers there are, and every
+ * subscriber found wants the event.
+ * <p>
+ * Routing never blocks. Every bucket of a table is a copy-on-write list, so subscribing and unsubscribing only copy the
+ * buckets the subscriber's filter names, not the whole table. Changes are serialized among themselves.
+ * @param <S> the subscriber
+ */
+class SseRoutingIndex<S> {
+
+    private final Map<S, SseEventFilter> filters = new ConcurrentHashMap<>();
+
+    private final Map<SseEventFilter.EventType, Routes<S>> routes = new EnumMap<>(SseEventFilter.EventType.class);
+
+    SseRoutingIndex() {
+        for (SseEventFilter.EventType eventType : SseEventFilter.EventType.values()) {
+            routes.put(eventType, new Routes<>(
+                    new CopyOnWriteArrayList<>(),
+                    new ConcurrentHashMap<>(),
+                    new ConcurrentHashMap<>(),
+                    new ConcurrentHashMap<>()
+            ));
+        }
+    }
+
+    /**
+     * Subscribes, or replaces the filter of a subscriber that already is.
+     */
+    synchronized void add(@NonNull S subscriber, @NonNull SseEventFilter filter) {
+        final var previous = filters.put(subscriber, filter);
+        if (previous != null) {
+            routesOf(previous).forEach(routes -> routes.remove(subscriber, previous));
+        }
+        routesOf(filter).forEach(routes -> routes.add(subscriber, filter));
+    }
+
+    /**
+     * @return {@code true} if the subscriber was subscribed
+     */
+    synchronized boolean remove(@NonNull S subscriber) {
+        final var filter = filters.remove(subscriber);
+        if (filter == null) {
+            return false;
+        }
+        routesOf(filter).forEach(routes -> routes.remove(subscriber, filter));
+        return true;
+    }
+
+    /**
+     * Unsubscribes everyone.
+     * @return the subscribers there were
+     */
+    synchronized List<S> clear() {
+        final List<S> subscribers = new ArrayList<>(filters.keySet());
+        filters.clear();
+        routes.values().forEach(Routes::clear);
+        return subscribers;
+    }
+
+    int size() {
+        return filters.size();
+    }
+
+    /**
+     * Hands the event to every subscriber whose filter it passes, each exactly once.
+     */
+    void route(@NonNull SseEventFilter.EventType eventType, @NonNull String carId, int floor, @NonNull Consumer<S> action) {
+        routes.get(eventType).route(carId, floor, action);
+    }
+
+    /**
+     * Hands an event that concerns two floors, like a car leaving one for another, to every subscriber whose filter
+     * passes it on either floor, each exactly once.
+     */
+    void route(
+            @NonNull SseEventFilter.EventType eventType,
+            @NonNull String carId,
+            int floor,
+            int otherFloor,
+            @NonNull Consumer<S> action
+    ) {
+        final var table = routes.get(eventType);
+        table.route(carId, floor, action);
+        if (otherFloor != floor) {
+            table.routeByFloor(carId, otherFloor, subscriber -> {
+                final var filter = filters.get(subscriber);
+                if (filter != null && !filter.floors().contains(floor)) {
+                    action.accept(subscriber);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the tables of the event types the filter lets through
+     */
+    private List<Routes<S>> routesOf(SseEventFilter filter) {
+        if (filter.eventTypes().isEmpty()) {
+            return List.copyOf(routes.values());
+        }
+        return filter.eventTypes().stream().map(routes::get).toList();
+    }
+
+    /**
+     * The subscribers of one event type, filed under the only key that finds them: the car and floor both, one of
+     * them, or neither if they want every car on every floor. Empty buckets are dropped.
+     */
+    private record Routes<S>(
+            List<S> everywhere,
+            ConcurrentMap<String, List<S>> byCar,
+            ConcurrentMap<Integer, List<S>> byFloor,
+            ConcurrentMap<String, ConcurrentMap<Integer, List<S>>> byCarAndFloor
+    ) {
+
+        private void add(S subscriber, SseEventFilter filter) {
+            if (filter.carIds().isEmpty() && filter.floors().isEmpty()) {
+                everywhere.add(subscriber);
+            } else if (filter.floors().isEmpty()) {
+                filter.carIds().forEach(carId -> bucket(byCar, carId).add(subscriber));
+            } else if (filter.carIds().isEmpty()) {
+                filter.floors().forEach(floor -> bucket(byFloor, floor).add(subscriber));
+            } else {
+                filter.carIds().forEach(carId -> {
+                    final var floors = byCarAndFloor.computeIfAbsent(carId, c -> new ConcurrentHashMap<>());
+                    filter.floors().forEach(floor -> bucket(floors, floor).add(subscriber));
+                });
+            }
+        }
+
+        private void remove(S subscriber, SseEventFilter filter) {
+            if (filter.carIds().isEmpty() && filter.floors().isEmpty()) {
+                everywhere.remove(subscriber);
+            } else if (filter.floors().isEmpty()) {
+                filter.carIds().forEach(carId -> remove(byCar, carId, subscriber));
+            } else if (filter.carIds().isEmpty()) {
+                filter.floors().forEach(floor -> remove(byFloor, floor, subscriber));
+            } else {
+                filter.carIds().forEach(carId -> {
+                    final var floors = byCarAndFloor.get(carId);
+                    if (floors == null) {
+                        return;
+                    }
+                    filter.floors().forEach(floor -> remove(floors, floor, subscriber));
+                    if (floors.isEmpty()) {
+                        byCarAndFloor.remove(carId, floors);
+                    }
+                });
+            }
+        }
+
+        private void clear() {
+            everywhere.clear();
+            byCar.clear();
+            byFloor.clear();
+            byCarAndFloor.clear();
+        }
+
+        private void route(String carId, int floor, Consumer<S> action) {
+            everywhere.forEach(action);
+            final var carBucket = byCar.get(carId);
+            if (carBucket != null) {
+                carBucket.forEach(action);
+            }
+            routeByFloor(carId, floor, action);
+        }
+
+        /**
+         * Hands the event to the subscribers filed under the floor, leaving out those that want it from every floor.
+         */
+        private void routeByFloor(String carId, int floor, Consumer<S> action) {
+            final var floorBucket = byFloor.get(floor);
+            if (floorBucket != null) {
+                floorBucket.forEach(action);
+            }
+            final var floors = byCarAndFloor.get(carId);
+            if (floors != null) {
+                final var carAndFloorBucket = floors.get(floor);
+                if (carAndFloorBucket != null) {
+                    carAndFloorBucket.forEach(action);
+                }
+            }
+        }
+
+        private static <K, S> List<S> bucket(ConcurrentMap<K, List<S>> buckets, K key) {
+            return buckets.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>());
+        }
+
+        private static <K, S> void remove(ConcurrentMap<K, List<S>> buckets, K key, S subscriber) {
+            final var bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(subscriber) && bucket.isEmpty()) {
+                buckets.remove(key, bucket);
+            }
+        }
+    }
+
+}
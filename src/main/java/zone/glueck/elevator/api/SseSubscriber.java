@@ -0,0 +1,207 @@
+package zone.glueck.elevator.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * A single Server Sent Event subscriber with its own bounded queue. Publishing only enqueues, the queue is drained to
+ * the {@link SseEmitter} by a task on the provided executor, so a slow client never blocks the publishing thread.
+ * <p>
+ * Messages published with a coalescing key replace a message with the same key that has not been sent yet, so a
+ * backed-up client only receives the newest state of each car. When the queue is full, the oldest keyed message is
+ * dropped to make room, that car's next state change brings the client up to date. If every queued message is
+ * unkeyed, the new message is dropped instead, so a burst of rider cues costs a slow client some cues rather than its
+ * connection. Only a client that drops more than a full queue of messages before any of them is sent is evicted.
+ */
+class SseSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(SseSubscriber.class);
+
+    private final SseEmitter sseEmitter;
+
+    private final Executor executor;
+
+    private final int capacity;
+
+    private final Consumer<SseSubscriber> evictionHandler;
+
+    private final Deque<Message> queue = new ArrayDeque<>();
+
+    private final Map<String, Message> unsentByKey = new HashMap<>();
+
+    private boolean draining;
+
+    /**
+     * Messages dropped since the last batch was sent.
+     */
+    private int dropped;
+
+    private boolean closed;
+
+    SseSubscriber(SseEmitter sseEmitter, Executor executor, int capacity, Consumer<SseSubscriber> evictionHandler) {
+        this.sseEmitter = sseEmitter;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.evictionHandler = evictionHandler;
+
+        sseEmitter.onCompletion(this::close);
+        sseEmitter.onTimeout(this::close);
+        sseEmitter.onError(ex -> close());
+    }
+
+    SseEmitter getSseEmitter() {
+        return sseEmitter;
+    }
+
+    /**
+     * Queues a message for delivery and makes sure a drain task is running.
+     * @param coalescingKey messages with the same key replace each other while unsent, {@code null} to always queue
+     * @param frame the encoded event
+     */
+    void publish(@Nullable String coalescingKey, @NonNull SseFrame frame) {
+        boolean overflowed = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            final var unsent = coalescingKey == null ? null : unsentByKey.get(coalescingKey);
+            if (unsent != null) {
+                unsent.frame = frame;
+            } else if (queue.size() < capacity || dropOldestKeyed()) {
+                final var message = new Message(coalescingKey, frame);
+                queue.addLast(message);
+                if (coalescingKey != null) {
+                    unsentByKey.put(coalescingKey, message);
+                }
+            } else {
+                overflowed = ++dropped > capacity;
+            }
+
+            if (!overflowed) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+        }
+
+        if (overflowed) {
+            log.warn("evicting subscriber, dropped more than {} messages", capacity);
+            evict(null);
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            // the messages stay queued, the next publish tries again
+            log.warn("broadcast executor is saturated, delaying delivery to subscriber");
+            synchronized (this) {
+                draining = false;
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest queued message that has a coalescing key.
+     * @return {@code false} if every queued message is unkeyed
+     */
+    private boolean dropOldestKeyed() {
+        final var iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            final var message = iterator.next();
+            if (message.coalescingKey != null) {
+                iterator.remove();
+                unsentByKey.remove(message.coalescingKey);
+                dropped++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Completes the emitter and stops any further delivery.
+     */
+    void complete() {
+        synchronized (this) {
+            closed = true;
+            queue.clear();
+            unsentByKey.clear();
+        }
+        sseEmitter.complete();
+    }
+
+    private void drain() {
+        final List<SseFrame> batch = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                if (closed || queue.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                for (Message message : queue) {
+                    batch.add(message.frame);
+                }
+                queue.clear();
+                unsentByKey.clear();
+                dropped = 0;
+            }
+
+            for (SseFrame frame : batch) {
+                try {
+                    sseEmitter.send(frame.parts());
+                } catch (Exception ex) {
+                    log.debug("failed to send to subscriber, evicting", ex);
+                    evict(ex);
+                    return;
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void evict(@Nullable Exception ex) {
+        close();
+        if (ex == null) {
+            sseEmitter.complete();
+        } else {
+            sseEmitter.completeWithError(ex);
+        }
+    }
+
+    private void close() {
+        synchronized (this) {
+            closed = true;
+            queue.clear();
+            unsentByKey.clear();
+        }
+        evictionHandler.accept(this);
+    }
+
+    private static final class Message {
+
+        @Nullable
+        private final String coalescingKey;
+
+        private SseFrame frame;
+
+        private Message(@Nullable String coalescingKey, SseFrame frame) {
+            this.coalescingKey = coalescingKey;
+            this.frame = frame;
+        }
+    }
+}
@@ -1,36 +0,0 @@
-package zone.glueck.elevator.api.models;
-
-import zone.glueck.elevator.utils.Direction;
-
-public class CarState {
-
-    private String carName;
-
-    private String status;
-
-    private int currentFloor;
-
-    public String getCarName() {
-        return carName;
-    }
-
-    public void setCarName(String carName) {
-        this.carName = carName;
-    }
-
-    public String getStatus() {
-        return status;
-    }
-
-    public void setStatus(String status) {
-        this.status = status;
-    }
-
-    public int getCurrentFloor() {
-        return currentFloor;
-    }
-
-    public void setCurrentFloor(int currentFloor) {
-        this.currentFloor = currentFloor;
-    }
-}
@@ -0,0 +1,30 @@
+package zone.glueck.elevator.api.models;
+
+public class FleetCarRequest {
+
+    private String elevatorType;
+
+    private String carName;
+
+    /**
+     * @return the configured type of the car to add, e.g. {@code StandardCar}
+     */
+    public String getElevatorType() {
+        return elevatorType;
+    }
+
+    public void setElevatorType(String elevatorType) {
+        this.elevatorType = elevatorType;
+    }
+
+    /**
+     * @return the name of the added car, {@code null} until it is added
+     */
+    public String getCarName() {
+        return carName;
+    }
+
+    public void setCarName(String carName) {
+        this.carName = carName;
+    }
+}
@@ -0,0 +1,14 @@
+package zone.glueck.elevator.api.models;
+
+public class FloorsChangeRequest {
+
+    private Integer totalFloors;
+
+    public Integer getTotalFloors() {
+        return totalFloors;
+    }
+
+    public void setTotalFloors(Integer totalFloors) {
+        this.totalFloors = totalFloors;
+    }
+}
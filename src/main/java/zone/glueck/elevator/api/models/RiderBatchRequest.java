@@ -0,0 +1,30 @@
+package zone.glueck.elevator.api.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hall calls and floor selections forwarded together, e.g. by a lobby kiosk or a building management gateway.
+ */
+public class RiderBatchRequest {
+
+    private List<RiderServiceRequest> serviceRequests = new ArrayList<>();
+
+    private List<RiderFloorsRequest> floorsRequests = new ArrayList<>();
+
+    public List<RiderServiceRequest> getServiceRequests() {
+        return serviceRequests;
+    }
+
+    public void setServiceRequests(List<RiderServiceRequest> serviceRequests) {
+        this.serviceRequests = serviceRequests;
+    }
+
+    public List<RiderFloorsRequest> getFloorsRequests() {
+        return floorsRequests;
+    }
+
+    public void setFloorsRequests(List<RiderFloorsRequest> floorsRequests) {
+        this.floorsRequests = floorsRequests;
+    }
+}
@@ -0,0 +1,49 @@
+package zone.glueck.elevator.api.models;
+
+import java.util.UUID;
+
+public class RiderDestinationRequest {
+
+    private UUID id;
+
+    private int originationFloor;
+
+    private int destinationFloor;
+
+    private String carName;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public int getOriginationFloor() {
+        return originationFloor;
+    }
+
+    public void setOriginationFloor(int originationFloor) {
+        this.originationFloor = originationFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+
+    public void setDestinationFloor(int destinationFloor) {
+        this.destinationFloor = destinationFloor;
+    }
+
+    /**
+     * @return the car the rider should board, {@code null} until one is free to take the call
+     */
+    public String getCarName() {
+        return carName;
+    }
+
+    public void setCarName(String carName) {
+        this.carName = carName;
+    }
+}
@@ -10,6 +10,8 @@ public class RiderFloorsRequest {
 
     private Set<Integer> requestedFloors;
 
+    private Integer riders;
+
     public RiderServiceRequest getRiderServiceRequest() {
         return riderServiceRequest;
     }
@@ -25,4 +27,15 @@ public class RiderFloorsRequest {
     public void setRequestedFloors(Set<Integer> requestedFloors) {
         this.requestedFloors = requestedFloors;
     }
+
+    /**
+     * @return the number of riders who boarded, {@code null} for one rider per requested floor
+     */
+    public Integer getRiders() {
+        return riders;
+    }
+
+    public void setRiders(Integer riders) {
+        this.riders = riders;
+    }
 }
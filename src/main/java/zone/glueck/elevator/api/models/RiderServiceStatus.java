@@ -0,0 +1,88 @@
+package zone.glueck.elevator.api.models;
+
+import zone.glueck.elevator.service.ServiceRequestStatus;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+public class RiderServiceStatus {
+
+    private UUID id;
+
+    private ServiceRequestStatus.State status;
+
+    private String carName;
+
+    private Instant estimatedArrival;
+
+    private Set<Integer> remainingFloors;
+
+    private Instant updatedAt;
+
+    public RiderServiceStatus() {
+    }
+
+    public RiderServiceStatus(ServiceRequestStatus serviceRequestStatus) {
+        this.id = serviceRequestStatus.id();
+        this.status = serviceRequestStatus.state();
+        this.carName = serviceRequestStatus.carId();
+        this.estimatedArrival = serviceRequestStatus.expectedArrival();
+        this.remainingFloors = serviceRequestStatus.remainingFloors();
+        this.updatedAt = serviceRequestStatus.updatedAt();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public ServiceRequestStatus.State getStatus() {
+        return status;
+    }
+
+    public void setStatus(ServiceRequestStatus.State status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the car answering the request, {@code null} while it waits for one
+     */
+    public String getCarName() {
+        return carName;
+    }
+
+    public void setCarName(String carName) {
+        this.carName = carName;
+    }
+
+    /**
+     * @return when the car is expected at the origination floor, {@code null} unless it is on its way
+     */
+    public Instant getEstimatedArrival() {
+        return estimatedArrival;
+    }
+
+    public void setEstimatedArrival(Instant estimatedArrival) {
+        this.estimatedArrival = estimatedArrival;
+    }
+
+    public Set<Integer> getRemainingFloors() {
+        return remainingFloors;
+    }
+
+    public void setRemainingFloors(Set<Integer> remainingFloors) {
+        this.remainingFloors = remainingFloors;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,9 +1,12 @@
 package zone.glueck.elevator.cars;
 
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import zone.glueck.elevator.events.FloorsRequestEvent;
 import zone.glueck.elevator.events.ServiceRequestEvent;
 
+import java.time.Duration;
+
 /**
  * An elevator car that accepts service and floor requests.
  */
@@ -19,6 +22,82 @@ public interface Car {
      */
     boolean processServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent);
 
+    /**
+     * A submission method for destination calls, whose rider entered the floor they are going to before a car was
+     * assigned. Cars that plan with destinations commit to stop at the destination right away, and riders headed the
+     * same way from the same floor may share the pickup. By default the call is processed like a plain hall call.
+     * @param serviceRequestEvent the hall call
+     * @param destinationFloor the rider's destination
+     * @return {@code true} if the car is in a state to process the event
+     */
+    default boolean processServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent, int destinationFloor) {
+        return processServiceRequest(serviceRequestEvent);
+    }
+
+    /**
+     * A read-only estimate of how long this car would take to reach the origination floor of the provided
+     * {@link ServiceRequestEvent}, accounting for the current floor, direction and stops already committed to. Calling
+     * this method does not change the car.
+     * @param serviceRequestEvent
+     * @return the estimated time to arrival, or {@code null} if the car would currently reject the request
+     */
+    @Nullable
+    Duration estimateTimeToArrival(@NonNull ServiceRequestEvent serviceRequestEvent);
+
+    /**
+     * A read-only estimate of how long this car would take to pick up the rider of a destination call.
+     * @param serviceRequestEvent the hall call
+     * @param destinationFloor the rider's destination
+     * @return the estimated time to arrival, or {@code null} if the car would currently reject the call
+     * @see #processServiceRequest(ServiceRequestEvent, int)
+     */
+    @Nullable
+    default Duration estimateTimeToArrival(@NonNull ServiceRequestEvent serviceRequestEvent, int destinationFloor) {
+        return estimateTimeToArrival(serviceRequestEvent);
+    }
+
+    /**
+     * @param floor a floor of the building
+     * @return {@code true} if the car has already committed to stop at the floor on its current trip
+     */
+    boolean isStoppingAt(int floor);
+
+    /**
+     * A read-only estimate of how long until the car opens its doors at a floor it has already committed to.
+     * @param floor a floor of the building
+     * @return the estimated time to arrival, or {@code null} if the car is not stopping at the floor
+     */
+    @Nullable
+    default Duration estimateTimeToStop(int floor) {
+        return null;
+    }
+
+    /**
+     * @param floor a floor of the building
+     * @return {@code true} if the car stops at the floor at all, cars serving every floor always do
+     */
+    default boolean serves(int floor) {
+        return true;
+    }
+
+    /**
+     * Sends an available car to wait at the floor. The car stays free to answer calls on the way and becomes available
+     * again once it arrives.
+     * @param floor the floor to wait at
+     * @return {@code true} if the car is available and heads for the floor
+     */
+    boolean park(int floor);
+
+    /**
+     * @return the most riders the car carries at once
+     */
+    int getCapacity();
+
+    /**
+     * @return the riders currently aboard
+     */
+    int getLoad();
+
     /**
      * A submission method for {@link FloorsRequestEvent}s to be processed by this car. The submitted
      * {@link FloorsRequestEvent#serviceRequestEvent()} ID must match this cars current {@link ServiceRequestEvent} or
@@ -0,0 +1,32 @@
+package zone.glueck.elevator.cars;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Everything needed to put a car back where it was after a restart.
+ * @param carId the car the snapshot was taken from
+ * @param state the car's state
+ * @param currentFloor the floor the car is at, or moving to
+ * @param direction the direction of the current trip, {@code null} if the car has none
+ * @param stops every floor the car has committed to stop at
+ * @param serviceRequests the service requests the car is answering, including those it stored for the way back
+ * @param resumeIn how long until the car carries on by itself, the rest of a move or a door dwell, {@code null} if it
+ *                 is available or waiting for a rider
+ */
+public record CarSnapshot(
+        @NonNull String carId,
+        @NonNull EventPublisherCar.State state,
+        int currentFloor,
+        @Nullable Direction direction,
+        @NonNull List<Integer> stops,
+        @NonNull List<ServiceRequestEvent> serviceRequests,
+        @Nullable Duration resumeIn
+) {
+
+}
@@ -1,15 +1,20 @@
 package zone.glueck.elevator.cars;
 
+import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.TaskScheduler;
 import zone.glueck.elevator.events.CarStateEvent;
 import zone.glueck.elevator.events.RiderCueEvent;
 import zone.glueck.elevator.events.ServiceRequestEvent;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 
 import static zone.glueck.elevator.cars.EventPublisherCar.State.MOVING;
 
@@ -21,16 +26,39 @@ import static zone.glueck.elevator.cars.EventPublisherCar.State.MOVING;
  *     <li>Management of the {@link EventPublisherCar#currentFloor} and {@link EventPublisherCar#state}</li>
  *     <li>Automatic Service Request Queue checks when state goes available</li>
  *     <li>Adds "realistic" duration to elevator operations, like moving between floors</li>
+ *     <li>Tracks the riders aboard, who board with their floors request and alight at their floors</li>
  * </ul>
  */
 public abstract class EventPublisherCar implements Car {
 
     protected static final Duration PER_FLOOR_MOVE_DURATION = Duration.ofSeconds(3L);
 
-    protected final ThreadPoolTaskScheduler taskScheduler;
+    protected static final Duration DOOR_DWELL_DURATION = Duration.ofSeconds(3L);
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The top floor of a car that has not been told the building's floors.
+     */
+    public static final int DEFAULT_NUMBER_OF_FLOORS = Long.SIZE - 1;
+
+    /**
+     * The share of its capacity above which a car stops picking up riders on the way, the riders waiting at the hall
+     * rarely fit into what is left.
+     */
+    protected static final double NEARLY_FULL_LOAD = 0.8;
+
+    /**
+     * The scheduler all car work runs on. Every delay is measured against its {@link TaskScheduler#getClock() clock}
+     * so the car runs equally well on wall-clock time or on a virtual-time simulation scheduler.
+     */
+    protected final TaskScheduler taskScheduler;
 
     @Nullable
-    protected Supplier<ServiceRequestEvent> serviceRequestSupplier;
+    protected ServiceRequestQueue serviceRequestQueue;
+
+    @Nullable
+    protected Consumer<ServiceRequestEvent> serviceRequestAcceptedConsumer;
 
     @Nullable
     protected Consumer<RiderCueEvent> riderCueEventConsumer;
@@ -38,11 +66,51 @@ public abstract class EventPublisherCar implements Car {
     @Nullable
     protected Consumer<CarStateEvent> carStateEventConsumer;
 
+    @Nullable
+    protected Consumer<EventPublisherCar> carIdleConsumer;
+
     protected State state = State.AVAILABLE;
 
     protected int currentFloor = 0;
 
-    public EventPublisherCar(ThreadPoolTaskScheduler taskScheduler) {
+    /**
+     * When the car is {@link State#MOVING}, the time it is scheduled to arrive at {@link #currentFloor}.
+     */
+    protected Instant arrivalTime = Instant.EPOCH;
+
+    /**
+     * When the car is {@link State#WAITING} with its doors open to let riders off, the time it moves on. {@code null}
+     * while it waits for a rider's floors request.
+     */
+    @Nullable
+    protected Instant dwellEndTime;
+
+    /**
+     * The top floor of the building, the car neither answers calls from nor stops at floors above it.
+     */
+    protected int numberOfFloors = DEFAULT_NUMBER_OF_FLOORS;
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private int load;
+
+    /**
+     * The number of riders aboard headed for each floor.
+     */
+    private final Map<Integer, Integer> alighting = new HashMap<>();
+
+    /**
+     * Nanoseconds spent in each {@link State}, by ordinal, up to {@link #stateChangedAt}.
+     */
+    private final AtomicLongArray nanosInState = new AtomicLongArray(State.values().length);
+
+    /**
+     * When the car last changed state, {@code null} until the first change.
+     */
+    @Nullable
+    private volatile Instant stateChangedAt;
+
+    public EventPublisherCar(TaskScheduler taskScheduler) {
         this.taskScheduler = taskScheduler;
     }
 
@@ -55,6 +123,31 @@ public abstract class EventPublisherCar implements Car {
      */
     protected abstract void arrived();
 
+    /**
+     * @return the floor the car heads for after a door dwell
+     */
+    protected abstract int nextStop();
+
+    /**
+     * @return the car's current trip, stops and requests, for restoring it after a restart
+     */
+    public abstract CarSnapshot snapshot();
+
+    /**
+     * Puts the car back to the state of the snapshot and schedules the rest of its current move or door dwell. Only
+     * valid for a car that has not handled any requests yet. Publishes no events, the restored car carries on as if
+     * it had never stopped.
+     * @param snapshot a snapshot taken from a car with the same id
+     */
+    public abstract void restore(@NonNull CarSnapshot snapshot);
+
+    /**
+     * Gives up the service requests the car has accepted but not reached yet, so they can go to another car. The rider
+     * the car is currently waiting for and the stops of the riders aboard stay.
+     * @return the released service requests
+     */
+    public abstract List<ServiceRequestEvent> releaseServiceRequests();
+
     /**
      * "Moves" the elevator by scheduling an arrival and modifying the state and current floor
      * @param nextFloor
@@ -62,11 +155,105 @@ public abstract class EventPublisherCar implements Car {
     protected void moveTo(int nextFloor) {
         final var numberOfFloors = Math.abs(nextFloor - currentFloor);
         currentFloor = nextFloor;
+        dwellEndTime = null;
+        arrivalTime = now().plus(PER_FLOOR_MOVE_DURATION.multipliedBy(numberOfFloors));
         changeState(MOVING);
-        taskScheduler.schedule(
-                this::arrived,
-                Instant.now().plus(PER_FLOOR_MOVE_DURATION.multipliedBy(numberOfFloors))
-        );
+        taskScheduler.schedule(this::arrived, arrivalTime);
+    }
+
+    /**
+     * Opens the doors to let riders off, then {@link #moveOn() moves on}.
+     */
+    protected void dwell() {
+        changeState(State.WAITING);
+        dwellEndTime = now().plus(DOOR_DWELL_DURATION);
+        taskScheduler.schedule(this::moveOn, dwellEndTime);
+    }
+
+    /**
+     * Invoked when a door dwell is over. By default moves to the {@link #nextStop() next stop}, cars that plan more
+     * than one trip ahead may override this to start the next one.
+     */
+    protected void moveOn() {
+        moveTo(nextStop());
+    }
+
+    /**
+     * @return how long until the car carries on by itself, {@code null} if it is available or waiting for a rider
+     */
+    @Nullable
+    protected Duration resumeIn() {
+        final Instant resumeTime = switch (state) {
+            case AVAILABLE -> null;
+            case MOVING -> arrivalTime;
+            case WAITING -> dwellEndTime;
+        };
+        if (resumeTime == null) {
+            return null;
+        }
+        final var remaining = Duration.between(now(), resumeTime);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Restores the state shared by every car and schedules the rest of the move or door dwell the snapshot was taken
+     * in. Subclasses restore their stops first.
+     */
+    protected void resume(@NonNull CarSnapshot snapshot) {
+        state = snapshot.state();
+        currentFloor = snapshot.currentFloor();
+        stateChangedAt = now();
+        final var resumeIn = snapshot.resumeIn();
+        if (resumeIn == null) {
+            return;
+        }
+        if (state == MOVING) {
+            arrivalTime = now().plus(resumeIn);
+            taskScheduler.schedule(this::arrived, arrivalTime);
+        } else if (state == State.WAITING) {
+            dwellEndTime = now().plus(resumeIn);
+            taskScheduler.schedule(this::moveOn, dwellEndTime);
+        }
+    }
+
+    /**
+     * @return the time it takes to travel between the two floors without stopping
+     */
+    protected static Duration travelTime(int fromFloor, int toFloor) {
+        return PER_FLOOR_MOVE_DURATION.multipliedBy(Math.abs(toFloor - fromFloor));
+    }
+
+    /**
+     * @return the time until the car can continue from {@link #currentFloor}: the rest of the current move while
+     * {@link State#MOVING}, a door dwell while {@link State#WAITING} and nothing while {@link State#AVAILABLE}
+     */
+    protected Duration timeUntilReady() {
+        return switch (state) {
+            case AVAILABLE -> Duration.ZERO;
+            case WAITING -> DOOR_DWELL_DURATION;
+            case MOVING -> {
+                final var remaining = Duration.between(now(), arrivalTime);
+                yield remaining.isNegative() ? Duration.ZERO : remaining;
+            }
+        };
+    }
+
+    /**
+     * @return the current time according to the {@link #taskScheduler} clock
+     */
+    protected Instant now() {
+        return taskScheduler.getClock().instant();
+    }
+
+    /**
+     * Invoke whenever the car commits to a service request, directly or from the queue. Notifies the accepted consumer
+     * if one is configured.
+     * @param serviceRequestEvent
+     */
+    protected void accepted(ServiceRequestEvent serviceRequestEvent) {
+        if (serviceRequestAcceptedConsumer != null) {
+            serviceRequestAcceptedConsumer.accept(serviceRequestEvent);
+        }
     }
 
     /**
@@ -83,33 +270,124 @@ public abstract class EventPublisherCar implements Car {
 
     /**
      * Changes the elevator state and checks for certain state change conditions. In the event the elevator transitions
-     * to {@link State#AVAILABLE}, will check if there is queued service request, if a request supplier is configured.
+     * to {@link State#AVAILABLE}, will claim the closest queued service request, and every compatible request along
+     * the way to it, if a request queue is configured. Notifies the idle consumer if there was none.
      * @param state
      */
     protected void changeState(State state) {
+        final var now = now();
+        final var previousChange = stateChangedAt;
+        if (previousChange != null) {
+            nanosInState.addAndGet(this.state.ordinal(), Duration.between(previousChange, now).toNanos());
+        }
         this.state = state;
+        stateChangedAt = now;
+        if (state == State.AVAILABLE) {
+            // the trip is over, riders whose floors the car declined got off where they boarded
+            load = 0;
+            alighting.clear();
+        }
 
         if (carStateEventConsumer != null) {
             carStateEventConsumer.accept(new CarStateEvent(getCarId(), this.state.name(), currentFloor));
         }
 
-        if (state == State.AVAILABLE && serviceRequestSupplier != null) {
-            final ServiceRequestEvent serviceRequestEvent = serviceRequestSupplier.get();
+        if (state == State.AVAILABLE && serviceRequestQueue != null) {
+            final ServiceRequestEvent serviceRequestEvent = serviceRequestQueue.pollNearest(currentFloor, this::serves);
             if (serviceRequestEvent != null) {
                 if (!processServiceRequest(serviceRequestEvent)) {
                     throw new IllegalStateException("should be able to process, available");
                 }
+                claimOnTheWay(serviceRequestEvent);
+                return;
             }
         }
+        if (state == State.AVAILABLE && carIdleConsumer != null) {
+            carIdleConsumer.accept(this);
+        }
+    }
+
+    /**
+     * Takes the riders of a floors request aboard. They are spread evenly over the floors the car accepted, the first
+     * floors get the remainder.
+     * @param riders the number of riders boarding
+     * @param floors the requested floors the car is going to stop at
+     */
+    protected void board(int riders, Collection<Integer> floors) {
+        if (floors.isEmpty()) {
+            return;
+        }
+        var remainder = riders % floors.size();
+        for (Integer floor : floors) {
+            final var alightingHere = riders / floors.size() + (remainder-- > 0 ? 1 : 0);
+            if (alightingHere > 0) {
+                alighting.merge(floor, alightingHere, Integer::sum);
+            }
+        }
+        load += riders;
+    }
+
+    /**
+     * Lets the riders headed for the {@link #currentFloor} off. Invoke on every arrival.
+     */
+    protected void alight() {
+        final var riders = alighting.remove(currentFloor);
+        if (riders != null) {
+            load -= riders;
+        }
+    }
+
+    /**
+     * @return {@code true} if riders aboard are headed for the floor
+     */
+    protected boolean isDropOff(int floor) {
+        return alighting.containsKey(floor);
+    }
+
+    /**
+     * @return {@code true} if the floor lies between the lobby and the top floor
+     */
+    protected boolean isInBuilding(int floor) {
+        return floor >= 0 && floor <= numberOfFloors;
+    }
+
+    /**
+     * @return {@code true} if the car should not pick up more riders on its current trip
+     */
+    protected boolean isNearlyFull() {
+        return load >= capacity * NEARLY_FULL_LOAD;
+    }
+
+    /**
+     * Invoked after the car accepted a queued service request on becoming available. By default offers the car every
+     * queued request in the same direction beyond the accepted one, cars that serve a single request at a time may
+     * override this to do nothing.
+     * @param serviceRequestEvent the queued request the car just accepted
+     */
+    protected void claimOnTheWay(ServiceRequestEvent serviceRequestEvent) {
+        serviceRequestQueue.claimOnTheWay(
+                serviceRequestEvent.direction(),
+                serviceRequestEvent.originationFloor(),
+                this::processServiceRequest
+        );
     }
 
     @Nullable
-    public Supplier<ServiceRequestEvent> getServiceRequestSupplier() {
-        return serviceRequestSupplier;
+    public ServiceRequestQueue getServiceRequestQueue() {
+        return serviceRequestQueue;
     }
 
-    public void setServiceRequestSupplier(@Nullable Supplier<ServiceRequestEvent> serviceRequestSupplier) {
-        this.serviceRequestSupplier = serviceRequestSupplier;
+    public void setServiceRequestQueue(@Nullable ServiceRequestQueue serviceRequestQueue) {
+        this.serviceRequestQueue = serviceRequestQueue;
+    }
+
+    @Nullable
+    public Consumer<ServiceRequestEvent> getServiceRequestAcceptedConsumer() {
+        return serviceRequestAcceptedConsumer;
+    }
+
+    public void setServiceRequestAcceptedConsumer(@Nullable Consumer<ServiceRequestEvent> serviceRequestAcceptedConsumer) {
+        this.serviceRequestAcceptedConsumer = serviceRequestAcceptedConsumer;
     }
 
     @Nullable
@@ -130,11 +408,61 @@ public abstract class EventPublisherCar implements Car {
         this.carStateEventConsumer = carStateEventConsumer;
     }
 
+    @Nullable
+    public Consumer<EventPublisherCar> getCarIdleConsumer() {
+        return carIdleConsumer;
+    }
+
+    public void setCarIdleConsumer(@Nullable Consumer<EventPublisherCar> carIdleConsumer) {
+        this.carIdleConsumer = carIdleConsumer;
+    }
+
     public State getState() {
         return state;
     }
 
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getNumberOfFloors() {
+        return numberOfFloors;
+    }
+
+    /**
+     * Tells the car the building's top floor. Cars that keep state per floor override this to resize it.
+     * @throws IllegalArgumentException if the car has stops above the new top floor
+     */
+    public void setNumberOfFloors(int numberOfFloors) {
+        this.numberOfFloors = numberOfFloors;
+    }
+
+    @Override
+    public int getLoad() {
+        return load;
+    }
+
     public int getCurrentFloor() {
         return currentFloor;
     }
+
+    /**
+     * The total time spent in the provided state, measured from the car's first state change. Safe to read from any
+     * thread, although the result may be slightly stale while a state change is in progress.
+     * @param state the state of interest
+     * @return the accumulated time, including the time since the last change if the car is currently in the state
+     */
+    public Duration getTimeInState(State state) {
+        var nanos = nanosInState.get(state.ordinal());
+        final var previousChange = stateChangedAt;
+        if (previousChange != null && this.state == state) {
+            nanos += Math.max(0L, Duration.between(previousChange, now()).toNanos());
+        }
+        return Duration.ofNanos(nanos);
+    }
 }
@@ -1,90 +1,38 @@
 package zone.glueck.elevator.cars;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.lang.NonNull;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
-import zone.glueck.elevator.events.FloorsRequestEvent;
-import zone.glueck.elevator.events.ServiceRequestEvent;
-import zone.glueck.elevator.utils.Direction;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Comparator;
-import java.util.TreeSet;
+/**
+ * An express car only stops at the floors of its {@link ExpressZone} and runs non-stop past all others. Within those
+ * floors it works like a {@link StandardCar}: every compatible call on the way joins the trip, so a single run from
+ * the lobby carries everyone headed for the zone. Without a zone it serves every floor.
+ */
+public class ExpressCar extends StandardCar {
 
-public class ExpressCar extends EventPublisherCar {
+    @Nullable
+    private final ExpressZone zone;
 
-    private static final Logger log = LoggerFactory.getLogger(ExpressCar.class);
-
-    private final String carId;
-
-    private ServiceRequestEvent serviceRequestEvent;
-
-    private TreeSet<Integer> stops;
-
-    public ExpressCar(ThreadPoolTaskScheduler taskScheduler, String carId) {
-        super(taskScheduler);
-        this.carId = carId;
+    public ExpressCar(TaskScheduler taskScheduler, String carId) {
+        this(taskScheduler, carId, null);
     }
 
-    @Override
-    protected void arrived() {
-        log.info("car: {} arrived at floor: {}", getCarId(), currentFloor);
-        stops.remove(currentFloor);
-        if (currentFloor != serviceRequestEvent.originationFloor()) {
-            // just letting people off
-            stops.remove(currentFloor);
-
-            if (stops.isEmpty()) {
-                serviceRequestEvent = null;
-                changeState(State.AVAILABLE);
-                return;
-            }
-
-            changeState(State.WAITING);
-
-            taskScheduler.schedule(
-                    () -> moveTo(stops.first()),
-                    Instant.now().plus(Duration.ofSeconds(3L))
-            );
-        } else {
-            // need to wait for rider input
-            cueRider(serviceRequestEvent);
-        }
+    /**
+     * @param zone the floors the car serves, {@code null} for every floor
+     */
+    public ExpressCar(TaskScheduler taskScheduler, String carId, @Nullable ExpressZone zone) {
+        super(taskScheduler, carId);
+        this.zone = zone;
     }
 
-    @Override
-    public String getCarId() {
-        return carId;
+    @Nullable
+    public ExpressZone getZone() {
+        return zone;
     }
 
     @Override
-    public boolean processServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent) {
-        if (this.serviceRequestEvent != null) {
-            return false;
-        }
-
-        log.info("car: {} accepting: {}", getCarId(), serviceRequestEvent);
-        final Comparator<Integer> comparator = serviceRequestEvent.direction() == Direction.ASCENDING ? Comparator.naturalOrder() : Comparator.reverseOrder();
-        stops = new TreeSet<>(comparator);
-        this.serviceRequestEvent = serviceRequestEvent;
-        stops.add(serviceRequestEvent.originationFloor());
-        moveTo(stops.first());
-        return true;
+    public boolean serves(int floor) {
+        return zone == null || zone.serves(floor);
     }
 
-    @Override
-    public boolean processFloorsRequest(@NonNull FloorsRequestEvent floorsRequestEvent) {
-        if (
-                this.serviceRequestEvent != null &&
-                !this.serviceRequestEvent.id().equals(floorsRequestEvent.serviceRequestEvent().id())
-        ) {
-            return false;
-        }
-
-        stops.addAll(floorsRequestEvent.requestedFloors());
-        moveTo(stops.first());
-        return true;
-    }
 }
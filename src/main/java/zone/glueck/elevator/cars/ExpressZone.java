@@ -0,0 +1,31 @@
+package zone.glueck.elevator.cars;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Set;
+
+/**
+ * The floors an express car serves: its lobby, the floors of its zone and the sky lobbies where riders change between
+ * the express and the local cars. The car runs non-stop past every other floor.
+ * @param lobby the floor the express runs start from, usually the ground floor
+ * @param lowestFloor the lowest floor of the zone
+ * @param highestFloor the highest floor of the zone
+ * @param transferFloors the sky lobbies the car also stops at
+ */
+public record ExpressZone(int lobby, int lowestFloor, int highestFloor, @NonNull Set<Integer> transferFloors) {
+
+    public ExpressZone {
+        if (lowestFloor > highestFloor) {
+            throw new IllegalArgumentException("zone from floor " + lowestFloor + " to " + highestFloor);
+        }
+        transferFloors = transferFloors == null ? Set.of() : Set.copyOf(transferFloors);
+    }
+
+    /**
+     * @return {@code true} if the floor is the lobby, a transfer floor or inside the zone
+     */
+    public boolean serves(int floor) {
+        return floor == lobby || (floor >= lowestFloor && floor <= highestFloor) || transferFloors.contains(floor);
+    }
+
+}
@@ -0,0 +1,46 @@
+package zone.glueck.elevator.cars;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Service requests that no car could accept when they were made. Cars claim from it as they become available.
+ */
+public interface ServiceRequestQueue {
+
+    /**
+     * Removes and returns the queued request whose origination floor is closest to the provided floor.
+     * @param floor the floor the claiming car is at
+     * @return the closest request, or {@code null} if the queue is empty
+     */
+    @Nullable
+    default ServiceRequestEvent pollNearest(int floor) {
+        return pollNearest(floor, servedFloor -> true);
+    }
+
+    /**
+     * Removes and returns the queued request whose origination floor is closest to the provided floor, among the
+     * floors the claiming car serves.
+     * @param floor the floor the claiming car is at
+     * @param servedFloors returns {@code true} for the floors the claiming car stops at
+     * @return the closest request, or {@code null} if none is queued on a served floor
+     */
+    @Nullable
+    ServiceRequestEvent pollNearest(int floor, @NonNull IntPredicate servedFloors);
+
+    /**
+     * Offers the claimant every queued request for the provided direction whose origination floor lies beyond the
+     * provided floor, in the order a car travelling that direction would reach them. Requests the claimant accepts are
+     * removed from the queue.
+     * @param direction the direction the claiming car is travelling
+     * @param floor the floor the claiming car is travelling from, exclusive
+     * @param claimant returns {@code true} when it accepts a request
+     */
+    void claimOnTheWay(@NonNull Direction direction, int floor, @NonNull Predicate<ServiceRequestEvent> claimant);
+
+}
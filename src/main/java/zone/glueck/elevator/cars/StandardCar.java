@@ -3,20 +3,26 @@ package zone.glueck.elevator.cars;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
 import zone.glueck.elevator.events.FloorsRequestEvent;
 import zone.glueck.elevator.events.ServiceRequestEvent;
 import zone.glueck.elevator.utils.Direction;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Comparator;
-import java.util.Objects;
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A "Standard" Elevator car that accepts additional service requests as long as they are for the same direction and
  * haven't been passed by yet.
+ * <p>
+ * Under collective control the car also stores service requests for the opposite direction. Once the stops of its
+ * current sweep run out it turns, instead of going available, and answers them on the way back, the way a LOOK disk
+ * scheduler sweeps the platter. It still never passes a floor it has committed to on its current sweep.
+ * <p>
+ * A destination call adds its destination as a stop as soon as the car takes it. Riders calling from a floor where the
+ * car already picks up a destination call headed their way share that stop and are cued one after the other.
  */
 public class StandardCar extends EventPublisherCar {
 
@@ -24,16 +30,36 @@ public class StandardCar extends EventPublisherCar {
 
     private final String carId;
 
+    private final boolean collectiveControl;
+
     private Direction direction;
 
-    private TreeMap<Integer, StopReasonContainer> stops;
+    private StopSet stops = new StopSet(DEFAULT_NUMBER_OF_FLOORS + 1);
+
+    /**
+     * The service requests stored for the sweep in the opposite direction, only used under collective control.
+     */
+    private StopSet returnStops = new StopSet(DEFAULT_NUMBER_OF_FLOORS + 1);
 
     public StandardCar(
-            ThreadPoolTaskScheduler taskScheduler,
+            TaskScheduler taskScheduler,
             String carId
+    ) {
+        this(taskScheduler, carId, false);
+    }
+
+    /**
+     * @param collectiveControl {@code true} to store service requests for the opposite direction and turn for them when
+     *                          the current sweep is over
+     */
+    public StandardCar(
+            TaskScheduler taskScheduler,
+            String carId,
+            boolean collectiveControl
     ) {
         super(taskScheduler);
         this.carId = carId;
+        this.collectiveControl = collectiveControl;
     }
 
     @Override
@@ -41,98 +67,404 @@ public class StandardCar extends EventPublisherCar {
         return carId;
     }
 
+    @Override
+    public void setNumberOfFloors(int numberOfFloors) {
+        if (stops.count(numberOfFloors + 1, Integer.MAX_VALUE) > 0 ||
+                returnStops.count(numberOfFloors + 1, Integer.MAX_VALUE) > 0) {
+            throw new IllegalArgumentException("car: " + carId + " has stops above floor " + numberOfFloors);
+        }
+        stops.resize(numberOfFloors + 1);
+        returnStops.resize(numberOfFloors + 1);
+        super.setNumberOfFloors(numberOfFloors);
+    }
+
     @Override
     public boolean processServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent) {
 
+        if (!isInBuilding(serviceRequestEvent.originationFloor()) || !serves(serviceRequestEvent.originationFloor())) {
+            log.debug("car: {} rejecting: {} outside the floors it serves", getCarId(), serviceRequestEvent);
+            return false;
+        }
+
         if (state == State.AVAILABLE) {
-            log.info("car: {} accepting: {}", getCarId(), serviceRequestEvent);
+            log.debug("car: {} accepting: {}", getCarId(), serviceRequestEvent);
             direction = serviceRequestEvent.direction();
-            final Comparator<Integer> comparator = direction == Direction.ASCENDING ? Comparator.naturalOrder() : Comparator.reverseOrder();
-            stops = new TreeMap<>(comparator);
-            stops.put(serviceRequestEvent.originationFloor(), new StopReasonContainer(serviceRequestEvent));
-            moveTo(stops.firstKey());
+            stops.clear();
+            returnStops.clear();
+            stops.addServiceRequest(serviceRequestEvent);
+            accepted(serviceRequestEvent);
+            moveTo(stops.first(direction));
             return true;
         }
 
-        if (state == State.MOVING || state == State.WAITING) {
-            final var isOnTheWay = direction == Direction.DESCENDING ?
-                    currentFloor > serviceRequestEvent.originationFloor() :
-                    currentFloor < serviceRequestEvent.originationFloor();
-            if (direction == serviceRequestEvent.direction() && isOnTheWay) {
-                log.info("car: {} accepting: {} even though moving", getCarId(), serviceRequestEvent);
-                stops.put(serviceRequestEvent.originationFloor(), new StopReasonContainer(serviceRequestEvent));
-                return true;
-            }
+        if (isOnTheWay(serviceRequestEvent)) {
+            log.debug("car: {} accepting: {} even though moving", getCarId(), serviceRequestEvent);
+            stops.addServiceRequest(serviceRequestEvent);
+            accepted(serviceRequestEvent);
+            return true;
         }
 
-        log.info("car: {} rejecting: {}", getCarId(), serviceRequestEvent);
+        if (isOnTheWayBack(serviceRequestEvent)) {
+            log.debug("car: {} accepting: {} for the way back", getCarId(), serviceRequestEvent);
+            returnStops.addServiceRequest(serviceRequestEvent);
+            accepted(serviceRequestEvent);
+            return true;
+        }
+
+        log.debug("car: {} rejecting: {}", getCarId(), serviceRequestEvent);
 
         return false;
     }
 
     @Override
-    public boolean processFloorsRequest(@NonNull FloorsRequestEvent floorsRequestEvent) {
-        final var potentialServiceRequest = stops.values().stream()
-                .map(StopReasonContainer::serviceRequestEvent)
-                .filter(Objects::nonNull)
-                .filter(sre -> sre.id().equals(floorsRequestEvent.serviceRequestEvent().id()))
-                .findFirst();
+    public boolean processServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent, int destinationFloor) {
+        if (!isValidDestination(serviceRequestEvent, destinationFloor)) {
+            log.debug("car: {} rejecting: {} to floor: {}", getCarId(), serviceRequestEvent, destinationFloor);
+            return false;
+        }
+
+        final var sharedPickup = sharedPickup(serviceRequestEvent);
+        if (sharedPickup != null) {
+            log.debug("car: {} accepting: {} along with the riders on its floor", getCarId(), serviceRequestEvent);
+            sharedPickup.addServiceRequest(serviceRequestEvent);
+            sharedPickup.add(destinationFloor);
+            accepted(serviceRequestEvent);
+            return true;
+        }
 
-        if (potentialServiceRequest.isEmpty()) {
+        if (!processServiceRequest(serviceRequestEvent)) {
             return false;
         }
+        (serviceRequestEvent.direction() == direction ? stops : returnStops).add(destinationFloor);
+        return true;
+    }
+
+    @Override
+    @Nullable
+    public Duration estimateTimeToArrival(@NonNull ServiceRequestEvent serviceRequestEvent, int destinationFloor) {
+        if (!isValidDestination(serviceRequestEvent, destinationFloor)) {
+            return null;
+        }
+        final var originationFloor = serviceRequestEvent.originationFloor();
+        final var sharedPickup = sharedPickup(serviceRequestEvent);
+        if (sharedPickup == returnStops) {
+            return timeUntilWayBack(originationFloor);
+        }
+        if (sharedPickup == stops) {
+            return state == State.WAITING && originationFloor == currentFloor ?
+                    Duration.ZERO :
+                    timeAlongSweep(originationFloor);
+        }
+        return estimateTimeToArrival(serviceRequestEvent);
+    }
+
+    @Override
+    @Nullable
+    public Duration estimateTimeToArrival(@NonNull ServiceRequestEvent serviceRequestEvent) {
+        final var originationFloor = serviceRequestEvent.originationFloor();
+        if (!isInBuilding(originationFloor) || !serves(originationFloor)) {
+            return null;
+        }
+
+        if (state == State.AVAILABLE) {
+            return travelTime(currentFloor, originationFloor);
+        }
 
-        stops.remove(potentialServiceRequest.get().originationFloor());
+        if (isOnTheWayBack(serviceRequestEvent)) {
+            return timeUntilWayBack(originationFloor);
+        }
+
+        if (!isOnTheWay(serviceRequestEvent)) {
+            return null;
+        }
+
+        return timeAlongSweep(originationFloor);
+    }
 
+    @Override
+    @Nullable
+    public Duration estimateTimeToStop(int floor) {
+        if (state == State.AVAILABLE) {
+            return null;
+        }
+        if (state == State.WAITING && floor == currentFloor && stops.contains(floor)) {
+            return Duration.ZERO;
+        }
+        if (stops.contains(floor)) {
+            return timeAlongSweep(floor);
+        }
+        if (returnStops.contains(floor)) {
+            return timeUntilWayBack(floor);
+        }
+        return null;
+    }
+
+    /**
+     * @return the time to finish the current move or dwell, then dwell at every committed stop before the floor on the
+     * current sweep
+     */
+    private Duration timeAlongSweep(int floor) {
+        final var stopsBefore = direction == Direction.ASCENDING ?
+                stops.count(state == State.MOVING ? currentFloor : currentFloor + 1, floor) :
+                stops.count(floor + 1, state == State.MOVING ? currentFloor + 1 : currentFloor);
+        return timeUntilReady()
+                .plus(DOOR_DWELL_DURATION.multipliedBy(stopsBefore))
+                .plus(travelTime(currentFloor, floor));
+    }
+
+    /**
+     * @return the time to finish the current sweep, turn at the farthest of its last stop, the stored requests and the
+     * origination floor, and come back dwelling at every stored request before the origination floor
+     */
+    private Duration timeUntilWayBack(int originationFloor) {
+        final var reverse = direction.opposite();
+        var turn = farthest(currentFloor, originationFloor);
+        if (!stops.isEmpty()) {
+            turn = farthest(turn, stops.first(reverse));
+        }
+        if (!returnStops.isEmpty()) {
+            turn = farthest(turn, returnStops.first(reverse));
+        }
+
+        final var stopsAhead = stops.size() - (state == State.WAITING && stops.contains(currentFloor) ? 1 : 0);
+        final var storedBefore = direction == Direction.ASCENDING ?
+                returnStops.count(originationFloor + 1, Integer.MAX_VALUE) :
+                returnStops.count(0, originationFloor);
+        return timeUntilReady()
+                .plus(DOOR_DWELL_DURATION.multipliedBy(stopsAhead + storedBefore))
+                .plus(travelTime(currentFloor, turn))
+                .plus(travelTime(turn, originationFloor));
+    }
+
+    /**
+     * @return whichever floor lies farther along the current direction
+     */
+    private int farthest(int floor, int otherFloor) {
+        return direction == Direction.ASCENDING ? Math.max(floor, otherFloor) : Math.min(floor, otherFloor);
+    }
+
+    @Override
+    public boolean park(int floor) {
+        if (state != State.AVAILABLE || floor == currentFloor || !isInBuilding(floor) || !serves(floor)) {
+            return false;
+        }
+        log.debug("car: {} parking at floor: {}", getCarId(), floor);
+        direction = floor > currentFloor ? Direction.ASCENDING : Direction.DESCENDING;
+        stops.clear();
+        returnStops.clear();
+        stops.add(floor);
+        moveTo(floor);
+        return true;
+    }
+
+    @Override
+    public boolean isStoppingAt(int floor) {
+        return state != State.AVAILABLE && (stops.contains(floor) || returnStops.contains(floor));
+    }
+
+    /**
+     * @return {@code true} if the car is already heading the requested direction, has not passed the origination floor,
+     * is not already answering another service request on that floor and has room for more riders. A moving car has
+     * not passed the floor it is arriving at.
+     */
+    private boolean isOnTheWay(ServiceRequestEvent serviceRequestEvent) {
+        if ((state != State.MOVING && state != State.WAITING) || isNearlyFull()) {
+            return false;
+        }
+        final var originationFloor = serviceRequestEvent.originationFloor();
+        final var isArriving = state == State.MOVING && currentFloor == originationFloor;
+        final var isAhead = isArriving || (direction == Direction.DESCENDING ?
+                currentFloor > originationFloor :
+                currentFloor < originationFloor);
+        final var isFloorTaken = stops.getServiceRequest(originationFloor) != null;
+        return direction == serviceRequestEvent.direction() && isAhead && !isFloorTaken;
+    }
+
+    /**
+     * @return {@code true} if the car is under collective control, heading the opposite direction and not already
+     * answering another service request on the origination floor on its way back. The riders aboard are off by the
+     * time the car turns, so the load does not matter.
+     */
+    private boolean isOnTheWayBack(ServiceRequestEvent serviceRequestEvent) {
+        if (!collectiveControl || (state != State.MOVING && state != State.WAITING)) {
+            return false;
+        }
+        return direction != serviceRequestEvent.direction() &&
+                returnStops.getServiceRequest(serviceRequestEvent.originationFloor()) == null;
+    }
+
+    /**
+     * @return the stops holding a pickup on the origination floor, for the same direction and not made yet, that the
+     * rider can share, or {@code null} if there is none or the car has no room for them on its current sweep
+     */
+    @Nullable
+    private StopSet sharedPickup(ServiceRequestEvent serviceRequestEvent) {
+        if (state != State.MOVING && state != State.WAITING) {
+            return null;
+        }
+        final var stopSet = serviceRequestEvent.direction() == direction ? stops : returnStops;
+        if (stopSet.getServiceRequest(serviceRequestEvent.originationFloor()) == null) {
+            return null;
+        }
+        return stopSet == returnStops || !isNearlyFull() ? stopSet : null;
+    }
+
+    /**
+     * @return {@code true} if the destination lies beyond the origination floor in the call's direction and is a floor
+     * of the building the car stops at
+     */
+    private boolean isValidDestination(ServiceRequestEvent serviceRequestEvent, int destinationFloor) {
+        final var isBeyond = serviceRequestEvent.direction() == Direction.DESCENDING ?
+                destinationFloor < serviceRequestEvent.originationFloor() :
+                destinationFloor > serviceRequestEvent.originationFloor();
+        return isBeyond && isInBuilding(destinationFloor) && serves(destinationFloor);
+    }
+
+    @Override
+    public boolean processFloorsRequest(@NonNull FloorsRequestEvent floorsRequestEvent) {
+        final var requested = floorsRequestEvent.serviceRequestEvent();
+        final var serviceRequestEvent = stops.getServiceRequest(requested.originationFloor());
+
+        if (serviceRequestEvent == null || !serviceRequestEvent.id().equals(requested.id())) {
+            return false;
+        }
+
+        final List<Integer> acceptedFloors = new ArrayList<>(floorsRequestEvent.requestedFloors().size());
         for (Integer requestedFloor : floorsRequestEvent.requestedFloors()) {
             final var isGoodFloorRequest = direction == Direction.DESCENDING ?
                     requestedFloor < currentFloor :
                     requestedFloor > currentFloor;
-            if (isGoodFloorRequest && !stops.containsKey(requestedFloor)) {
-                stops.put(requestedFloor, new StopReasonContainer(null));
+            if (isGoodFloorRequest && isInBuilding(requestedFloor) && serves(requestedFloor)) {
+                stops.add(requestedFloor);
+                acceptedFloors.add(requestedFloor);
             }
         }
+        board(floorsRequestEvent.riders(), acceptedFloors);
 
-        if (stops.isEmpty()) {
+        final var nextServiceRequest = stops.nextServiceRequest(serviceRequestEvent.originationFloor());
+        if (nextServiceRequest != null) {
+            // riders sharing the stop are cued one after the other before the doors close
+            cueRider(nextServiceRequest);
+            return true;
+        }
+        stops.remove(serviceRequestEvent.originationFloor());
+
+        if (stops.isEmpty() && returnStops.isEmpty()) {
             changeState(State.AVAILABLE);
         } else {
-            moveTo(stops.firstKey());
+            moveOn();
         }
 
         return true;
     }
 
+    @Override
+    protected int nextStop() {
+        return stops.first(direction);
+    }
+
+    /**
+     * Moves to the next stop of the current sweep. Once there is none, turns: the requests stored for the way back
+     * become the stops of the new sweep, and the car claims every queued request it can answer on either sweep.
+     */
+    @Override
+    protected void moveOn() {
+        if (stops.isEmpty() && returnStops.isEmpty()) {
+            // the service requests left were released during the dwell
+            changeState(State.AVAILABLE);
+            return;
+        }
+
+        if (!stops.isEmpty()) {
+            moveTo(stops.first(direction));
+            return;
+        }
+
+        final var sweep = stops;
+        stops = returnStops;
+        returnStops = sweep;
+        direction = direction.opposite();
+        log.debug("car: {} turning {} at floor: {}", getCarId(), direction, currentFloor);
+
+        moveTo(stops.first(direction));
+        if (serviceRequestQueue != null) {
+            // the car never becomes available to poll the queue while it has stored requests, so it claims them here
+            serviceRequestQueue.claimOnTheWay(Direction.ASCENDING, -1, this::processServiceRequest);
+            serviceRequestQueue.claimOnTheWay(Direction.DESCENDING, Integer.MAX_VALUE, this::processServiceRequest);
+        }
+    }
+
+    @Override
+    public List<ServiceRequestEvent> releaseServiceRequests() {
+        final List<ServiceRequestEvent> released = new ArrayList<>();
+        release(stops, released);
+        release(returnStops, released);
+        log.debug("car: {} released: {}", getCarId(), released);
+        return released;
+    }
+
+    private void release(StopSet stopSet, List<ServiceRequestEvent> released) {
+        stopSet.forEach(floor -> {
+            if (stopSet.getServiceRequest(floor) == null || (state == State.WAITING && floor == currentFloor)) {
+                return;
+            }
+            stopSet.forEachServiceRequest(floor, released::add);
+            stopSet.remove(floor);
+            if (isDropOff(floor)) {
+                stopSet.add(floor);
+            }
+        });
+    }
+
+    @Override
+    public CarSnapshot snapshot() {
+        final List<Integer> floors = new ArrayList<>(stops.size());
+        final List<ServiceRequestEvent> serviceRequests = new ArrayList<>();
+        stops.forEach(floor -> {
+            floors.add(floor);
+            stops.forEachServiceRequest(floor, serviceRequests::add);
+        });
+        // requests stored for the way back are told apart by their direction on restore, riders sharing a stop by
+        // order, destinations stored for the way back are left out and added again with their riders' floors requests
+        returnStops.forEach(floor -> returnStops.forEachServiceRequest(floor, serviceRequests::add));
+        return new CarSnapshot(carId, state, currentFloor, state == State.AVAILABLE ? null : direction, floors, serviceRequests, resumeIn());
+    }
+
+    @Override
+    public void restore(@NonNull CarSnapshot snapshot) {
+        direction = snapshot.direction();
+        stops.clear();
+        returnStops.clear();
+        snapshot.stops().forEach(stops::add);
+        for (ServiceRequestEvent serviceRequestEvent : snapshot.serviceRequests()) {
+            if (serviceRequestEvent.direction() == direction) {
+                stops.addServiceRequest(serviceRequestEvent);
+            } else {
+                returnStops.addServiceRequest(serviceRequestEvent);
+            }
+        }
+        resume(snapshot);
+    }
+
     @Override
     protected void arrived() {
-        log.info("car: {} arrived at floor: {}", getCarId(), currentFloor);
-        final var currentReason = stops.get(currentFloor);
-        if (currentReason.serviceRequestEvent() == null) {
+        log.debug("car: {} arrived at floor: {}", getCarId(), currentFloor);
+        alight();
+        final var serviceRequestEvent = stops.getServiceRequest(currentFloor);
+        if (serviceRequestEvent == null) {
             // just letting people off
             stops.remove(currentFloor);
 
-            if (stops.isEmpty()) {
+            if (stops.isEmpty() && returnStops.isEmpty()) {
                 changeState(State.AVAILABLE);
                 return;
             }
 
-            changeState(State.WAITING);
-
-            taskScheduler.schedule(
-                    () -> moveTo(stops.firstKey()),
-                    Instant.now().plus(Duration.ofSeconds(3L))
-            );
+            dwell();
         } else {
             // need to wait for rider input
-            cueRider(currentReason.serviceRequestEvent());
+            cueRider(serviceRequestEvent);
         }
     }
 
-    /**
-     * A container for holding whether a floor has an associated service request, or is just a destination.
-     * @param serviceRequestEvent
-     */
-    private record StopReasonContainer(ServiceRequestEvent serviceRequestEvent) {
-
-    }
-
 }
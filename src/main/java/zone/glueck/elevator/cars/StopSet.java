@@ -0,0 +1,269 @@
+package zone.glueck.elevator.cars;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * The floors a car has committed to stop at, kept as a bitset with a parallel array holding the service request, if
+ * any, that the car is answering on each floor. Floors run from zero up to the capacity the set was sized for, which is
+ * the building's floors, and floors outside that range are rejected. Adding, removing and finding the next stop do not
+ * allocate, the arrays are only replaced when the building is resized, so a car reuses one instance for its whole life.
+ * <p>
+ * Riders who entered their destinations at the same floor may share a stop. Their service requests wait on that floor
+ * behind the one being answered and are answered in the order they were added.
+ * <p>
+ * Not thread safe, like the cars that own it.
+ */
+final class StopSet {
+
+    private int capacity;
+
+    private long[] floors;
+
+    private ServiceRequestEvent[] serviceRequests;
+
+    private int size;
+
+    /**
+     * The service requests waiting behind the one answered on their floor, empty unless riders share a stop.
+     */
+    private final Map<Integer, ArrayDeque<ServiceRequestEvent>> waiting = new HashMap<>();
+
+    /**
+     * @param capacity the number of floors, starting at zero, to size the set for
+     */
+    StopSet(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        floors = new long[wordIndex(capacity - 1) + 1];
+        serviceRequests = new ServiceRequestEvent[capacity];
+    }
+
+    /**
+     * @return the number of floors, starting at zero, the set holds
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Sizes the set for another number of floors, keeping its stops.
+     * @param capacity the number of floors, starting at zero, to size the set for
+     * @throws IllegalArgumentException if a stop lies beyond the new capacity
+     */
+    void resize(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (capacity < this.capacity && count(capacity, this.capacity) > 0) {
+            throw new IllegalArgumentException("stops above floor " + (capacity - 1));
+        }
+        this.capacity = capacity;
+        floors = Arrays.copyOf(floors, wordIndex(capacity - 1) + 1);
+        serviceRequests = Arrays.copyOf(serviceRequests, capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int floor) {
+        return floor >= 0 && floor < capacity && (floors[wordIndex(floor)] & bit(floor)) != 0L;
+    }
+
+    /**
+     * Adds a stop to let riders off. Leaves any service request already on the floor in place.
+     * @return {@code true} if the floor was not a stop yet
+     * @throws IllegalArgumentException if the floor is negative or beyond the capacity
+     */
+    boolean add(int floor) {
+        if (floor < 0 || floor >= capacity) {
+            throw new IllegalArgumentException("floor out of range 0.." + (capacity - 1) + ": " + floor);
+        }
+        final var word = wordIndex(floor);
+        if ((floors[word] & bit(floor)) != 0L) {
+            return false;
+        }
+        floors[word] |= bit(floor);
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds a stop at the service request's origination floor to pick up its rider. If another service request is
+     * already answered on that floor, the new one waits behind it.
+     */
+    void addServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent) {
+        final var floor = serviceRequestEvent.originationFloor();
+        add(floor);
+        if (serviceRequests[floor] == null) {
+            serviceRequests[floor] = serviceRequestEvent;
+        } else {
+            waiting.computeIfAbsent(floor, f -> new ArrayDeque<>()).add(serviceRequestEvent);
+        }
+    }
+
+    /**
+     * Done with the service request answered on the floor, answers the next one waiting behind it. The stop stays.
+     * @return the service request now answered on the floor, or {@code null} if none was waiting
+     */
+    @Nullable
+    ServiceRequestEvent nextServiceRequest(int floor) {
+        if (!contains(floor)) {
+            return null;
+        }
+        final var queue = waiting.get(floor);
+        final var next = queue == null ? null : queue.poll();
+        if (queue != null && queue.isEmpty()) {
+            waiting.remove(floor);
+        }
+        serviceRequests[floor] = next;
+        return next;
+    }
+
+    /**
+     * Visits the service request answered on the floor, then those waiting behind it.
+     */
+    void forEachServiceRequest(int floor, @NonNull Consumer<ServiceRequestEvent> action) {
+        final var serviceRequestEvent = getServiceRequest(floor);
+        if (serviceRequestEvent == null) {
+            return;
+        }
+        action.accept(serviceRequestEvent);
+        final var queue = waiting.get(floor);
+        if (queue != null) {
+            queue.forEach(action);
+        }
+    }
+
+    /**
+     * @return the service request the car is answering on the floor, or {@code null} if the floor is only a drop off
+     * or not a stop at all
+     */
+    @Nullable
+    ServiceRequestEvent getServiceRequest(int floor) {
+        return floor >= 0 && floor < serviceRequests.length ? serviceRequests[floor] : null;
+    }
+
+    /**
+     * Removes the stop along with its service requests.
+     * @return {@code true} if the floor was a stop
+     */
+    boolean remove(int floor) {
+        if (!contains(floor)) {
+            return false;
+        }
+        floors[wordIndex(floor)] &= ~bit(floor);
+        serviceRequests[floor] = null;
+        if (!waiting.isEmpty()) {
+            waiting.remove(floor);
+        }
+        size--;
+        return true;
+    }
+
+    void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(floors, 0L);
+        Arrays.fill(serviceRequests, null);
+        waiting.clear();
+        size = 0;
+    }
+
+    /**
+     * @param direction the direction of travel
+     * @return the lowest stop when ascending, the highest when descending, or {@code -1} if there are no stops
+     */
+    int first(@NonNull Direction direction) {
+        if (size == 0) {
+            return -1;
+        }
+        if (direction == Direction.ASCENDING) {
+            return next(0);
+        }
+        for (int word = floors.length - 1; word >= 0; word--) {
+            if (floors[word] != 0L) {
+                return word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(floors[word]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param fromFloor the lowest floor to count, inclusive
+     * @param toFloor the highest floor to count, exclusive
+     * @return the number of stops in the range
+     */
+    int count(int fromFloor, int toFloor) {
+        final var from = Math.max(fromFloor, 0);
+        final var to = Math.min(toFloor, capacity);
+        if (from >= to) {
+            return 0;
+        }
+        final var firstWord = wordIndex(from);
+        final var lastWord = wordIndex(to - 1);
+        final var firstMask = -1L << from;
+        final var lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            return Long.bitCount(floors[firstWord] & firstMask & lastMask);
+        }
+        var count = Long.bitCount(floors[firstWord] & firstMask);
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            count += Long.bitCount(floors[word]);
+        }
+        return count + Long.bitCount(floors[lastWord] & lastMask);
+    }
+
+    /**
+     * Visits every stop in ascending order.
+     */
+    void forEach(@NonNull IntConsumer action) {
+        for (int floor = next(0); floor >= 0; floor = next(floor + 1)) {
+            action.accept(floor);
+        }
+    }
+
+    /**
+     * @return the lowest stop at or above the floor, or {@code -1} if there is none
+     */
+    private int next(int floor) {
+        var word = wordIndex(floor);
+        if (word >= floors.length) {
+            return -1;
+        }
+        var bits = floors[word] & (-1L << floor);
+        while (bits == 0L) {
+            if (++word == floors.length) {
+                return -1;
+            }
+            bits = floors[word];
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    private static int wordIndex(int floor) {
+        return floor >> 6;
+    }
+
+    private static long bit(int floor) {
+        return 1L << floor;
+    }
+
+}
@@ -1,38 +1,86 @@
 package zone.glueck.elevator.configs;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import zone.glueck.elevator.cars.Car;
-import zone.glueck.elevator.cars.ExpressCar;
-import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.journal.EventJournal;
+import zone.glueck.elevator.journal.JournalHeader;
+import zone.glueck.elevator.journal.MappedEventJournal;
+import zone.glueck.elevator.journal.NoOpEventJournal;
+import zone.glueck.elevator.service.CarFactory;
+import zone.glueck.elevator.service.Dispatcher;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.time.Clock;
 import java.util.Collection;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
-@EnableAsync
 public class ElevatorConfiguration {
 
-    private final AtomicInteger counter = new AtomicInteger(1);
+    /**
+     * Matches {@code server.tomcat.max-connections}, every connection can be an SSE subscriber.
+     */
+    private static final int SSE_BROADCAST_QUEUE_CAPACITY = 10_000;
+
+    /**
+     * Numbers the configured cars and those added while running alike, so no two cars ever share an id.
+     */
+    @Bean
+    public FleetFactory fleetFactory(UserDefinedElevatorConfiguration configuration) {
+        return new FleetFactory(
+                configuration.getCapacities(),
+                configuration.isCollectiveControl(),
+                configuration.getExpressZones()
+        );
+    }
 
     @Bean
     public Collection<Car> cars(
             UserDefinedElevatorConfiguration configuration,
+            FleetFactory fleetFactory,
             @Qualifier("singleThreadedServiceScheduler") ThreadPoolTaskScheduler taskScheduler) {
-        final List<Car> cars = new ArrayList<>();
-        for (String elevatorType : configuration.getElevators()) {
-            if ("StandardCar".equals(elevatorType)) {
-                cars.add(new StandardCar(taskScheduler, "Car " + counter.getAndIncrement()));
-            } else if ("ExpressCar".equals(elevatorType)) {
-                cars.add(new ExpressCar(taskScheduler, "ECar " + counter.getAndIncrement()));
-            }
+        return fleetFactory.createCars(configuration.getElevators(), taskScheduler);
+    }
+
+    @Bean
+    public CarFactory carFactory(
+            FleetFactory fleetFactory,
+            @Qualifier("singleThreadedServiceScheduler") ThreadPoolTaskScheduler taskScheduler) {
+        return elevatorType -> fleetFactory.createCar(elevatorType, taskScheduler);
+    }
+
+    @Bean
+    public Dispatcher dispatcher(UserDefinedElevatorConfiguration configuration) {
+        return FleetFactory.createDispatcher(configuration.getDispatcher());
+    }
+
+    @Bean
+    public EventJournal eventJournal(
+            UserDefinedElevatorConfiguration configuration,
+            Collection<Car> cars,
+            @Qualifier("singleThreadedServiceScheduler") ThreadPoolTaskScheduler taskScheduler) throws IOException {
+        final var path = configuration.getJournal().getPath();
+        if (path == null) {
+            return new NoOpEventJournal();
         }
-        return cars;
+        return MappedEventJournal.open(
+                path,
+                JournalHeader.of(
+                        configuration.getNumberOfFloors(),
+                        configuration.getDispatcher(),
+                        configuration.getParking().isEnabled(),
+                        configuration.isCollectiveControl(),
+                        cars
+                ),
+                taskScheduler.getClock()
+        );
     }
 
     @Bean(name = "singleThreadedServiceScheduler")
@@ -44,4 +92,40 @@ public class ElevatorConfiguration {
         return threadPool;
     }
 
+    /**
+     * The clock of the scheduler the cars run on, request timings are measured against it.
+     */
+    @Bean(name = "serviceClock")
+    public Clock serviceClock(@Qualifier("singleThreadedServiceScheduler") ThreadPoolTaskScheduler taskScheduler) {
+        return taskScheduler.getClock();
+    }
+
+    @Bean(name = "sseBroadcastExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor sseBroadcastExecutor() {
+        final var threadPool = new ThreadPoolTaskExecutor();
+        threadPool.setCorePoolSize(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        threadPool.setMaxPoolSize(threadPool.getCorePoolSize());
+        // each subscriber has at most one drain waiting, subscribers retry on their next event when it is full
+        threadPool.setQueueCapacity(SSE_BROADCAST_QUEUE_CAPACITY);
+        threadPool.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        threadPool.setThreadNamePrefix("SseBroadcast");
+        threadPool.initialize();
+        return threadPool;
+    }
+
+    /**
+     * With {@code spring.threads.virtual.enabled} every subscriber drains on its own virtual thread, so a client that
+     * is slow to read never holds up the others. There is deliberately no concurrency limit, reaching it would block
+     * the service thread that publishes. A subscriber runs at most one drain at a time, so there are never more drain
+     * threads than subscribers, and {@code server.tomcat.max-connections} caps those.
+     */
+    @Bean(name = "sseBroadcastExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualSseBroadcastExecutor() {
+        final var executor = new SimpleAsyncTaskExecutor("SseBroadcast");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
 }
@@ -0,0 +1,117 @@
+package zone.glueck.elevator.configs;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.cars.EventPublisherCar;
+import zone.glueck.elevator.cars.ExpressCar;
+import zone.glueck.elevator.cars.ExpressZone;
+import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.service.DestinationDispatcher;
+import zone.glueck.elevator.service.Dispatcher;
+import zone.glueck.elevator.service.FirstAcceptDispatcher;
+import zone.glueck.elevator.service.LowestCostDispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds cars and dispatchers from their configured names. Cars are numbered and express cars assigned their zones in
+ * creation order, so every fleet that should start over needs its own factory.
+ */
+public class FleetFactory {
+
+    private final AtomicInteger counter = new AtomicInteger(1);
+
+    private final Map<String, Integer> capacities;
+
+    private final boolean collectiveControl;
+
+    private final List<ExpressZone> expressZones;
+
+    private int expressCars;
+
+    /**
+     * Creates a factory for cars of the default capacity.
+     */
+    public FleetFactory() {
+        this(Map.of());
+    }
+
+    /**
+     * @param capacities the capacity of each car type, types without an entry get the default capacity
+     */
+    public FleetFactory(@NonNull Map<String, Integer> capacities) {
+        this(capacities, false);
+    }
+
+    /**
+     * @param capacities the capacity of each car type, types without an entry get the default capacity
+     * @param collectiveControl {@code true} to run standard cars under collective control
+     */
+    public FleetFactory(@NonNull Map<String, Integer> capacities, boolean collectiveControl) {
+        this(capacities, collectiveControl, List.of());
+    }
+
+    /**
+     * @param capacities the capacity of each car type, types without an entry get the default capacity
+     * @param collectiveControl {@code true} to run standard cars under collective control
+     * @param expressZones the zones handed to the express cars in turn, none to let them serve every floor
+     */
+    public FleetFactory(
+            @NonNull Map<String, Integer> capacities,
+            boolean collectiveControl,
+            @NonNull List<ExpressZone> expressZones
+    ) {
+        this.capacities = Map.copyOf(capacities);
+        this.collectiveControl = collectiveControl;
+        this.expressZones = List.copyOf(expressZones);
+    }
+
+    /**
+     * @param elevatorTypes the configured car types, unknown types are skipped
+     * @param taskScheduler the scheduler every car runs on
+     * @return the cars in configuration order
+     */
+    public List<Car> createCars(@NonNull List<String> elevatorTypes, @NonNull TaskScheduler taskScheduler) {
+        final List<Car> cars = new ArrayList<>();
+        for (String elevatorType : elevatorTypes) {
+            final var car = createCar(elevatorType, taskScheduler);
+            if (car != null) {
+                cars.add(car);
+            }
+        }
+        return cars;
+    }
+
+    /**
+     * @return a new car of the provided type, or {@code null} if the type is unknown
+     */
+    @Nullable
+    public Car createCar(@NonNull String elevatorType, @NonNull TaskScheduler taskScheduler) {
+        final EventPublisherCar car;
+        if ("StandardCar".equals(elevatorType)) {
+            car = new StandardCar(taskScheduler, "Car " + counter.getAndIncrement(), collectiveControl);
+        } else if ("ExpressCar".equals(elevatorType)) {
+            final var zone = expressZones.isEmpty() ? null : expressZones.get(expressCars++ % expressZones.size());
+            car = new ExpressCar(taskScheduler, "ECar " + counter.getAndIncrement(), zone);
+        } else {
+            return null;
+        }
+        car.setCapacity(capacities.getOrDefault(elevatorType, EventPublisherCar.DEFAULT_CAPACITY));
+        return car;
+    }
+
+    public static Dispatcher createDispatcher(@NonNull String dispatcher) {
+        if ("FirstAcceptDispatcher".equals(dispatcher)) {
+            return new FirstAcceptDispatcher();
+        } else if ("DestinationDispatcher".equals(dispatcher)) {
+            return new DestinationDispatcher();
+        }
+        return new LowestCostDispatcher();
+    }
+
+}
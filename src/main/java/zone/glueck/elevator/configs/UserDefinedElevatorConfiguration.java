@@ -4,8 +4,14 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import zone.glueck.elevator.cars.ExpressZone;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "elevator")
@@ -17,6 +23,31 @@ public class UserDefinedElevatorConfiguration {
     @NotEmpty
     private List<String> elevators;
 
+    private String dispatcher = "LowestCostDispatcher";
+
+    private Map<String, Integer> capacities = new HashMap<>();
+
+    private boolean collectiveControl;
+
+    private List<ExpressZone> expressZones = new ArrayList<>();
+
+    @Min(1)
+    private int sseQueueCapacity = 256;
+
+    private Duration sseTimeout = Duration.ofMinutes(30L);
+
+    @Min(1)
+    private int maxBatchSize = 1000;
+
+    @Min(2)
+    private int inboundRingSize = 4096;
+
+    private final Journal journal = new Journal();
+
+    private final Parking parking = new Parking();
+
+    private final Status status = new Status();
+
     public int getNumberOfFloors() {
         return numberOfFloors;
     }
@@ -32,4 +63,201 @@ public class UserDefinedElevatorConfiguration {
     public void setElevators(List<String> elevators) {
         this.elevators = elevators;
     }
+
+    public String getDispatcher() {
+        return dispatcher;
+    }
+
+    public void setDispatcher(String dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * @return the most riders a car of each type carries at once, types without an entry carry
+     * {@link zone.glueck.elevator.cars.EventPublisherCar#DEFAULT_CAPACITY}
+     */
+    public Map<String, Integer> getCapacities() {
+        return capacities;
+    }
+
+    public void setCapacities(Map<String, Integer> capacities) {
+        this.capacities = capacities;
+    }
+
+    /**
+     * @return {@code true} if standard cars also store calls for the opposite direction and reverse for them at the
+     * end of a sweep
+     */
+    public boolean isCollectiveControl() {
+        return collectiveControl;
+    }
+
+    public void setCollectiveControl(boolean collectiveControl) {
+        this.collectiveControl = collectiveControl;
+    }
+
+    /**
+     * @return the zones of the express cars, assigned in fleet order and starting over once every zone has a car.
+     * Express cars serve every floor if there are none.
+     */
+    public List<ExpressZone> getExpressZones() {
+        return expressZones;
+    }
+
+    public void setExpressZones(List<ExpressZone> expressZones) {
+        this.expressZones = expressZones;
+    }
+
+    public int getSseQueueCapacity() {
+        return sseQueueCapacity;
+    }
+
+    public void setSseQueueCapacity(int sseQueueCapacity) {
+        this.sseQueueCapacity = sseQueueCapacity;
+    }
+
+    /**
+     * @return how long a Server Sent Event connection stays open before the client has to reconnect, zero or negative
+     * to keep it open until the client leaves
+     */
+    public Duration getSseTimeout() {
+        return sseTimeout;
+    }
+
+    public void setSseTimeout(Duration sseTimeout) {
+        this.sseTimeout = sseTimeout;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @return the number of requests that can wait for the service thread before the API threads block, rounded up to
+     * a power of two
+     */
+    public int getInboundRingSize() {
+        return inboundRingSize;
+    }
+
+    public void setInboundRingSize(int inboundRingSize) {
+        this.inboundRingSize = inboundRingSize;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public Parking getParking() {
+        return parking;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Settings for sending idle cars to the floors where calls are expected next.
+     */
+    public static class Parking {
+
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings for the index behind the status of each service request.
+     */
+    public static class Status {
+
+        @Min(1)
+        private int capacity = 100_000;
+
+        private Duration retention = Duration.ofMinutes(10L);
+
+        /**
+         * @return the most service requests to report on, the oldest are dropped first
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * @return how long to report on a service request after its last change
+         */
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    /**
+     * Settings for the event journal, which is only written when a path is set.
+     */
+    public static class Journal {
+
+        private Path path;
+
+        private Path replay;
+
+        private Path snapshotPath;
+
+        private Duration snapshotInterval = Duration.ofSeconds(5L);
+
+        public Path getPath() {
+            return path;
+        }
+
+        public void setPath(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * @return a journal to replay at startup instead of serving requests, if set
+         */
+        public Path getReplay() {
+            return replay;
+        }
+
+        public void setReplay(Path replay) {
+            this.replay = replay;
+        }
+
+        /**
+         * @return where to keep the latest fleet snapshot, the fleet is restored from it and the journal on startup
+         */
+        public Path getSnapshotPath() {
+            return snapshotPath;
+        }
+
+        public void setSnapshotPath(Path snapshotPath) {
+            this.snapshotPath = snapshotPath;
+        }
+
+        public Duration getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
 }
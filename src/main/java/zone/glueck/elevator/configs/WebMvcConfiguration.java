@@ -0,0 +1,28 @@
+package zone.glueck.elevator.configs;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streams returned from the API, like the reactive event stream, are written on the {@code sseBroadcastExecutor}. The
+ * default async timeout stays untouched so a stuck future fails the request quickly, SSE subscriptions carry their own
+ * timeout.
+ */
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor sseBroadcastExecutor;
+
+    public WebMvcConfiguration(@Qualifier("sseBroadcastExecutor") AsyncTaskExecutor sseBroadcastExecutor) {
+        this.sseBroadcastExecutor = sseBroadcastExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(sseBroadcastExecutor);
+    }
+
+}
@@ -0,0 +1,10 @@
+package zone.glueck.elevator.events;
+
+import org.springframework.lang.NonNull;
+
+/**
+ * A hall call made at a destination dispatch panel, where the rider enters the destination before a car is assigned.
+ * @param serviceRequestEvent the hall call, its direction points from the origination floor to the destination
+ * @param destinationFloor the floor the rider is going to
+ */
+public record DestinationRequestEvent(@NonNull ServiceRequestEvent serviceRequestEvent, int destinationFloor) {}
@@ -0,0 +1,40 @@
+package zone.glueck.elevator.events;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+/**
+ * A change made to the running fleet or building through the admin API.
+ * @param change what changed
+ * @param carId the car added, drained or removed, {@code null} when the building was resized
+ * @param elevatorType the configured type of an added car, {@code null} for every other change
+ * @param numberOfFloors the top floor after a resize, {@code 0} for every other change
+ */
+public record FleetChangeEvent(
+        @NonNull Change change,
+        @Nullable String carId,
+        @Nullable String elevatorType,
+        int numberOfFloors
+) {
+
+    public enum Change {
+        CAR_ADDED, CAR_DRAINED, CAR_REMOVED, FLOORS_CHANGED
+    }
+
+    public static FleetChangeEvent carAdded(@NonNull String carId, @NonNull String elevatorType) {
+        return new FleetChangeEvent(Change.CAR_ADDED, carId, elevatorType, 0);
+    }
+
+    public static FleetChangeEvent carDrained(@NonNull String carId) {
+        return new FleetChangeEvent(Change.CAR_DRAINED, carId, null, 0);
+    }
+
+    public static FleetChangeEvent carRemoved(@NonNull String carId) {
+        return new FleetChangeEvent(Change.CAR_REMOVED, carId, null, 0);
+    }
+
+    public static FleetChangeEvent floorsChanged(int numberOfFloors) {
+        return new FleetChangeEvent(Change.FLOORS_CHANGED, null, null, numberOfFloors);
+    }
+
+}
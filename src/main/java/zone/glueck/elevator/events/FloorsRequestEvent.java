@@ -9,5 +9,19 @@ import java.util.Set;
  * A representation of the final state of the elevator button within the elevator.
  * @param serviceRequestEvent the {@link ServiceRequestEvent} that summoned the elevator for this floor request to be made
  * @param requestedFloors the floors that were selected
+ * @param riders the number of riders who boarded, headed for the selected floors
  */
-public record FloorsRequestEvent(@NonNull ServiceRequestEvent serviceRequestEvent, @NotEmpty Set<Integer> requestedFloors) {}
+public record FloorsRequestEvent(
+        @NonNull ServiceRequestEvent serviceRequestEvent,
+        @NotEmpty Set<Integer> requestedFloors,
+        int riders
+) {
+
+    /**
+     * A floors request of one rider per selected floor.
+     */
+    public FloorsRequestEvent(@NonNull ServiceRequestEvent serviceRequestEvent, @NotEmpty Set<Integer> requestedFloors) {
+        this(serviceRequestEvent, requestedFloors, requestedFloors == null ? 0 : requestedFloors.size());
+    }
+
+}
@@ -0,0 +1,51 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FleetChangeEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+/**
+ * An append-only record of every event that enters or leaves the elevator service. Implementations are called from
+ * the service thread and need not be thread safe.
+ */
+public interface EventJournal extends AutoCloseable {
+
+    /**
+     * Records that the application started with a fresh fleet.
+     */
+    void appendBoot();
+
+    /**
+     * Records that the application started and restored the fleet to where it was when the previous run stopped.
+     */
+    void appendRestore();
+
+    void append(@NonNull ServiceRequestEvent serviceRequestEvent);
+
+    void append(@NonNull FloorsRequestEvent floorsRequestEvent);
+
+    void append(@NonNull DestinationRequestEvent destinationRequestEvent);
+
+    void append(@NonNull RiderCueEvent riderCueEvent);
+
+    void append(@NonNull CarStateEvent carStateEvent);
+
+    /**
+     * Records a change to the running fleet. An added car can be referred to by the records that follow, until the
+     * application starts again with the configured fleet.
+     */
+    void append(@NonNull FleetChangeEvent fleetChangeEvent);
+
+    /**
+     * @return the offset at which the next record will be written
+     */
+    long getPosition();
+
+    @Override
+    void close();
+
+}
@@ -0,0 +1,24 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.cars.CarSnapshot;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The state of the whole fleet at one instant.
+ * @param takenAt when the snapshot was taken, according to the service clock
+ * @param journalPosition the journal position at that instant, every later record is the tail to apply on restore
+ * @param cars every car in fleet order
+ * @param pendingServiceRequests the service requests waiting for an available car
+ */
+public record FleetSnapshot(
+        @NonNull Instant takenAt,
+        long journalPosition,
+        @NonNull List<CarSnapshot> cars,
+        @NonNull List<ServiceRequestEvent> pendingServiceRequests
+) {
+
+}
@@ -0,0 +1,37 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+
+import java.time.Instant;
+
+/**
+ * One record read back from a journal.
+ * @param position the offset of the record in the journal
+ * @param time when the event was journaled, according to the service clock
+ * @param event a {@code ServiceRequestEvent}, {@code FloorsRequestEvent}, {@code DestinationRequestEvent},
+ *              {@code RiderCueEvent}, {@code CarStateEvent}, {@code FleetChangeEvent} or a {@link Marker} written when
+ *              the application started
+ */
+public record JournalEntry(long position, @NonNull Instant time, @NonNull Object event) {
+
+    public enum Marker {
+
+        /**
+         * The application started with a fresh fleet.
+         */
+        BOOT,
+
+        /**
+         * The application started and restored the fleet, which carries on where the previous run stopped.
+         */
+        RESTORE
+    }
+
+    /**
+     * @return {@code true} if the application started here with a fresh fleet
+     */
+    public boolean isBoot() {
+        return event == Marker.BOOT;
+    }
+
+}
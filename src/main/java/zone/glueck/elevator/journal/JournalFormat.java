@@ -0,0 +1,292 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.EventPublisherCar;
+import zone.glueck.elevator.cars.ExpressZone;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FleetChangeEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The binary layout shared by {@link MappedEventJournal} and {@link JournalReader}.
+ * <p>
+ * A journal is a sequence of fixed size regions, each mapped into memory on its own. The first region starts with the
+ * header: magic, version, region size, then the {@link JournalHeader}. Version 2 added the car capacities to the header
+ * and the riders to floors requests, version 3 whether idle cars are parked, version 4 whether standard cars run under
+ * collective control, version 5 the zones of the express cars and version 6 the changes made to the running fleet.
+ * Records follow, each an {@code int} length and that many bytes of payload. A length of zero marks the end of the
+ * journal, {@link #CONTINUE} marks the rest of the region as unused and records never straddle two regions. Every
+ * payload starts with a type byte and the event time as nanoseconds since the epoch.
+ * <p>
+ * Records refer to cars by their index in the header. A car added at runtime gets the next index, until the next boot
+ * or restore record, where the application started again with the fleet of the header.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x454C564A;
+
+    static final short VERSION = 6;
+
+    static final int DEFAULT_REGION_SIZE = 16 * 1024 * 1024;
+
+    static final int CONTINUE = -1;
+
+    static final byte BOOT = 0;
+
+    static final byte SERVICE_REQUEST = 1;
+
+    static final byte FLOORS_REQUEST = 2;
+
+    static final byte RIDER_CUE = 3;
+
+    static final byte CAR_STATE = 4;
+
+    static final byte RESTORE = 5;
+
+    static final byte DESTINATION_REQUEST = 6;
+
+    static final byte FLEET_CHANGE = 7;
+
+    private static final EventPublisherCar.State[] STATES = EventPublisherCar.State.values();
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static final FleetChangeEvent.Change[] CHANGES = FleetChangeEvent.Change.values();
+
+    private JournalFormat() {
+    }
+
+    static void writeHeader(ByteBuffer buffer, JournalHeader header, int regionSize) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(regionSize);
+        buffer.putInt(header.numberOfFloors());
+        putString(buffer, header.dispatcher());
+        buffer.put((byte) (header.parking() ? 1 : 0));
+        buffer.put((byte) (header.collectiveControl() ? 1 : 0));
+        buffer.putShort((short) header.cars().size());
+        for (JournalHeader.CarDescriptor car : header.cars()) {
+            putString(buffer, car.type());
+            putString(buffer, car.carId());
+            buffer.putShort((short) car.capacity());
+            putZone(buffer, car.zone());
+        }
+    }
+
+    /**
+     * @return the region size the journal was written with, the header is available from {@link #readHeader}
+     */
+    static int readRegionSize(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("not an elevator journal");
+        }
+        final var version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported journal version: " + version);
+        }
+        return buffer.getInt();
+    }
+
+    static JournalHeader readHeader(ByteBuffer buffer) {
+        final var numberOfFloors = buffer.getInt();
+        final var dispatcher = getString(buffer);
+        final var parking = buffer.get() != 0;
+        final var collectiveControl = buffer.get() != 0;
+        final var count = buffer.getShort();
+        final List<JournalHeader.CarDescriptor> cars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final var type = getString(buffer);
+            final var carId = getString(buffer);
+            cars.add(new JournalHeader.CarDescriptor(type, carId, buffer.getShort(), getZone(buffer)));
+        }
+        return new JournalHeader(numberOfFloors, dispatcher, parking, collectiveControl, List.copyOf(cars));
+    }
+
+    static int markerLength() {
+        return Byte.BYTES + Long.BYTES;
+    }
+
+    static int serviceRequestLength() {
+        return Byte.BYTES + Long.BYTES + serviceRequestEventLength();
+    }
+
+    static int floorsRequestLength(FloorsRequestEvent floorsRequestEvent) {
+        return Byte.BYTES + Long.BYTES + serviceRequestEventLength() + Short.BYTES * 2 +
+                Integer.BYTES * floorsRequestEvent.requestedFloors().size();
+    }
+
+    static int destinationRequestLength() {
+        return Byte.BYTES + Long.BYTES + serviceRequestEventLength() + Integer.BYTES;
+    }
+
+    static int fleetChangeLength(FleetChangeEvent fleetChangeEvent) {
+        return Byte.BYTES * 2 + Long.BYTES + Integer.BYTES +
+                stringLength(fleetChangeEvent.carId()) + stringLength(fleetChangeEvent.elevatorType());
+    }
+
+    static int riderCueLength() {
+        return Byte.BYTES + Long.BYTES + serviceRequestEventLength() + Short.BYTES;
+    }
+
+    static int carStateLength() {
+        return Byte.BYTES + Long.BYTES + Short.BYTES + Byte.BYTES + Integer.BYTES;
+    }
+
+    static void putTime(ByteBuffer buffer, byte type, Instant time) {
+        buffer.put(type);
+        buffer.putLong(time.getEpochSecond() * 1_000_000_000L + time.getNano());
+    }
+
+    static Instant getTime(ByteBuffer buffer) {
+        final var nanos = buffer.getLong();
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    static void putServiceRequestEvent(ByteBuffer buffer, ServiceRequestEvent serviceRequestEvent) {
+        buffer.putLong(serviceRequestEvent.id().getMostSignificantBits());
+        buffer.putLong(serviceRequestEvent.id().getLeastSignificantBits());
+        buffer.put((byte) serviceRequestEvent.direction().ordinal());
+        buffer.putInt(serviceRequestEvent.originationFloor());
+    }
+
+    static ServiceRequestEvent getServiceRequestEvent(ByteBuffer buffer) {
+        final var id = new UUID(buffer.getLong(), buffer.getLong());
+        return new ServiceRequestEvent(id, DIRECTIONS[buffer.get()], buffer.getInt());
+    }
+
+    static void putFloors(ByteBuffer buffer, FloorsRequestEvent floorsRequestEvent) {
+        putServiceRequestEvent(buffer, floorsRequestEvent.serviceRequestEvent());
+        buffer.putShort((short) floorsRequestEvent.requestedFloors().size());
+        for (Integer requestedFloor : floorsRequestEvent.requestedFloors()) {
+            buffer.putInt(requestedFloor);
+        }
+        buffer.putShort((short) floorsRequestEvent.riders());
+    }
+
+    static FloorsRequestEvent getFloors(ByteBuffer buffer) {
+        final var serviceRequestEvent = getServiceRequestEvent(buffer);
+        final var count = buffer.getShort();
+        final var requestedFloors = new HashSet<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            requestedFloors.add(buffer.getInt());
+        }
+        return new FloorsRequestEvent(serviceRequestEvent, requestedFloors, buffer.getShort());
+    }
+
+    static void putDestination(ByteBuffer buffer, DestinationRequestEvent destinationRequestEvent) {
+        putServiceRequestEvent(buffer, destinationRequestEvent.serviceRequestEvent());
+        buffer.putInt(destinationRequestEvent.destinationFloor());
+    }
+
+    static DestinationRequestEvent getDestination(ByteBuffer buffer) {
+        return new DestinationRequestEvent(getServiceRequestEvent(buffer), buffer.getInt());
+    }
+
+    static void putFleetChange(ByteBuffer buffer, FleetChangeEvent fleetChangeEvent) {
+        buffer.put((byte) fleetChangeEvent.change().ordinal());
+        buffer.putInt(fleetChangeEvent.numberOfFloors());
+        putString(buffer, fleetChangeEvent.carId() == null ? "" : fleetChangeEvent.carId());
+        putString(buffer, fleetChangeEvent.elevatorType() == null ? "" : fleetChangeEvent.elevatorType());
+    }
+
+    static FleetChangeEvent getFleetChange(ByteBuffer buffer) {
+        final var change = CHANGES[buffer.get()];
+        final var numberOfFloors = buffer.getInt();
+        final var carId = getString(buffer);
+        final var elevatorType = getString(buffer);
+        return new FleetChangeEvent(
+                change,
+                carId.isEmpty() ? null : carId,
+                elevatorType.isEmpty() ? null : elevatorType,
+                numberOfFloors
+        );
+    }
+
+    static void putCarState(ByteBuffer buffer, int carIndex, CarStateEvent carStateEvent) {
+        buffer.putShort((short) carIndex);
+        buffer.put((byte) EventPublisherCar.State.valueOf(carStateEvent.status()).ordinal());
+        buffer.putInt(carStateEvent.currentFloor());
+    }
+
+    /**
+     * @param carIds the ids of the cars by index, the header's cars and those added since the last start
+     */
+    static CarStateEvent getCarState(ByteBuffer buffer, List<String> carIds) {
+        final var carId = carIds.get(buffer.getShort());
+        return new CarStateEvent(carId, STATES[buffer.get()].name(), buffer.getInt());
+    }
+
+    static void putRiderCue(ByteBuffer buffer, int carIndex, RiderCueEvent riderCueEvent) {
+        putServiceRequestEvent(buffer, riderCueEvent.serviceRequestEvent());
+        buffer.putShort((short) carIndex);
+    }
+
+    static RiderCueEvent getRiderCue(ByteBuffer buffer, List<String> carIds) {
+        final var serviceRequestEvent = getServiceRequestEvent(buffer);
+        return new RiderCueEvent(serviceRequestEvent, carIds.get(buffer.getShort()));
+    }
+
+    private static void putZone(ByteBuffer buffer, @Nullable ExpressZone zone) {
+        if (zone == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put((byte) 1);
+        buffer.putInt(zone.lobby());
+        buffer.putInt(zone.lowestFloor());
+        buffer.putInt(zone.highestFloor());
+        buffer.putShort((short) zone.transferFloors().size());
+        for (Integer transferFloor : zone.transferFloors()) {
+            buffer.putInt(transferFloor);
+        }
+    }
+
+    @Nullable
+    private static ExpressZone getZone(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        final var lobby = buffer.getInt();
+        final var lowestFloor = buffer.getInt();
+        final var highestFloor = buffer.getInt();
+        final var count = buffer.getShort();
+        final var transferFloors = new HashSet<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            transferFloors.add(buffer.getInt());
+        }
+        return new ExpressZone(lobby, lowestFloor, highestFloor, transferFloors);
+    }
+
+    private static int serviceRequestEventLength() {
+        return Long.BYTES * 2 + Byte.BYTES + Integer.BYTES;
+    }
+
+    private static int stringLength(@Nullable String value) {
+        return Short.BYTES + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        final var bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final var bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
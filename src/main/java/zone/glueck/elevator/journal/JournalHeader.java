@@ -0,0 +1,104 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.cars.ExpressCar;
+import zone.glueck.elevator.cars.ExpressZone;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Describes the building a journal was written for, so a replay can rebuild the same fleet.
+ * @param numberOfFloors the configured number of floors
+ * @param dispatcher the configured dispatcher name
+ * @param parking {@code true} if idle cars were parked at the floors where calls were expected
+ * @param collectiveControl {@code true} if standard cars ran under collective control
+ * @param cars every car in fleet order, records refer to cars by their index in this list
+ */
+public record JournalHeader(
+        int numberOfFloors,
+        @NonNull String dispatcher,
+        boolean parking,
+        boolean collectiveControl,
+        @NonNull List<CarDescriptor> cars
+) {
+
+    /**
+     * @param type the configured car type, e.g. {@code StandardCar}
+     * @param carId the car's id
+     * @param capacity the most riders the car carries at once
+     * @param zone the floors an express car served, {@code null} if it served every floor
+     */
+    public record CarDescriptor(@NonNull String type, @NonNull String carId, int capacity, @Nullable ExpressZone zone) {
+
+        public CarDescriptor(@NonNull String type, @NonNull String carId, int capacity) {
+            this(type, carId, capacity, null);
+        }
+
+        static CarDescriptor of(Car car) {
+            final var zone = car instanceof ExpressCar expressCar ? expressCar.getZone() : null;
+            return new CarDescriptor(car.getClass().getSimpleName(), car.getCarId(), car.getCapacity(), zone);
+        }
+    }
+
+    public static JournalHeader of(int numberOfFloors, @NonNull String dispatcher, @NonNull Collection<Car> cars) {
+        return of(numberOfFloors, dispatcher, false, false, cars);
+    }
+
+    public static JournalHeader of(
+            int numberOfFloors,
+            @NonNull String dispatcher,
+            boolean parking,
+            boolean collectiveControl,
+            @NonNull Collection<Car> cars
+    ) {
+        return new JournalHeader(
+                numberOfFloors,
+                dispatcher,
+                parking,
+                collectiveControl,
+                cars.stream().map(CarDescriptor::of).toList()
+        );
+    }
+
+    /**
+     * @return the configured car types in fleet order
+     */
+    public List<String> elevators() {
+        return cars.stream().map(CarDescriptor::type).toList();
+    }
+
+    /**
+     * @return the capacity of each car type in the fleet
+     */
+    public Map<String, Integer> capacities() {
+        final Map<String, Integer> capacities = new HashMap<>();
+        cars.forEach(car -> capacities.put(car.type(), car.capacity()));
+        return capacities;
+    }
+
+    /**
+     * @return the zones of the express cars in fleet order, handing them out in turn again gives every car its zone
+     */
+    public List<ExpressZone> expressZones() {
+        return cars.stream().map(CarDescriptor::zone).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * @return the index of the car in the fleet, or {@code -1} if the journal does not know it
+     */
+    public int indexOf(@NonNull String carId) {
+        for (int i = 0; i < cars.size(); i++) {
+            if (cars.get(i).carId().equals(carId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
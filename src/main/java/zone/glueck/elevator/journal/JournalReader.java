@@ -0,0 +1,153 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.events.FleetChangeEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static zone.glueck.elevator.journal.JournalFormat.BOOT;
+import static zone.glueck.elevator.journal.JournalFormat.CAR_STATE;
+import static zone.glueck.elevator.journal.JournalFormat.CONTINUE;
+import static zone.glueck.elevator.journal.JournalFormat.DESTINATION_REQUEST;
+import static zone.glueck.elevator.journal.JournalFormat.FLEET_CHANGE;
+import static zone.glueck.elevator.journal.JournalFormat.FLOORS_REQUEST;
+import static zone.glueck.elevator.journal.JournalFormat.RESTORE;
+import static zone.glueck.elevator.journal.JournalFormat.RIDER_CUE;
+import static zone.glueck.elevator.journal.JournalFormat.SERVICE_REQUEST;
+
+/**
+ * Reads a journal written by {@link MappedEventJournal}, one memory-mapped region at a time.
+ */
+public class JournalReader implements AutoCloseable {
+
+    /**
+     * Enough to hold the header of any realistic fleet, mapped before the region size is known.
+     */
+    private static final long HEADER_MAP_SIZE = 1L << 20;
+
+    private final FileChannel channel;
+
+    private final int regionSize;
+
+    private final JournalHeader header;
+
+    private final long firstRecordPosition;
+
+    /**
+     * The ids of the cars by index as of the record being read, the header's cars and those added since the last
+     * start. A read from the middle of the journal only knows the cars added after its starting position.
+     */
+    private final List<String> carIds = new ArrayList<>();
+
+    public JournalReader(@NonNull Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final var region = channel.map(FileChannel.MapMode.READ_ONLY, 0L, Math.min(channel.size(), HEADER_MAP_SIZE));
+            this.regionSize = JournalFormat.readRegionSize(region);
+            this.header = JournalFormat.readHeader(region);
+            this.firstRecordPosition = region.position();
+        } catch (RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public JournalHeader getHeader() {
+        return header;
+    }
+
+    int getRegionSize() {
+        return regionSize;
+    }
+
+    public long getFirstRecordPosition() {
+        return firstRecordPosition;
+    }
+
+    /**
+     * Reads every record from the start of the journal.
+     * @return the position after the last record, where the next record would be appended
+     */
+    public long read(@NonNull Consumer<JournalEntry> consumer) {
+        return read(firstRecordPosition, consumer);
+    }
+
+    /**
+     * Reads every record from the provided position, which must be the start of a record or the end of the journal.
+     * @return the position after the last record, where the next record would be appended
+     */
+    public long read(long fromPosition, @NonNull Consumer<JournalEntry> consumer) {
+        resetCarIds();
+        try {
+            final var size = channel.size();
+            var regionStart = fromPosition - fromPosition % regionSize;
+            while (regionStart < size) {
+                final var region = map(regionStart, size);
+                region.position((int) Math.max(0L, fromPosition - regionStart));
+                while (region.remaining() >= Integer.BYTES) {
+                    final var position = regionStart + region.position();
+                    final var length = region.getInt();
+                    if (length == 0) {
+                        return position;
+                    }
+                    if (length == CONTINUE) {
+                        break;
+                    }
+                    consumer.accept(readEntry(position, region));
+                }
+                regionStart += regionSize;
+            }
+            return Math.max(size, firstRecordPosition);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private MappedByteBuffer map(long regionStart, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(regionSize, size - regionStart));
+    }
+
+    private JournalEntry readEntry(long position, MappedByteBuffer region) {
+        final var type = region.get();
+        final var time = JournalFormat.getTime(region);
+        final Object event = switch (type) {
+            case BOOT -> JournalEntry.Marker.BOOT;
+            case RESTORE -> JournalEntry.Marker.RESTORE;
+            case SERVICE_REQUEST -> JournalFormat.getServiceRequestEvent(region);
+            case FLOORS_REQUEST -> JournalFormat.getFloors(region);
+            case DESTINATION_REQUEST -> JournalFormat.getDestination(region);
+            case RIDER_CUE -> JournalFormat.getRiderCue(region, carIds);
+            case CAR_STATE -> JournalFormat.getCarState(region, carIds);
+            case FLEET_CHANGE -> JournalFormat.getFleetChange(region);
+            default -> throw new IllegalStateException("unknown journal record type " + type + " at " + position);
+        };
+        switch (event) {
+            case JournalEntry.Marker marker -> resetCarIds();
+            case FleetChangeEvent fleetChangeEvent when fleetChangeEvent.change() == FleetChangeEvent.Change.CAR_ADDED ->
+                    carIds.add(fleetChangeEvent.carId());
+            default -> {
+                // the fleet stays as it is
+            }
+        }
+        return new JournalEntry(position, time, event);
+    }
+
+    private void resetCarIds() {
+        carIds.clear();
+        header.cars().forEach(car -> carIds.add(car.carId()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
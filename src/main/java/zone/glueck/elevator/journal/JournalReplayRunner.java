@@ -0,0 +1,36 @@
+package zone.glueck.elevator.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+import java.io.IOException;
+
+/**
+ * Replays the configured journal at startup and logs whether it reproduced. Enabled by setting
+ * {@code elevator.journal.replay}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "elevator.journal", name = "replay")
+public class JournalReplayRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayRunner.class);
+
+    private final UserDefinedElevatorConfiguration configuration;
+
+    public JournalReplayRunner(UserDefinedElevatorConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        final var path = configuration.getJournal().getReplay();
+        final var report = new JournalReplayer(path).replay();
+        log.info("replay of journal {}\n{}", path, report.format());
+    }
+
+}
@@ -0,0 +1,94 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.service.NonBlockingElevatorService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds the service and floors requests of a journal back through a fresh {@link NonBlockingElevatorService} on
+ * virtual time, at the instants they were originally received, and checks the rider cues and car states it publishes
+ * against the journaled ones. A boot record in the journal restarts the replay with a fresh fleet, like the application
+ * did, a restore record carries on with the fleet it has.
+ */
+public class JournalReplayer {
+
+    private final Path path;
+
+    public JournalReplayer(@NonNull Path path) {
+        this.path = path;
+    }
+
+    public ReplayReport replay() throws IOException {
+        final List<JournalEntry> entries = new ArrayList<>();
+        final JournalHeader header;
+        try (final var reader = new JournalReader(path)) {
+            header = reader.getHeader();
+            reader.read(entries::add);
+        }
+        return replay(header, entries);
+    }
+
+    static ReplayReport replay(JournalHeader header, List<JournalEntry> entries) {
+        final List<Object> journaled = new ArrayList<>();
+        final List<Object> replayed = new ArrayList<>();
+        int requests = 0;
+
+        ReplaySession session = null;
+        Instant lastTime = null;
+        for (JournalEntry entry : entries) {
+            if (entry.isBoot() || session == null) {
+                if (session != null) {
+                    session.finish();
+                }
+                session = new ReplaySession(header, entry.time());
+                session.service.addRiderCueListener(replayed::add);
+                session.service.addCarStateListener(replayed::add);
+            } else if (entry.event() == JournalEntry.Marker.RESTORE) {
+                // the fleet carried on from a snapshot, whatever it did between the last record and the restart was
+                // caught up without being journaled
+                session.runUntil(lastTime);
+                final var caughtUpFrom = replayed.size();
+                session.runUntil(entry.time());
+                replayed.subList(caughtUpFrom, replayed.size()).clear();
+            }
+            switch (entry.event()) {
+                case RiderCueEvent riderCueEvent -> journaled.add(riderCueEvent);
+                case CarStateEvent carStateEvent -> journaled.add(carStateEvent);
+                default -> {
+                    if (session.submit(entry)) {
+                        requests++;
+                    }
+                }
+            }
+            lastTime = entry.time();
+        }
+        if (session != null) {
+            session.finish();
+        }
+
+        int matched = 0;
+        while (matched < journaled.size() && matched < replayed.size() && journaled.get(matched).equals(replayed.get(matched))) {
+            matched++;
+        }
+        String firstDivergence = null;
+        if (matched < journaled.size() || matched < replayed.size()) {
+            firstDivergence = "event " + matched + " journaled " +
+                    (matched < journaled.size() ? journaled.get(matched) : "nothing") + " but replayed " +
+                    (matched < replayed.size() ? replayed.get(matched) : "nothing");
+        }
+
+        final var span = entries.isEmpty() ?
+                Duration.ZERO :
+                Duration.between(entries.getFirst().time(), entries.getLast().time());
+        return new ReplayReport(requests, journaled.size(), replayed.size(), matched, firstDivergence, span);
+    }
+
+}
@@ -0,0 +1,238 @@
+package zone.glueck.elevator.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FleetChangeEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An {@link EventJournal} written through memory-mapped regions of a file. Appending a record is a handful of puts
+ * into the mapped buffer, the operating system writes the pages back in the background, so records survive a crash of
+ * the application but not necessarily of the machine. See {@link JournalFormat} for the layout.
+ * <p>
+ * Reopening an existing journal for the same fleet continues after its last record. The owner appends a boot or
+ * restore marker once it knows how the fleet started.
+ */
+public class MappedEventJournal implements EventJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedEventJournal.class);
+
+    private final FileChannel channel;
+
+    private final Clock clock;
+
+    private final int regionSize;
+
+    private final JournalHeader header;
+
+    /**
+     * The index of every car records refer to, the header's cars and those added since the application started.
+     */
+    private final Map<String, Integer> carIndexes = new HashMap<>();
+
+    private MappedByteBuffer region;
+
+    private long regionStart;
+
+    private MappedEventJournal(FileChannel channel, Clock clock, JournalHeader header, int regionSize, long position) throws IOException {
+        this.channel = channel;
+        this.clock = clock;
+        this.regionSize = regionSize;
+        this.header = header;
+        resetCarIndexes();
+        mapRegion(position - position % regionSize);
+        region.position((int) (position - regionStart));
+    }
+
+    /**
+     * Opens the journal at the provided path, creating it if needed.
+     * @param path the journal file
+     * @param header the building being journaled, must match the header of an existing journal
+     * @param clock the service clock, used to time stamp records
+     */
+    public static MappedEventJournal open(@NonNull Path path, @NonNull JournalHeader header, @NonNull Clock clock) throws IOException {
+        return open(path, header, clock, JournalFormat.DEFAULT_REGION_SIZE);
+    }
+
+    static MappedEventJournal open(Path path, JournalHeader header, Clock clock, int regionSize) throws IOException {
+        if (Files.exists(path) && Files.size(path) > 0L) {
+            try (final var reader = new JournalReader(path)) {
+                if (!reader.getHeader().equals(header)) {
+                    throw new IllegalStateException("journal " + path + " was written for a different building: " + reader.getHeader());
+                }
+                final var position = reader.read(entry -> {});
+                log.info("appending to journal {} at {}", path, position);
+                return new MappedEventJournal(openChannel(path), clock, header, reader.getRegionSize(), position);
+            }
+        }
+        final var channel = openChannel(path);
+        final var region = channel.map(FileChannel.MapMode.READ_WRITE, 0L, regionSize);
+        JournalFormat.writeHeader(region, header, regionSize);
+        return new MappedEventJournal(channel, clock, header, regionSize, region.position());
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void append(@NonNull ServiceRequestEvent serviceRequestEvent) {
+        final var start = begin(JournalFormat.serviceRequestLength());
+        JournalFormat.putTime(region, JournalFormat.SERVICE_REQUEST, clock.instant());
+        JournalFormat.putServiceRequestEvent(region, serviceRequestEvent);
+        commit(start);
+    }
+
+    @Override
+    public void append(@NonNull FloorsRequestEvent floorsRequestEvent) {
+        final var start = begin(JournalFormat.floorsRequestLength(floorsRequestEvent));
+        JournalFormat.putTime(region, JournalFormat.FLOORS_REQUEST, clock.instant());
+        JournalFormat.putFloors(region, floorsRequestEvent);
+        commit(start);
+    }
+
+    @Override
+    public void append(@NonNull DestinationRequestEvent destinationRequestEvent) {
+        final var start = begin(JournalFormat.destinationRequestLength());
+        JournalFormat.putTime(region, JournalFormat.DESTINATION_REQUEST, clock.instant());
+        JournalFormat.putDestination(region, destinationRequestEvent);
+        commit(start);
+    }
+
+    @Override
+    public void append(@NonNull RiderCueEvent riderCueEvent) {
+        final var start = begin(JournalFormat.riderCueLength());
+        JournalFormat.putTime(region, JournalFormat.RIDER_CUE, clock.instant());
+        JournalFormat.putRiderCue(region, carIndex(riderCueEvent.carId()), riderCueEvent);
+        commit(start);
+    }
+
+    @Override
+    public void append(@NonNull CarStateEvent carStateEvent) {
+        final var start = begin(JournalFormat.carStateLength());
+        JournalFormat.putTime(region, JournalFormat.CAR_STATE, clock.instant());
+        JournalFormat.putCarState(region, carIndex(carStateEvent.carName()), carStateEvent);
+        commit(start);
+    }
+
+    @Override
+    public void append(@NonNull FleetChangeEvent fleetChangeEvent) {
+        final var start = begin(JournalFormat.fleetChangeLength(fleetChangeEvent));
+        JournalFormat.putTime(region, JournalFormat.FLEET_CHANGE, clock.instant());
+        JournalFormat.putFleetChange(region, fleetChangeEvent);
+        commit(start);
+        if (fleetChangeEvent.change() == FleetChangeEvent.Change.CAR_ADDED) {
+            carIndexes.putIfAbsent(fleetChangeEvent.carId(), carIndexes.size());
+        }
+    }
+
+    @Override
+    public long getPosition() {
+        return regionStart + region.position();
+    }
+
+    /**
+     * Flushes the mapped pages to the file and closes it.
+     */
+    @Override
+    public void close() {
+        try {
+            region.force();
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void appendBoot() {
+        appendMarker(JournalFormat.BOOT);
+        resetCarIndexes();
+    }
+
+    @Override
+    public void appendRestore() {
+        appendMarker(JournalFormat.RESTORE);
+        resetCarIndexes();
+    }
+
+    /**
+     * The application starts with the fleet of the header, cars added by an earlier run are gone.
+     */
+    private void resetCarIndexes() {
+        carIndexes.clear();
+        for (int i = 0; i < header.cars().size(); i++) {
+            carIndexes.put(header.cars().get(i).carId(), i);
+        }
+    }
+
+    private void appendMarker(byte type) {
+        final var start = begin(JournalFormat.markerLength());
+        JournalFormat.putTime(region, type, clock.instant());
+        commit(start);
+    }
+
+    private int carIndex(String carId) {
+        final var index = carIndexes.get(carId);
+        if (index == null) {
+            throw new IllegalArgumentException("car not in the journal: " + carId);
+        }
+        return index;
+    }
+
+    /**
+     * Reserves room for a record, moving on to the next region if it does not fit in this one, and positions the
+     * buffer at the start of the payload. The region left behind is forced first, it stays mapped until it is
+     * collected and {@link #close()} only forces the current one.
+     * @return the position of the record's length in the region
+     * @throws IllegalArgumentException if the record would not fit even in a fresh region
+     */
+    private int begin(int length) {
+        if (Integer.BYTES * 2 + length > regionSize) {
+            throw new IllegalArgumentException("record of " + length + " bytes does not fit in a journal region of " + regionSize);
+        }
+        if (region.remaining() < Integer.BYTES * 2 + length) {
+            if (region.remaining() >= Integer.BYTES) {
+                region.putInt(region.position(), JournalFormat.CONTINUE);
+            }
+            region.force();
+            mapRegion(regionStart + regionSize);
+        }
+        final var start = region.position();
+        region.position(start + Integer.BYTES);
+        return start;
+    }
+
+    /**
+     * Writes the length last, so a reader never sees a record before its payload is complete.
+     */
+    private void commit(int start) {
+        region.putInt(start, region.position() - start - Integer.BYTES);
+    }
+
+    private void mapRegion(long start) {
+        try {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+            regionStart = start;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FleetChangeEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+/**
+ * Discards every event, used when no journal is configured and for replays.
+ */
+public class NoOpEventJournal implements EventJournal {
+
+    @Override
+    public void appendBoot() {
+
+    }
+
+    @Override
+    public void appendRestore() {
+
+    }
+
+    @Override
+    public void append(@NonNull ServiceRequestEvent serviceRequestEvent) {
+
+    }
+
+    @Override
+    public void append(@NonNull FloorsRequestEvent floorsRequestEvent) {
+
+    }
+
+    @Override
+    public void append(@NonNull DestinationRequestEvent destinationRequestEvent) {
+
+    }
+
+    @Override
+    public void append(@NonNull RiderCueEvent riderCueEvent) {
+
+    }
+
+    @Override
+    public void append(@NonNull CarStateEvent carStateEvent) {
+
+    }
+
+    @Override
+    public void append(@NonNull FleetChangeEvent fleetChangeEvent) {
+
+    }
+
+    @Override
+    public long getPosition() {
+        return 0L;
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+}
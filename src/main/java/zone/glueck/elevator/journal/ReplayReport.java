@@ -0,0 +1,46 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a {@link JournalReplayer} run.
+ * @param requestsReplayed service and floors requests fed back to the service
+ * @param eventsJournaled rider cue and car state events in the journal
+ * @param eventsReplayed rider cue and car state events the replayed service published
+ * @param eventsMatched leading events that matched the journal, in order
+ * @param firstDivergence the first event that differed, {@code null} if the replay reproduced the journal
+ * @param span the time between the first and last replayed record
+ */
+public record ReplayReport(
+        int requestsReplayed,
+        int eventsJournaled,
+        int eventsReplayed,
+        int eventsMatched,
+        @Nullable String firstDivergence,
+        @NonNull Duration span
+) {
+
+    public boolean isReproduced() {
+        return firstDivergence == null;
+    }
+
+    /**
+     * @return a human readable summary
+     */
+    public String format() {
+        final var report = new StringBuilder()
+                .append("requests replayed: ").append(requestsReplayed).append(" over ").append(span).append('\n')
+                .append("events journaled: ").append(eventsJournaled).append(", replayed: ").append(eventsReplayed)
+                .append(", matched: ").append(eventsMatched).append('\n');
+        if (isReproduced()) {
+            report.append("the replay reproduced the journal").append('\n');
+        } else {
+            report.append("first divergence: ").append(firstDivergence).append('\n');
+        }
+        return report.toString();
+    }
+
+}
@@ -0,0 +1,103 @@
+package zone.glueck.elevator.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import zone.glueck.elevator.configs.FleetFactory;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FleetChangeEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.service.NonBlockingElevatorService;
+
+import java.time.Instant;
+
+/**
+ * A fleet built from a journal header running on virtual time, which journaled requests are fed back into.
+ */
+final class ReplaySession {
+
+    final VirtualTimeTaskScheduler scheduler;
+
+    final NonBlockingElevatorService service;
+
+    ReplaySession(JournalHeader header, Instant startTime) {
+        this.scheduler = new VirtualTimeTaskScheduler(startTime);
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(header.numberOfFloors());
+        configuration.setElevators(header.elevators());
+        configuration.setDispatcher(header.dispatcher());
+        configuration.setCapacities(header.capacities());
+        configuration.getParking().setEnabled(header.parking());
+        configuration.setCollectiveControl(header.collectiveControl());
+        configuration.setExpressZones(header.expressZones());
+        // one factory for the configured and the added cars numbers them the way the application did
+        final var fleetFactory = new FleetFactory(header.capacities(), header.collectiveControl(), header.expressZones());
+        this.service = new NonBlockingElevatorService(
+                configuration,
+                fleetFactory.createCars(header.elevators(), scheduler),
+                FleetFactory.createDispatcher(header.dispatcher()),
+                scheduler.getClock(),
+                new SimpleMeterRegistry(),
+                new NoOpEventJournal(),
+                elevatorType -> fleetFactory.createCar(elevatorType, scheduler)
+        );
+    }
+
+    /**
+     * Submits the entry's request or fleet change at the time it was journaled.
+     * @return {@code true} if the entry was a request or a fleet change
+     */
+    boolean submit(JournalEntry entry) {
+        switch (entry.event()) {
+            case ServiceRequestEvent serviceRequestEvent -> {
+                submit(entry.time(), () -> service.processServiceRequest(serviceRequestEvent));
+                return true;
+            }
+            case FloorsRequestEvent floorsRequestEvent -> {
+                submit(entry.time(), () -> service.processFloorsRequest(floorsRequestEvent));
+                return true;
+            }
+            case DestinationRequestEvent destinationRequestEvent -> {
+                submit(entry.time(), () -> service.processDestinationRequest(destinationRequestEvent));
+                return true;
+            }
+            case FleetChangeEvent fleetChangeEvent -> {
+                submit(entry.time(), () -> change(fleetChangeEvent));
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private void change(FleetChangeEvent fleetChangeEvent) {
+        switch (fleetChangeEvent.change()) {
+            case CAR_ADDED -> service.addCar(fleetChangeEvent.elevatorType());
+            case CAR_DRAINED -> service.drainCar(fleetChangeEvent.carId());
+            case CAR_REMOVED -> service.removeCar(fleetChangeEvent.carId());
+            case FLOORS_CHANGED -> service.setNumberOfFloors(fleetChangeEvent.numberOfFloors());
+        }
+    }
+
+    private void submit(Instant time, Runnable request) {
+        // let the fleet catch up to just before the request, then queue it behind anything already due at that instant
+        scheduler.runUntil(time.minusNanos(1L));
+        scheduler.schedule(request, time);
+    }
+
+    void runUntil(Instant time) {
+        scheduler.runUntil(time);
+    }
+
+    /**
+     * Runs until the fleet has nothing left to do.
+     */
+    void finish() {
+        while (scheduler.runNext()) {
+            // drain
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package zone.glueck.elevator.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.service.ElevatorService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Restores the fleet on startup and keeps a snapshot of it up to date while the application runs.
+ * <p>
+ * On startup, before any request is served, the latest snapshot is loaded and the journal records written after it are
+ * replayed on virtual time up to the current instant, so cars that were moving or holding their doors when the
+ * application stopped carry on from where they would be now. If the journal shows the fleet was started fresh after
+ * the snapshot, the replay starts from that boot instead. Without a snapshot, or if restoring fails, the fleet starts
+ * fresh. Needs both {@code elevator.journal.path} and {@code elevator.journal.snapshot-path}.
+ */
+@Component
+public class SnapshotManager implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotManager.class);
+
+    private final UserDefinedElevatorConfiguration configuration;
+
+    private final ElevatorService elevatorService;
+
+    private final EventJournal eventJournal;
+
+    private final ThreadPoolTaskScheduler taskScheduler;
+
+    public SnapshotManager(
+            UserDefinedElevatorConfiguration configuration,
+            ElevatorService elevatorService,
+            EventJournal eventJournal,
+            @Qualifier("singleThreadedServiceScheduler") ThreadPoolTaskScheduler taskScheduler) {
+        this.configuration = configuration;
+        this.elevatorService = elevatorService;
+        this.eventJournal = eventJournal;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        final var journalPath = configuration.getJournal().getPath();
+        final var snapshotPath = configuration.getJournal().getSnapshotPath();
+        if (journalPath == null || snapshotPath == null) {
+            taskScheduler.execute(eventJournal::appendBoot);
+            return;
+        }
+        final var store = new SnapshotStore(snapshotPath);
+        try {
+            taskScheduler.submit(() -> start(journalPath, store)).get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("failed to start the fleet", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while starting the fleet", ex);
+        }
+        taskScheduler.scheduleAtFixedRate(
+                () -> write(store),
+                taskScheduler.getClock().instant().plus(configuration.getJournal().getSnapshotInterval()),
+                configuration.getJournal().getSnapshotInterval()
+        );
+    }
+
+    private void start(Path journalPath, SnapshotStore store) {
+        try {
+            final var caughtUp = catchUp(journalPath, store, taskScheduler.getClock().instant());
+            if (caughtUp != null) {
+                elevatorService.restore(caughtUp);
+                eventJournal.appendRestore();
+                log.info("restored {} cars and {} pending service requests", caughtUp.cars().size(), caughtUp.pendingServiceRequests().size());
+                return;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("failed to restore the fleet, starting fresh", ex);
+        }
+        eventJournal.appendBoot();
+    }
+
+    /**
+     * Runs the fleet from the snapshot through the journal tail on virtual time.
+     * @param now the instant to catch up to
+     * @return the fleet as it would be now, or {@code null} if there is no snapshot to start from
+     */
+    @Nullable
+    static FleetSnapshot catchUp(@NonNull Path journalPath, @NonNull SnapshotStore store, @NonNull Instant now) throws IOException {
+        final var snapshot = store.read();
+        if (snapshot == null) {
+            return null;
+        }
+        final List<JournalEntry> tail = new ArrayList<>();
+        final JournalHeader header;
+        try (final var reader = new JournalReader(journalPath)) {
+            header = reader.getHeader();
+            reader.read(snapshot.journalPosition(), tail::add);
+        }
+
+        final ReplaySession session;
+        final List<JournalEntry> requests;
+        final var lastBoot = lastBoot(tail);
+        if (lastBoot < 0) {
+            session = new ReplaySession(header, snapshot.takenAt());
+            session.service.restore(snapshot);
+            requests = tail;
+        } else {
+            // the fleet was started fresh after the snapshot but never snapshotted again
+            session = new ReplaySession(header, tail.get(lastBoot).time());
+            requests = tail.subList(lastBoot + 1, tail.size());
+        }
+        requests.forEach(session::submit);
+        session.runUntil(now);
+        return session.service.snapshot(now);
+    }
+
+    private static int lastBoot(List<JournalEntry> entries) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (entries.get(i).isBoot()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void write(SnapshotStore store) {
+        try {
+            store.write(elevatorService.snapshot(taskScheduler.getClock().instant()));
+        } catch (IOException ex) {
+            log.warn("failed to write a fleet snapshot", ex);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package zone.glueck.elevator.journal;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.CarSnapshot;
+import zone.glueck.elevator.cars.EventPublisherCar;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the latest {@link FleetSnapshot} in a small binary file. A snapshot is written next to the file and moved over
+ * it, so a crash mid write leaves the previous snapshot intact.
+ * <p>
+ * The file holds magic, version, the snapshot time as nanoseconds since the epoch and the journal position, then each
+ * car: id, state, floor, direction, nanoseconds until it resumes, its stops and its service requests, and finally the
+ * pending service requests. Absent directions and durations are written as {@code -1}.
+ */
+public class SnapshotStore {
+
+    private static final int MAGIC = 0x454C5653;
+
+    private static final short VERSION = 1;
+
+    private static final EventPublisherCar.State[] STATES = EventPublisherCar.State.values();
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Path path;
+
+    public SnapshotStore(@NonNull Path path) {
+        this.path = path;
+    }
+
+    public void write(@NonNull FleetSnapshot snapshot) throws IOException {
+        final var temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(toNanos(snapshot.takenAt()));
+            out.writeLong(snapshot.journalPosition());
+            out.writeShort(snapshot.cars().size());
+            for (CarSnapshot car : snapshot.cars()) {
+                out.writeUTF(car.carId());
+                out.writeByte(car.state().ordinal());
+                out.writeInt(car.currentFloor());
+                out.writeByte(car.direction() == null ? -1 : car.direction().ordinal());
+                out.writeLong(car.resumeIn() == null ? -1L : car.resumeIn().toNanos());
+                out.writeInt(car.stops().size());
+                for (int stop : car.stops()) {
+                    out.writeInt(stop);
+                }
+                writeServiceRequests(out, car.serviceRequests());
+            }
+            writeServiceRequests(out, snapshot.pendingServiceRequests());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the latest snapshot, or {@code null} if none was written yet
+     */
+    @Nullable
+    public FleetSnapshot read() throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("not an elevator snapshot: " + path);
+            }
+            final var version = in.readShort();
+            if (version != VERSION) {
+                throw new IllegalStateException("unsupported snapshot version: " + version);
+            }
+            final var takenAt = fromNanos(in.readLong());
+            final var journalPosition = in.readLong();
+            final var carCount = in.readShort();
+            final List<CarSnapshot> cars = new ArrayList<>(carCount);
+            for (int i = 0; i < carCount; i++) {
+                final var carId = in.readUTF();
+                final var state = STATES[in.readByte()];
+                final var currentFloor = in.readInt();
+                final var direction = in.readByte();
+                final var resumeIn = in.readLong();
+                final var stopCount = in.readInt();
+                final List<Integer> stops = new ArrayList<>(stopCount);
+                for (int j = 0; j < stopCount; j++) {
+                    stops.add(in.readInt());
+                }
+                cars.add(new CarSnapshot(
+                        carId,
+                        state,
+                        currentFloor,
+                        direction < 0 ? null : DIRECTIONS[direction],
+                        stops,
+                        readServiceRequests(in),
+                        resumeIn < 0L ? null : Duration.ofNanos(resumeIn)
+                ));
+            }
+            return new FleetSnapshot(takenAt, journalPosition, cars, readServiceRequests(in));
+        }
+    }
+
+    private static void writeServiceRequests(DataOutputStream out, List<ServiceRequestEvent> serviceRequests) throws IOException {
+        out.writeInt(serviceRequests.size());
+        for (ServiceRequestEvent serviceRequest : serviceRequests) {
+            out.writeLong(serviceRequest.id().getMostSignificantBits());
+            out.writeLong(serviceRequest.id().getLeastSignificantBits());
+            out.writeByte(serviceRequest.direction().ordinal());
+            out.writeInt(serviceRequest.originationFloor());
+        }
+    }
+
+    private static List<ServiceRequestEvent> readServiceRequests(DataInputStream in) throws IOException {
+        final var count = in.readInt();
+        final List<ServiceRequestEvent> serviceRequests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final var id = new UUID(in.readLong(), in.readLong());
+            serviceRequests.add(new ServiceRequestEvent(id, DIRECTIONS[in.readByte()], in.readInt()));
+        }
+        return serviceRequests;
+    }
+
+    private static long toNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static Instant fromNanos(long nanos) {
+        return Instant.ofEpochSecond(0L, nanos);
+    }
+
+}
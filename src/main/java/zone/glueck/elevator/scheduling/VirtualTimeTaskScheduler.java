@@ -0,0 +1,297 @@
+package zone.glueck.elevator.scheduling;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A discrete-event {@link TaskScheduler} that runs on virtual time. Nothing executes on its own; the owner drives the
+ * simulation with {@link #runNext()}, {@link #runUntil(Instant)} or {@link #runFor(Duration)}, which jump the
+ * {@link #getClock() clock} straight to the next due task instead of waiting for it.
+ * <p>
+ * Like the single threaded service scheduler it stands in for, this class is not thread safe. All scheduling and
+ * execution must happen on the thread driving the simulation.
+ */
+public class VirtualTimeTaskScheduler implements TaskScheduler {
+
+    private final PriorityQueue<VirtualTask> tasks = new PriorityQueue<>();
+
+    private final Clock clock = new VirtualClock(ZoneOffset.UTC);
+
+    private Instant now;
+
+    private long sequence;
+
+    public VirtualTimeTaskScheduler() {
+        this(Instant.EPOCH);
+    }
+
+    public VirtualTimeTaskScheduler(@NonNull Instant startTime) {
+        this.now = startTime;
+    }
+
+    @Override
+    @NonNull
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return the current virtual time
+     */
+    public Instant now() {
+        return now;
+    }
+
+    /**
+     * @return the number of tasks waiting to run, including periodic tasks
+     */
+    public int getPendingTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Advances the clock to the next due task and runs it. Tasks due at the same instant run in submission order.
+     * @return {@code false} if there was nothing left to run
+     */
+    public boolean runNext() {
+        final var task = tasks.poll();
+        if (task == null) {
+            return false;
+        }
+        if (task.startTime.isAfter(now)) {
+            now = task.startTime;
+        }
+        task.run();
+        return true;
+    }
+
+    /**
+     * Runs every task due at or before the provided time and leaves the clock at that time.
+     * @param endTime the virtual time to stop at
+     * @return the number of tasks that ran
+     */
+    public int runUntil(@NonNull Instant endTime) {
+        int count = 0;
+        while (!tasks.isEmpty() && !tasks.peek().startTime.isAfter(endTime)) {
+            runNext();
+            count++;
+        }
+        if (endTime.isAfter(now)) {
+            now = endTime;
+        }
+        return count;
+    }
+
+    /**
+     * Runs the simulation forward by the provided amount of virtual time.
+     * @param duration how far to advance the clock
+     * @return the number of tasks that ran
+     */
+    public int runFor(@NonNull Duration duration) {
+        return runUntil(now.plus(duration));
+    }
+
+    @Override
+    @Nullable
+    public ScheduledFuture<?> schedule(@NonNull Runnable task, @NonNull Trigger trigger) {
+        final var triggerContext = new SimpleTriggerContext(clock);
+        final var firstExecution = trigger.nextExecution(triggerContext);
+        if (firstExecution == null) {
+            return null;
+        }
+        return enqueue(new VirtualTask(task, firstExecution) {
+            @Override
+            protected Instant reschedule(Instant scheduled, Instant actual) {
+                triggerContext.update(scheduled, actual, now);
+                return trigger.nextExecution(triggerContext);
+            }
+        });
+    }
+
+    @Override
+    @NonNull
+    public ScheduledFuture<?> schedule(@NonNull Runnable task, @NonNull Instant startTime) {
+        return enqueue(new VirtualTask(task, startTime));
+    }
+
+    @Override
+    @NonNull
+    public ScheduledFuture<?> scheduleAtFixedRate(@NonNull Runnable task, @NonNull Instant startTime, @NonNull Duration period) {
+        return enqueue(new VirtualTask(task, startTime) {
+            @Override
+            protected Instant reschedule(Instant scheduled, Instant actual) {
+                return scheduled.plus(period);
+            }
+        });
+    }
+
+    @Override
+    @NonNull
+    public ScheduledFuture<?> scheduleAtFixedRate(@NonNull Runnable task, @NonNull Duration period) {
+        return scheduleAtFixedRate(task, now, period);
+    }
+
+    @Override
+    @NonNull
+    public ScheduledFuture<?> scheduleWithFixedDelay(@NonNull Runnable task, @NonNull Instant startTime, @NonNull Duration delay) {
+        return enqueue(new VirtualTask(task, startTime) {
+            @Override
+            protected Instant reschedule(Instant scheduled, Instant actual) {
+                return now.plus(delay);
+            }
+        });
+    }
+
+    @Override
+    @NonNull
+    public ScheduledFuture<?> scheduleWithFixedDelay(@NonNull Runnable task, @NonNull Duration delay) {
+        return scheduleWithFixedDelay(task, now, delay);
+    }
+
+    private VirtualTask enqueue(VirtualTask task) {
+        task.sequence = sequence++;
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * A clock that only moves when the scheduler runs a task or is told to advance.
+     */
+    private final class VirtualClock extends Clock {
+
+        private final ZoneId zone;
+
+        private VirtualClock(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new VirtualClock(zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    /**
+     * A scheduled unit of work. One-shot by default, periodic tasks override {@link #reschedule(Instant, Instant)}.
+     */
+    private class VirtualTask implements ScheduledFuture<Object>, Comparable<Delayed> {
+
+        private final Runnable runnable;
+
+        private Instant startTime;
+
+        private long sequence;
+
+        private boolean cancelled;
+
+        private boolean done;
+
+        private VirtualTask(Runnable runnable, Instant startTime) {
+            this.runnable = runnable;
+            this.startTime = startTime;
+        }
+
+        /**
+         * @return the next execution time, or {@code null} if the task should not run again
+         */
+        @Nullable
+        protected Instant reschedule(Instant scheduled, Instant actual) {
+            return null;
+        }
+
+        private void run() {
+            if (cancelled) {
+                return;
+            }
+            final var scheduled = startTime;
+            final var actual = now;
+            try {
+                runnable.run();
+            } catch (RuntimeException ex) {
+                done = true;
+                throw ex;
+            }
+            final var next = cancelled ? null : reschedule(scheduled, actual);
+            if (next == null) {
+                done = true;
+            } else {
+                startTime = next;
+                enqueue(this);
+            }
+        }
+
+        @Override
+        public long getDelay(@NonNull TimeUnit unit) {
+            return unit.convert(Duration.between(now, startTime));
+        }
+
+        @Override
+        public int compareTo(@NonNull Delayed other) {
+            if (other instanceof VirtualTask task) {
+                final var byTime = startTime.compareTo(task.startTime);
+                return byTime != 0 ? byTime : Long.compare(sequence, task.sequence);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done || cancelled) {
+                return false;
+            }
+            cancelled = true;
+            tasks.remove(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done || cancelled;
+        }
+
+        @Override
+        public Object get() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (!done) {
+                throw new IllegalStateException("task has not run yet, advance the virtual clock first");
+            }
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, @NonNull TimeUnit unit) {
+            return get();
+        }
+    }
+}
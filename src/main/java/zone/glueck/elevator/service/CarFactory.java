@@ -0,0 +1,20 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.Car;
+
+/**
+ * Builds the cars added to a running fleet.
+ */
+@FunctionalInterface
+public interface CarFactory {
+
+    /**
+     * @param elevatorType a configured car type, e.g. {@code StandardCar}
+     * @return a new car with an id no other car of the fleet had, or {@code null} if the type is unknown
+     */
+    @Nullable
+    Car createCar(@NonNull String elevatorType);
+
+}
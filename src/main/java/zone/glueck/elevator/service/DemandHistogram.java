@@ -0,0 +1,146 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hall calls counted by time of day, floor and direction. Each day is split into {@link #BUCKET_WIDTH} buckets and older
+ * days count less, halving every {@link #HALF_LIFE}, so the histogram follows a building whose habits change.
+ * <p>
+ * Not thread safe, it is only ever used from the service thread.
+ */
+public class DemandHistogram {
+
+    static final Duration BUCKET_WIDTH = Duration.ofMinutes(15L);
+
+    static final Duration HALF_LIFE = Duration.ofDays(7L);
+
+    private static final int BUCKETS = (int) (Duration.ofDays(1L).toMinutes() / BUCKET_WIDTH.toMinutes());
+
+    private final int numberOfFloors;
+
+    private final ZoneId zone;
+
+    /**
+     * The decayed number of calls, by bucket, then by floor and direction.
+     */
+    private final double[][] demand;
+
+    /**
+     * The epoch day each bucket's counts were last decayed to.
+     */
+    private final long[] decayedTo = new long[BUCKETS];
+
+    /**
+     * @param numberOfFloors the top floor, calls from floors outside the building are ignored
+     * @param zone the time zone of the building, which the time of day is taken in
+     */
+    public DemandHistogram(int numberOfFloors, @NonNull ZoneId zone) {
+        this.numberOfFloors = numberOfFloors;
+        this.zone = zone;
+        this.demand = new double[BUCKETS][(numberOfFloors + 1) * Direction.values().length];
+    }
+
+    /**
+     * @param numberOfFloors the new top floor
+     * @return a histogram of a resized building with the demand seen on the floors it still has
+     */
+    public DemandHistogram resized(int numberOfFloors) {
+        final var resized = new DemandHistogram(numberOfFloors, zone);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            final var length = Math.min(demand[bucket].length, resized.demand[bucket].length);
+            System.arraycopy(demand[bucket], 0, resized.demand[bucket], 0, length);
+        }
+        System.arraycopy(decayedTo, 0, resized.decayedTo, 0, BUCKETS);
+        return resized;
+    }
+
+    public void record(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull Instant time) {
+        final var floor = serviceRequestEvent.originationFloor();
+        if (floor < 0 || floor > numberOfFloors) {
+            return;
+        }
+        final var localTime = time.atZone(zone);
+        final var bucket = bucketOf(localTime);
+        final var day = localTime.toLocalDate().toEpochDay();
+        final var factor = decay(bucket, day);
+        final var counts = demand[bucket];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] *= factor;
+        }
+        decayedTo[bucket] = day;
+        counts[floor * Direction.values().length + serviceRequestEvent.direction().ordinal()] += 1.0;
+    }
+
+    /**
+     * @return the calls expected from the floor, in either direction, in the bucket of the provided time and the next
+     */
+    public double demand(int floor, @NonNull Instant time) {
+        if (floor < 0 || floor > numberOfFloors) {
+            return 0.0;
+        }
+        return demand(floor, time.atZone(zone)) + demand(floor, time.plus(BUCKET_WIDTH).atZone(zone));
+    }
+
+    /**
+     * @return the calls expected from an average floor in the bucket of the provided time and the next
+     */
+    public double meanDemand(@NonNull Instant time) {
+        var sum = 0.0;
+        for (int floor = 0; floor <= numberOfFloors; floor++) {
+            sum += demand(floor, time);
+        }
+        return sum / (numberOfFloors + 1);
+    }
+
+    /**
+     * @param time the current time
+     * @param minimumDemand the least demand worth waiting for
+     * @return the floors expecting at least the minimum demand, busiest first, ties go to the lower floor
+     */
+    public List<Integer> hotFloors(@NonNull Instant time, double minimumDemand) {
+        final List<Integer> floors = new ArrayList<>();
+        final var floorDemand = new double[numberOfFloors + 1];
+        for (int floor = 0; floor <= numberOfFloors; floor++) {
+            floorDemand[floor] = demand(floor, time);
+            if (floorDemand[floor] >= minimumDemand) {
+                floors.add(floor);
+            }
+        }
+        floors.sort(Comparator.comparingDouble((Integer floor) -> floorDemand[floor]).reversed());
+        return floors;
+    }
+
+    private double demand(int floor, ZonedDateTime localTime) {
+        final var bucket = bucketOf(localTime);
+        final var factor = decay(bucket, localTime.toLocalDate().toEpochDay());
+        final var first = floor * Direction.values().length;
+        var sum = 0.0;
+        for (int i = first; i < first + Direction.values().length; i++) {
+            sum += demand[bucket][i];
+        }
+        return sum * factor;
+    }
+
+    /**
+     * @return the factor the bucket's counts lose by the provided day
+     */
+    private double decay(int bucket, long day) {
+        final var days = day - decayedTo[bucket];
+        return days <= 0L ? 1.0 : Math.pow(0.5, (double) days / HALF_LIFE.toDays());
+    }
+
+    private static int bucketOf(ZonedDateTime localTime) {
+        return (int) (localTime.toLocalTime().toSecondOfDay() / BUCKET_WIDTH.toSeconds());
+    }
+
+}
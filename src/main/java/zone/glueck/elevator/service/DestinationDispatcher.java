@@ -0,0 +1,65 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plans destination calls with the floor the rider is going to. Every car is costed by its estimated time to arrival
+ * plus a door dwell if the destination would be a new stop for it, so riders headed for the same floor share a car
+ * instead of adding a stop to each one. The car that takes a call stops at its destination from then on, and riders
+ * calling from the same floor share the pickup as well. Cars that do not serve the destination, like express cars
+ * zoned elsewhere, are never planned. Hall calls without a destination are dispatched like {@link LowestCostDispatcher}
+ * does.
+ */
+public class DestinationDispatcher implements Dispatcher {
+
+    /**
+     * What one more stop costs every rider already in the car, about a door dwell.
+     */
+    static final Duration STOP_PENALTY = Duration.ofSeconds(3L);
+
+    private final Dispatcher lowestCostDispatcher = new LowestCostDispatcher();
+
+    @Override
+    @Nullable
+    public Car dispatch(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull Collection<Car> cars) {
+        return lowestCostDispatcher.dispatch(serviceRequestEvent, cars);
+    }
+
+    @Override
+    @Nullable
+    public Car dispatch(@NonNull ServiceRequestEvent serviceRequestEvent, int destinationFloor, @NonNull Collection<Car> cars) {
+        final List<Candidate> candidates = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            if (!car.serves(destinationFloor)) {
+                continue;
+            }
+            final var estimate = car.estimateTimeToArrival(serviceRequestEvent, destinationFloor);
+            if (estimate != null) {
+                final var cost = car.isStoppingAt(destinationFloor) ? estimate : estimate.plus(STOP_PENALTY);
+                candidates.add(new Candidate(car, cost));
+            }
+        }
+        candidates.sort(Comparator.comparing(Candidate::cost));
+
+        for (Candidate candidate : candidates) {
+            if (candidate.car().processServiceRequest(serviceRequestEvent, destinationFloor)) {
+                return candidate.car();
+            }
+        }
+        return null;
+    }
+
+    private record Candidate(Car car, Duration cost) {
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.util.Collection;
+
+/**
+ * Selects which car answers a hall call.
+ */
+public interface Dispatcher {
+
+    /**
+     * Offers the {@link ServiceRequestEvent} to the provided cars until one accepts it.
+     * @param serviceRequestEvent
+     * @param cars the fleet, in configuration order
+     * @return the car that accepted the request, or {@code null} if every car rejected it
+     */
+    @Nullable
+    Car dispatch(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull Collection<Car> cars);
+
+    /**
+     * Offers a destination call, whose rider already entered the floor they are going to, to the provided cars until
+     * one accepts it. Dispatchers that do not plan with destinations treat it as a plain hall call.
+     * @param serviceRequestEvent the hall call
+     * @param destinationFloor the rider's destination
+     * @param cars the fleet, in configuration order
+     * @return the car that accepted the request, or {@code null} if every car rejected it
+     */
+    @Nullable
+    default Car dispatch(@NonNull ServiceRequestEvent serviceRequestEvent, int destinationFloor, @NonNull Collection<Car> cars) {
+        return dispatch(serviceRequestEvent, cars);
+    }
+
+}
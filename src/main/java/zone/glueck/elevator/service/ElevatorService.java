@@ -1,12 +1,19 @@
 package zone.glueck.elevator.service;
 
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.DestinationRequestEvent;
 import zone.glueck.elevator.events.FloorsRequestEvent;
 import zone.glueck.elevator.events.RiderCueEvent;
 import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.journal.FleetSnapshot;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface ElevatorService {
 
@@ -18,6 +25,82 @@ public interface ElevatorService {
 
     void processFloorsRequest(@NonNull FloorsRequestEvent floorsRequestEvent);
 
+    /**
+     * Dispatches a hall call that already carries the rider's destination. The car selects the destination by itself
+     * once it cues the rider, no floors request is needed.
+     * @param destinationRequestEvent the hall call and its destination
+     * @return completes with the id of the car assigned to the call, or {@code null} if every car is busy and the call
+     * waits for the next available one
+     */
+    CompletableFuture<String> processDestinationRequest(@NonNull DestinationRequestEvent destinationRequestEvent);
+
+    /**
+     * Processes a burst of requests as a single unit of work. Floors requests go first so the dispatcher sees the trips
+     * they start, then the service requests are dispatched in order.
+     * @param serviceRequestEvents hall calls, may be empty
+     * @param floorsRequestEvents floor selections for active service requests, may be empty
+     */
+    void processBatch(
+            @NonNull Collection<ServiceRequestEvent> serviceRequestEvents,
+            @NonNull Collection<FloorsRequestEvent> floorsRequestEvents
+    );
+
+    /**
+     * @param serviceRequestId the id of a service request
+     * @return {@code true} if a car has accepted the service request and is still waiting for its floors request
+     */
+    boolean isActiveServiceRequest(@NonNull UUID serviceRequestId);
+
+    /**
+     * Looks up a recent service request without waiting for the service thread.
+     * @param serviceRequestId the id of a service request
+     * @return the status as of the request's last change, or {@code null} if the request is unknown or too old
+     */
+    @Nullable
+    ServiceRequestStatus getServiceRequestStatus(@NonNull UUID serviceRequestId);
+
+    /**
+     * Captures the fleet and the pending queue. Must be called on the service thread.
+     * @param now the current time on the service clock
+     */
+    FleetSnapshot snapshot(@NonNull Instant now);
+
+    /**
+     * Puts every car and the pending queue back to the snapshot. Must be called on the service thread before the
+     * service handles any request.
+     * @throws IllegalArgumentException if the snapshot was taken from a different fleet, nothing is restored then
+     */
+    void restore(@NonNull FleetSnapshot snapshot);
+
+    /**
+     * Adds a car of the provided type to the running fleet. It starts available at the lobby and takes queued calls
+     * right away.
+     * @return completes with the id of the new car, or {@code null} if the type is unknown
+     */
+    CompletableFuture<String> addCar(@NonNull String elevatorType);
+
+    /**
+     * Takes a car out of dispatch. It finishes the trips of the riders aboard and the rider it is waiting for, every
+     * other call it accepted goes back to the rest of the fleet. Draining a car twice does nothing.
+     * @return completes with {@code false} if there is no such car
+     */
+    CompletableFuture<Boolean> drainCar(@NonNull String carId);
+
+    /**
+     * Removes a drained car from the fleet.
+     * @return completes with {@code false} if there is no such car, fails with an {@link IllegalStateException} if the
+     * car has not been drained or has not finished its trips yet
+     */
+    CompletableFuture<Boolean> removeCar(@NonNull String carId);
+
+    /**
+     * Changes the top floor. The building only shrinks once no call, stop or busy car is left above the new top floor,
+     * idle cars above it are parked at the new top floor.
+     * @return fails with an {@link IllegalArgumentException} if the building would have no floor above the lobby, and
+     * with an {@link IllegalStateException} if shrinking would strand a call, stop or busy car above the new top floor
+     */
+    CompletableFuture<Void> setNumberOfFloors(int numberOfFloors);
+
     void addRiderCueListener(@NonNull RiderCueListener riderCueListener);
 
     void addCarStateListener(@NonNull CarStateListener carStateListener);
@@ -0,0 +1,27 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.util.Collection;
+
+/**
+ * Walks the cars in configuration order and hands the call to the first one that accepts it. Simple, but the first car
+ * inevitably gets the most requests.
+ */
+public class FirstAcceptDispatcher implements Dispatcher {
+
+    @Override
+    @Nullable
+    public Car dispatch(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull Collection<Car> cars) {
+        for (Car car : cars) {
+            if (car.processServiceRequest(serviceRequestEvent)) {
+                return car;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,151 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.ServiceRequestQueue;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ServiceRequestQueue} indexed by direction and origination floor, so a car can find the closest call and
+ * every call along its path with tree lookups instead of scanning the whole queue. Requests for the same floor and
+ * direction are kept in arrival order.
+ * <p>
+ * Not thread safe, it is only ever modified from the single service thread. {@link #size()} is the exception and may
+ * be read from any thread, e.g. by the pending requests gauge when metrics are scraped.
+ */
+public class FloorIndexedServiceRequestQueue implements ServiceRequestQueue {
+
+    private final NavigableMap<Integer, Deque<ServiceRequestEvent>> ascending = new TreeMap<>();
+
+    private final NavigableMap<Integer, Deque<ServiceRequestEvent>> descending = new TreeMap<>();
+
+    /**
+     * Volatile so other threads see the latest count. Only the service thread writes it, so the non-atomic updates
+     * cannot lose a count.
+     */
+    private volatile int size;
+
+    public void add(@NonNull ServiceRequestEvent serviceRequestEvent) {
+        index(serviceRequestEvent.direction())
+                .computeIfAbsent(serviceRequestEvent.originationFloor(), floor -> new ArrayDeque<>())
+                .addLast(serviceRequestEvent);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return every queued request, ascending calls first, each floor's calls in arrival order
+     */
+    public List<ServiceRequestEvent> toList() {
+        final List<ServiceRequestEvent> serviceRequestEvents = new ArrayList<>(size);
+        ascending.values().forEach(serviceRequestEvents::addAll);
+        descending.values().forEach(serviceRequestEvents::addAll);
+        return serviceRequestEvents;
+    }
+
+    public void clear() {
+        ascending.clear();
+        descending.clear();
+        size = 0;
+    }
+
+    @Override
+    @Nullable
+    public ServiceRequestEvent pollNearest(int floor, @NonNull IntPredicate servedFloors) {
+        final var nearest = closest(
+                floor,
+                closestServed(floor, ascending, servedFloors),
+                closestServed(floor, descending, servedFloors)
+        );
+
+        if (nearest == null) {
+            return null;
+        }
+
+        final var requests = nearest.getValue();
+        final var serviceRequestEvent = requests.pollFirst();
+        if (requests.isEmpty()) {
+            index(serviceRequestEvent.direction()).remove(nearest.getKey());
+        }
+        size--;
+        return serviceRequestEvent;
+    }
+
+    @Override
+    public void claimOnTheWay(@NonNull Direction direction, int floor, @NonNull Predicate<ServiceRequestEvent> claimant) {
+        final var onTheWay = direction == Direction.ASCENDING ?
+                ascending.tailMap(floor, false) :
+                descending.headMap(floor, false).descendingMap();
+
+        final var floors = onTheWay.values().iterator();
+        while (floors.hasNext()) {
+            final var requests = floors.next();
+            final var iterator = requests.iterator();
+            while (iterator.hasNext()) {
+                if (claimant.test(iterator.next())) {
+                    iterator.remove();
+                    size--;
+                }
+            }
+            if (requests.isEmpty()) {
+                floors.remove();
+            }
+        }
+    }
+
+    private NavigableMap<Integer, Deque<ServiceRequestEvent>> index(Direction direction) {
+        return direction == Direction.ASCENDING ? ascending : descending;
+    }
+
+    @Nullable
+    private static <T> Map.Entry<Integer, T> closestServed(int floor, NavigableMap<Integer, T> index, IntPredicate servedFloors) {
+        return closest(
+                floor,
+                firstServed(index.headMap(floor, true).descendingMap(), servedFloors),
+                firstServed(index.tailMap(floor, false), servedFloors)
+        );
+    }
+
+    /**
+     * @return the first entry on a served floor, the floors are walked from the claiming car outwards
+     */
+    @Nullable
+    private static <T> Map.Entry<Integer, T> firstServed(NavigableMap<Integer, T> floors, IntPredicate servedFloors) {
+        for (Map.Entry<Integer, T> entry : floors.entrySet()) {
+            if (servedFloors.test(entry.getKey())) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static <T> Map.Entry<Integer, T> closest(int floor, @Nullable Map.Entry<Integer, T> first, @Nullable Map.Entry<Integer, T> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return Math.abs(second.getKey() - floor) < Math.abs(first.getKey() - floor) ? second : first;
+    }
+
+}
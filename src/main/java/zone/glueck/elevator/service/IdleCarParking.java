@@ -0,0 +1,101 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.cars.EventPublisherCar;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends idle cars to the floors where hall calls are expected next, e.g. the lobby in the morning, so the next rider
+ * finds a car waiting. Expectations come from a {@link DemandHistogram} of the calls seen at the same time on earlier
+ * days. Only floors far busier than the average floor are worth a car, when calls are spread over the building a car
+ * waits best wherever its last trip ended. Each busy floor gets at most one idle car, busiest floor first, and a car
+ * stays where it is when every such floor already has one.
+ * <p>
+ * Not thread safe, it is only ever used from the service thread.
+ */
+public class IdleCarParking {
+
+    /**
+     * The least number of calls expected from a floor for an idle car to wait there.
+     */
+    static final double MINIMUM_DEMAND = 1.0;
+
+    /**
+     * How many times the demand of the average floor a floor needs to expect for an idle car to wait there.
+     */
+    static final double PEAK_FACTOR = 3.0;
+
+    private DemandHistogram demandHistogram;
+
+    /**
+     * The floor each parking car was sent to, until it is idle again.
+     */
+    private final Map<String, Integer> parkingFloors = new HashMap<>();
+
+    public IdleCarParking(@NonNull DemandHistogram demandHistogram) {
+        this.demandHistogram = demandHistogram;
+    }
+
+    public void recordServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull Instant time) {
+        demandHistogram.record(serviceRequestEvent, time);
+    }
+
+    /**
+     * Keeps the demand seen so far on the floors the resized building still has.
+     * @param numberOfFloors the new top floor
+     */
+    public void resize(int numberOfFloors) {
+        demandHistogram = demandHistogram.resized(numberOfFloors);
+    }
+
+    /**
+     * Forgets where a car that no longer takes calls was sent.
+     */
+    public void removeCar(@NonNull String carId) {
+        parkingFloors.remove(carId);
+    }
+
+    /**
+     * Parks a car that just ran out of work at the busiest expected floor no other car is waiting at or heading for.
+     * @param idleCar the idle car
+     * @param cars the fleet, including the idle car
+     * @param now the current time on the service clock
+     */
+    public void parkIdleCar(@NonNull EventPublisherCar idleCar, @NonNull Collection<Car> cars, @NonNull Instant now) {
+        parkingFloors.remove(idleCar.getCarId());
+
+        final Set<Integer> coveredFloors = new HashSet<>();
+        for (Car car : cars) {
+            if (car == idleCar) {
+                continue;
+            }
+            if (car instanceof EventPublisherCar eventPublisherCar && eventPublisherCar.getState() == EventPublisherCar.State.AVAILABLE) {
+                coveredFloors.add(eventPublisherCar.getCurrentFloor());
+            }
+            final var parkingFloor = parkingFloors.get(car.getCarId());
+            if (parkingFloor != null && car.isStoppingAt(parkingFloor)) {
+                coveredFloors.add(parkingFloor);
+            }
+        }
+
+        final var minimumDemand = Math.max(MINIMUM_DEMAND, PEAK_FACTOR * demandHistogram.meanDemand(now));
+        for (Integer floor : demandHistogram.hotFloors(now, minimumDemand)) {
+            if (coveredFloors.contains(floor)) {
+                continue;
+            }
+            if (floor != idleCar.getCurrentFloor() && idleCar.park(floor)) {
+                parkingFloors.put(idleCar.getCarId(), floor);
+            }
+            return;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Asks every car for its {@link Car#estimateTimeToArrival(ServiceRequestEvent) estimated time to arrival} and assigns
+ * the call to the car that can reach the caller soonest. Ties go to the car listed first in the configuration.
+ */
+public class LowestCostDispatcher implements Dispatcher {
+
+    @Override
+    @Nullable
+    public Car dispatch(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull Collection<Car> cars) {
+        final List<Candidate> candidates = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            final var estimate = car.estimateTimeToArrival(serviceRequestEvent);
+            if (estimate != null) {
+                candidates.add(new Candidate(car, estimate));
+            }
+        }
+        candidates.sort(Comparator.comparing(Candidate::estimate));
+
+        for (Candidate candidate : candidates) {
+            if (candidate.car().processServiceRequest(serviceRequestEvent)) {
+                return candidate.car();
+            }
+        }
+        return null;
+    }
+
+    private record Candidate(Car car, Duration estimate) {
+
+    }
+
+}
@@ -1,22 +1,50 @@
 package zone.glueck.elevator.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.lang.NonNull;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import zone.glueck.elevator.cars.CarSnapshot;
 import zone.glueck.elevator.cars.EventPublisherCar;
 import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
 import zone.glueck.elevator.cars.Car;
 import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FleetChangeEvent;
 import zone.glueck.elevator.events.FloorsRequestEvent;
 import zone.glueck.elevator.events.RiderCueEvent;
 import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.journal.EventJournal;
+import zone.glueck.elevator.journal.FleetSnapshot;
+import zone.glueck.elevator.journal.NoOpEventJournal;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
+import static zone.glueck.elevator.cars.EventPublisherCar.State.AVAILABLE;
+import static zone.glueck.elevator.cars.EventPublisherCar.State.MOVING;
+
+/**
+ * Dispatches requests to the cars and publishes their events. Not thread safe, every request must be made on the
+ * service thread, which {@link RingBufferElevatorService} takes care of for the API.
+ * <p>
+ * The fleet can change while running. A drained car leaves dispatch at once and hands its calls back to the others, so
+ * dispatch never pauses, then stays in the fleet until it has finished its trips and is removed.
+ */
 @Service
 public class NonBlockingElevatorService implements ElevatorService {
 
@@ -28,29 +56,185 @@ public class NonBlockingElevatorService implements ElevatorService {
 
     private final Collection<CarStateListener> carStateListeners = new CopyOnWriteArrayList<>();
 
-    private final Queue<ServiceRequestEvent> pendingServiceRequests = new ConcurrentLinkedQueue<>();
+    private final FloorIndexedServiceRequestQueue pendingServiceRequests = new FloorIndexedServiceRequestQueue();
+
+    /**
+     * Every car of the fleet, draining cars included. Read by the API threads for the car names.
+     */
+    private final List<Car> cars = new CopyOnWriteArrayList<>();
+
+    /**
+     * The cars that take new calls, every car not being drained.
+     */
+    private final List<Car> dispatchableCars = new ArrayList<>();
+
+    private final Set<String> drainingCars = new HashSet<>();
+
+    private final CarFactory carFactory;
+
+    private volatile int numberOfFloors;
+
+    private final Dispatcher dispatcher;
+
+    /**
+     * The car answering each accepted service request, until the rider's floors request reaches it. Filled only by
+     * the cars' accepted consumer, read by the API threads to reject unknown ids.
+     */
+    private final Map<UUID, Car> assignedServiceRequests = new ConcurrentHashMap<>();
+
+    /**
+     * The destination of each destination call, until the car answering it cues the rider.
+     */
+    private final Map<UUID, Integer> destinations = new HashMap<>();
+
+    private final Clock clock;
+
+    @Nullable
+    private final IdleCarParking idleCarParking;
+
+    private final ServiceRequestIndex serviceRequestIndex;
+
+    private final MeterRegistry meterRegistry;
+
+    private final EventJournal eventJournal;
+
+    private final Timer serviceRequestTimer;
+
+    private final Timer floorsRequestTimer;
+
+    private final Timer dispatchTimer;
 
-    private final Collection<Car> cars = new ArrayList<>();
+    /**
+     * When each service request came in, until a car cues the rider.
+     */
+    private final Map<UUID, Instant> serviceRequestTimes = new HashMap<>();
 
+    /**
+     * When the rider requested floors, until the serving car stops at each of them. Keyed by car and floor.
+     */
+    private final Map<String, Map<Integer, List<Instant>>> floorsRequestTimes = new HashMap<>();
+
+    /**
+     * Creates a service that records its metrics in a private registry, for headless use outside the application.
+     */
     public NonBlockingElevatorService(
             UserDefinedElevatorConfiguration configuration,
-            Collection<Car> cars
+            Collection<Car> cars,
+            Dispatcher dispatcher,
+            Clock clock
+    ) {
+        this(configuration, cars, dispatcher, clock, new SimpleMeterRegistry());
+    }
+
+    public NonBlockingElevatorService(
+            UserDefinedElevatorConfiguration configuration,
+            Collection<Car> cars,
+            Dispatcher dispatcher,
+            Clock clock,
+            MeterRegistry meterRegistry
+    ) {
+        this(configuration, cars, dispatcher, clock, meterRegistry, new NoOpEventJournal());
+    }
+
+    /**
+     * Creates a service whose fleet can shrink but not grow.
+     */
+    public NonBlockingElevatorService(
+            UserDefinedElevatorConfiguration configuration,
+            Collection<Car> cars,
+            Dispatcher dispatcher,
+            Clock clock,
+            MeterRegistry meterRegistry,
+            EventJournal eventJournal
+    ) {
+        this(configuration, cars, dispatcher, clock, meterRegistry, eventJournal, elevatorType -> null);
+    }
+
+    /**
+     * @param clock the clock of the scheduler the cars run on, request wait and travel times are measured against it
+     * @param carFactory builds the cars added while running, on the same scheduler as the others
+     */
+    @Autowired
+    public NonBlockingElevatorService(
+            UserDefinedElevatorConfiguration configuration,
+            Collection<Car> cars,
+            Dispatcher dispatcher,
+            @Qualifier("serviceClock") Clock clock,
+            MeterRegistry meterRegistry,
+            EventJournal eventJournal,
+            CarFactory carFactory
     ) {
         this.configuration = configuration;
-        this.cars.addAll(cars);
+        this.numberOfFloors = configuration.getNumberOfFloors();
+        this.carFactory = carFactory;
+        this.dispatcher = dispatcher;
+        this.clock = clock;
+        this.idleCarParking = configuration.getParking().isEnabled() ?
+                new IdleCarParking(new DemandHistogram(configuration.getNumberOfFloors(), clock.getZone())) :
+                null;
+        this.serviceRequestIndex = new ServiceRequestIndex(
+                clock,
+                configuration.getStatus().getCapacity(),
+                configuration.getStatus().getRetention()
+        );
+        this.meterRegistry = meterRegistry;
+        this.eventJournal = eventJournal;
+
+        this.serviceRequestTimer = Timer.builder("elevator.service.request.wait")
+                .description("Time from a service request to a car cueing the rider")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.floorsRequestTimer = Timer.builder("elevator.floors.request.travel")
+                .description("Time from a floors request to the car stopping at each requested floor")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.dispatchTimer = Timer.builder("elevator.dispatch")
+                .description("Time the dispatcher takes to assign a service request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("elevator.service.requests.pending", pendingServiceRequests, FloorIndexedServiceRequestQueue::size)
+                .description("Service requests waiting for an available car")
+                .register(meterRegistry);
+        Gauge.builder("elevator.service.requests.indexed", serviceRequestIndex, ServiceRequestIndex::size)
+                .description("Service requests whose status can be queried")
+                .register(meterRegistry);
 
-        this.cars.forEach(car -> {
-            if (car instanceof EventPublisherCar queuedCar) {
-                queuedCar.setServiceRequestSupplier(pendingServiceRequests::poll);
-                queuedCar.setRiderCueEventConsumer(this::processRiderCue);
-                queuedCar.setCarStateEventConsumer(this::processCarState);
+        cars.forEach(this::attach);
+    }
+
+    private void attach(Car car) {
+        cars.add(car);
+        dispatchableCars.add(car);
+        if (car instanceof EventPublisherCar queuedCar) {
+            queuedCar.setNumberOfFloors(numberOfFloors);
+            queuedCar.setServiceRequestQueue(pendingServiceRequests);
+            queuedCar.setServiceRequestAcceptedConsumer(sre -> {
+                assignedServiceRequests.put(sre.id(), queuedCar);
+                serviceRequestIndex.assigned(sre, queuedCar);
+            });
+            queuedCar.setRiderCueEventConsumer(this::processRiderCue);
+            queuedCar.setCarStateEventConsumer(this::processCarState);
+            if (idleCarParking != null) {
+                queuedCar.setCarIdleConsumer(idleCar -> idleCarParking.parkIdleCar(idleCar, dispatchableCars, clock.instant()));
             }
-        });
+            registerStateMeters(queuedCar);
+        }
+    }
+
+    private void registerStateMeters(EventPublisherCar car) {
+        for (EventPublisherCar.State state : EventPublisherCar.State.values()) {
+            FunctionCounter.builder("elevator.car.state.time", car, c -> c.getTimeInState(state).toNanos() / 1e9)
+                    .description("Time the car has spent in each state")
+                    .baseUnit("seconds")
+                    .tag("car", car.getCarId())
+                    .tag("state", state.name())
+                    .register(meterRegistry);
+        }
     }
 
     @Override
     public int getNumberOfFloors() {
-        return configuration.getNumberOfFloors();
+        return numberOfFloors;
     }
 
     @Override
@@ -59,26 +243,294 @@ public class NonBlockingElevatorService implements ElevatorService {
     }
 
     @Override
-    @Async(value = "singleThreadedServiceScheduler")
     public void processServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent) {
-        log.info("thread: {}", Thread.currentThread().getName());
+        eventJournal.append(serviceRequestEvent);
+        serviceRequestIndex.requested(serviceRequestEvent);
+        recordDemand(serviceRequestEvent);
+        // the accepting car reports itself through its accepted consumer, whether it is dispatched now or later
+        final var car = dispatchTimer.record(() -> dispatcher.dispatch(serviceRequestEvent, dispatchableCars));
+        if (car == null) {
+            pendingServiceRequests.add(serviceRequestEvent);
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> processDestinationRequest(@NonNull DestinationRequestEvent destinationRequestEvent) {
+        eventJournal.append(destinationRequestEvent);
+        final var serviceRequestEvent = destinationRequestEvent.serviceRequestEvent();
+        serviceRequestIndex.requested(serviceRequestEvent);
+        recordDemand(serviceRequestEvent);
+        destinations.put(serviceRequestEvent.id(), destinationRequestEvent.destinationFloor());
+        final var car = dispatchTimer.record(() ->
+                dispatcher.dispatch(serviceRequestEvent, destinationRequestEvent.destinationFloor(), dispatchableCars));
+        if (car == null) {
+            pendingServiceRequests.add(serviceRequestEvent);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.completedFuture(car.getCarId());
+    }
+
+    private void recordDemand(ServiceRequestEvent serviceRequestEvent) {
+        final var now = clock.instant();
+        serviceRequestTimes.put(serviceRequestEvent.id(), now);
+        if (idleCarParking != null) {
+            idleCarParking.recordServiceRequest(serviceRequestEvent, now);
+        }
+    }
+
+    @Override
+    public void processFloorsRequest(@NonNull FloorsRequestEvent floorsRequestEvent) {
+        eventJournal.append(floorsRequestEvent);
+        applyFloorsRequest(floorsRequestEvent);
+    }
+
+    private void applyFloorsRequest(FloorsRequestEvent floorsRequestEvent) {
+        final var serviceRequestId = floorsRequestEvent.serviceRequestEvent().id();
+        final var car = assignedServiceRequests.get(serviceRequestId);
+        if (car == null || !car.processFloorsRequest(floorsRequestEvent)) {
+            log.warn("ignoring floors request for unknown service request: {}", serviceRequestId);
+            return;
+        }
+        assignedServiceRequests.remove(serviceRequestId);
+        // the car may have declined some floors, or all of them and gone available already
+        serviceRequestIndex.riding(
+                floorsRequestEvent.serviceRequestEvent(),
+                car.getCarId(),
+                floorsRequestEvent.requestedFloors().stream().filter(car::isStoppingAt).toList()
+        );
+
+        final var now = clock.instant();
+        final var times = floorsRequestTimes.computeIfAbsent(car.getCarId(), carId -> new HashMap<>());
+        for (Integer floor : floorsRequestEvent.requestedFloors()) {
+            times.computeIfAbsent(floor, f -> new ArrayList<>()).add(now);
+        }
+    }
+
+    @Override
+    public void processBatch(
+            @NonNull Collection<ServiceRequestEvent> serviceRequestEvents,
+            @NonNull Collection<FloorsRequestEvent> floorsRequestEvents
+    ) {
+        floorsRequestEvents.forEach(this::processFloorsRequest);
+        serviceRequestEvents.forEach(this::processServiceRequest);
+    }
+
+    @Override
+    public CompletableFuture<String> addCar(@NonNull String elevatorType) {
+        final var car = carFactory.createCar(elevatorType);
+        if (car == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        eventJournal.append(FleetChangeEvent.carAdded(car.getCarId(), elevatorType));
+        attach(car);
+        log.info("added car: {}", car.getCarId());
+
+        // the calls waiting for an available car may go to the new one
+        final var pending = pendingServiceRequests.toList();
+        pendingServiceRequests.clear();
+        redispatch(pending);
+        return CompletableFuture.completedFuture(car.getCarId());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> drainCar(@NonNull String carId) {
+        final var car = findCar(carId);
+        if (car == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!drainingCars.add(carId)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        eventJournal.append(FleetChangeEvent.carDrained(carId));
+        dispatchableCars.remove(car);
+        if (idleCarParking != null) {
+            idleCarParking.removeCar(carId);
+        }
+        if (car instanceof EventPublisherCar eventPublisherCar) {
+            eventPublisherCar.setServiceRequestQueue(null);
+            eventPublisherCar.setCarIdleConsumer(null);
+            final var released = eventPublisherCar.releaseServiceRequests();
+            released.forEach(sre -> {
+                assignedServiceRequests.remove(sre.id());
+                serviceRequestIndex.released(sre, carId);
+            });
+            redispatch(released);
+            log.info("draining car: {}, released {} service requests", carId, released.size());
+        }
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeCar(@NonNull String carId) {
+        final var car = findCar(carId);
+        if (car == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!drainingCars.contains(carId)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("car not drained: " + carId));
+        }
+        if (car instanceof EventPublisherCar eventPublisherCar) {
+            if (eventPublisherCar.getState() != AVAILABLE) {
+                return CompletableFuture.failedFuture(new IllegalStateException("car still busy: " + carId));
+            }
+            eventPublisherCar.setServiceRequestAcceptedConsumer(null);
+            eventPublisherCar.setRiderCueEventConsumer(null);
+            eventPublisherCar.setCarStateEventConsumer(null);
+            meterRegistry.find("elevator.car.state.time").tag("car", carId).meters().forEach(meterRegistry::remove);
+        }
+        eventJournal.append(FleetChangeEvent.carRemoved(carId));
+        cars.remove(car);
+        drainingCars.remove(carId);
+        floorsRequestTimes.remove(carId);
+        log.info("removed car: {}", carId);
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Void> setNumberOfFloors(int numberOfFloors) {
+        if (numberOfFloors < 1) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("a building needs a floor above the lobby: " + numberOfFloors));
+        }
+        final var stranded = strandedAbove(numberOfFloors);
+        if (stranded != null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(stranded));
+        }
+        eventJournal.append(FleetChangeEvent.floorsChanged(numberOfFloors));
+        this.numberOfFloors = numberOfFloors;
+        for (Car car : cars) {
+            if (car instanceof EventPublisherCar eventPublisherCar) {
+                eventPublisherCar.setNumberOfFloors(numberOfFloors);
+                if (eventPublisherCar.getCurrentFloor() > numberOfFloors) {
+                    // idle above the new top floor, bring it back into the building
+                    eventPublisherCar.park(numberOfFloors);
+                }
+            }
+        }
+        if (idleCarParking != null) {
+            idleCarParking.resize(numberOfFloors);
+        }
+        log.info("building resized to {} floors", numberOfFloors);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * @return why the building cannot shrink to the top floor, or {@code null} if no call, stop or busy car is above
+     * it
+     */
+    @Nullable
+    private String strandedAbove(int topFloor) {
+        if (topFloor >= numberOfFloors) {
+            return null;
+        }
+        for (ServiceRequestEvent serviceRequestEvent : pendingServiceRequests.toList()) {
+            if (serviceRequestEvent.originationFloor() > topFloor) {
+                return "queued call from floor " + serviceRequestEvent.originationFloor();
+            }
+        }
+        for (Integer destinationFloor : destinations.values()) {
+            if (destinationFloor > topFloor) {
+                return "destination call to floor " + destinationFloor;
+            }
+        }
+        for (Car car : cars) {
+            for (int floor = topFloor + 1; floor <= numberOfFloors; floor++) {
+                if (car.isStoppingAt(floor)) {
+                    return "car: " + car.getCarId() + " stopping at floor " + floor;
+                }
+            }
+            if (car instanceof EventPublisherCar eventPublisherCar &&
+                    eventPublisherCar.getState() != AVAILABLE &&
+                    eventPublisherCar.getCurrentFloor() > topFloor) {
+                return "car: " + car.getCarId() + " busy at floor " + eventPublisherCar.getCurrentFloor();
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private Car findCar(String carId) {
         for (Car car : cars) {
-            if (car.processServiceRequest(serviceRequestEvent)) {
-                return;
+            if (car.getCarId().equals(carId)) {
+                return car;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Dispatches calls that were already journaled and timed once more, queueing those no car takes.
+     */
+    private void redispatch(Collection<ServiceRequestEvent> serviceRequestEvents) {
+        for (ServiceRequestEvent serviceRequestEvent : serviceRequestEvents) {
+            final var destination = destinations.get(serviceRequestEvent.id());
+            final var car = destination == null ?
+                    dispatcher.dispatch(serviceRequestEvent, dispatchableCars) :
+                    dispatcher.dispatch(serviceRequestEvent, destination, dispatchableCars);
+            if (car == null) {
+                pendingServiceRequests.add(serviceRequestEvent);
             }
         }
-        pendingServiceRequests.add(serviceRequestEvent);
     }
 
     @Override
-    @Async(value = "singleThreadedServiceScheduler")
-    public void processFloorsRequest(@NonNull FloorsRequestEvent floorsRequestEvent) {
+    public FleetSnapshot snapshot(@NonNull Instant now) {
+        final List<CarSnapshot> carSnapshots = new ArrayList<>(cars.size());
         for (Car car : cars) {
-            if (car.processFloorsRequest(floorsRequestEvent)) {
-                return;
+            if (car instanceof EventPublisherCar eventPublisherCar) {
+                carSnapshots.add(eventPublisherCar.snapshot());
             }
         }
-        throw new IllegalStateException("floors request without matching service request");
+        return new FleetSnapshot(now, eventJournal.getPosition(), carSnapshots, pendingServiceRequests.toList());
+    }
+
+    @Override
+    public void restore(@NonNull FleetSnapshot snapshot) {
+        final Map<String, EventPublisherCar> carsById = new HashMap<>();
+        cars.forEach(car -> {
+            if (car instanceof EventPublisherCar eventPublisherCar) {
+                carsById.put(car.getCarId(), eventPublisherCar);
+            }
+        });
+        final var carIds = snapshot.cars().stream().map(CarSnapshot::carId).collect(Collectors.toSet());
+        if (!carIds.equals(carsById.keySet())) {
+            throw new IllegalArgumentException("snapshot of a different fleet: " + carIds);
+        }
+
+        serviceRequestIndex.clear();
+        for (CarSnapshot carSnapshot : snapshot.cars()) {
+            final var car = carsById.get(carSnapshot.carId());
+            car.restore(carSnapshot);
+            carSnapshot.serviceRequests().forEach(sre -> {
+                assignedServiceRequests.put(sre.id(), car);
+                serviceRequestIndex.requested(sre);
+                serviceRequestIndex.assigned(sre, car);
+            });
+        }
+        pendingServiceRequests.clear();
+        snapshot.pendingServiceRequests().forEach(sre -> {
+            pendingServiceRequests.add(sre);
+            serviceRequestIndex.requested(sre);
+        });
+
+        // requests the snapshot does not carry are never going to be cued, the floors requested before it are unknown
+        final Set<UUID> restoredIds = new HashSet<>();
+        snapshot.cars().forEach(carSnapshot -> carSnapshot.serviceRequests().forEach(sre -> restoredIds.add(sre.id())));
+        snapshot.pendingServiceRequests().forEach(sre -> restoredIds.add(sre.id()));
+        serviceRequestTimes.keySet().retainAll(restoredIds);
+        destinations.keySet().retainAll(restoredIds);
+        floorsRequestTimes.clear();
+    }
+
+    @Override
+    public boolean isActiveServiceRequest(@NonNull UUID serviceRequestId) {
+        return assignedServiceRequests.containsKey(serviceRequestId);
+    }
+
+    @Override
+    @Nullable
+    public ServiceRequestStatus getServiceRequestStatus(@NonNull UUID serviceRequestId) {
+        return serviceRequestIndex.get(serviceRequestId);
     }
 
     @Override
@@ -92,10 +544,43 @@ public class NonBlockingElevatorService implements ElevatorService {
     }
 
     private void processRiderCue(@NonNull RiderCueEvent riderCueEvent) {
+        eventJournal.append(riderCueEvent);
+        serviceRequestIndex.cued(riderCueEvent.serviceRequestEvent(), riderCueEvent.carId());
+        final var requested = serviceRequestTimes.remove(riderCueEvent.serviceRequestEvent().id());
+        if (requested != null) {
+            serviceRequestTimer.record(Duration.between(requested, clock.instant()));
+        }
         riderCueListeners.forEach(listener -> listener.handleRiderCue(riderCueEvent));
+
+        // a destination call selects its floor as soon as the doors open, replaying the call reproduces it
+        final var destination = destinations.remove(riderCueEvent.serviceRequestEvent().id());
+        if (destination != null) {
+            applyFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(destination)));
+        }
     }
 
     private void processCarState(@NonNull CarStateEvent carStateEvent) {
+        eventJournal.append(carStateEvent);
+        final var car = findCar(carStateEvent.carName());
+        if (car != null) {
+            serviceRequestIndex.carChanged(
+                    car,
+                    MOVING.name().equals(carStateEvent.status()) ? -1 : carStateEvent.currentFloor(),
+                    AVAILABLE.name().equals(carStateEvent.status())
+            );
+        }
+        final var times = floorsRequestTimes.get(carStateEvent.carName());
+        if (times != null && !MOVING.name().equals(carStateEvent.status())) {
+            final var arrived = times.remove(carStateEvent.currentFloor());
+            if (arrived != null) {
+                final var now = clock.instant();
+                arrived.forEach(requested -> floorsRequestTimer.record(Duration.between(requested, now)));
+            }
+            if (AVAILABLE.name().equals(carStateEvent.status())) {
+                // the trip is over, any floor the car declined is never going to be reached
+                floorsRequestTimes.remove(carStateEvent.carName());
+            }
+        }
         carStateListeners.forEach(listener -> listener.handleCarState(carStateEvent));
     }
 
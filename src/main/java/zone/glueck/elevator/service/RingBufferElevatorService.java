@@ -0,0 +1,354 @@
+package zone.glueck.elevator.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.journal.FleetSnapshot;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands requests from the API threads to the service thread through a preallocated ring of slots. Producers claim a
+ * sequence, fill the slot and publish it; a single drain task on the service thread runs everything published, in
+ * order, straight into the {@link NonBlockingElevatorService}. A drain task is only submitted when the ring goes from
+ * idle to busy, so a burst of requests costs one executor hop instead of one per request, and the cars' own timers on
+ * the same thread still interleave between drains.
+ * <p>
+ * When the ring is full, producers wait for the service thread to catch up instead of queueing without bound. Never
+ * publish from the service thread itself. Everything other than requests is delegated as is.
+ */
+@Primary
+@Service
+public class RingBufferElevatorService implements ElevatorService, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBufferElevatorService.class);
+
+    /**
+     * The most requests one drain task runs before yielding the service thread to car timers.
+     */
+    private static final int MAX_DRAIN = 256;
+
+    private final ElevatorService delegate;
+
+    private final Executor executor;
+
+    private final Slot[] slots;
+
+    private final int mask;
+
+    /**
+     * The next sequence a producer will claim.
+     */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * Every sequence below this has been run and its slot can be reused.
+     */
+    private final AtomicLong consumed = new AtomicLong();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final Runnable drainTask = this::drain;
+
+    @Autowired
+    public RingBufferElevatorService(
+            NonBlockingElevatorService delegate,
+            @Qualifier("singleThreadedServiceScheduler") Executor executor,
+            UserDefinedElevatorConfiguration configuration
+    ) {
+        this((ElevatorService) delegate, executor, configuration.getInboundRingSize());
+    }
+
+    /**
+     * @param delegate the service to run requests on, it is only ever called from the executor
+     * @param executor a single threaded executor
+     * @param capacity the number of slots, rounded up to a power of two
+     */
+    RingBufferElevatorService(ElevatorService delegate, Executor executor, int capacity) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.slots = new Slot[Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1)];
+        this.mask = slots.length - 1;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(i - slots.length);
+        }
+    }
+
+    @Override
+    public void processServiceRequest(@NonNull ServiceRequestEvent serviceRequestEvent) {
+        publish(serviceRequestEvent);
+    }
+
+    @Override
+    public void processFloorsRequest(@NonNull FloorsRequestEvent floorsRequestEvent) {
+        publish(floorsRequestEvent);
+    }
+
+    @Override
+    public CompletableFuture<String> processDestinationRequest(@NonNull DestinationRequestEvent destinationRequestEvent) {
+        final var assignment = new DestinationRequest(destinationRequestEvent, new CompletableFuture<>());
+        publish(assignment);
+        return assignment.carId();
+    }
+
+    @Override
+    public void processBatch(
+            @NonNull Collection<ServiceRequestEvent> serviceRequestEvents,
+            @NonNull Collection<FloorsRequestEvent> floorsRequestEvents
+    ) {
+        publish(new Batch(serviceRequestEvents, floorsRequestEvents));
+    }
+
+    @Override
+    public CompletableFuture<String> addCar(@NonNull String elevatorType) {
+        return publish(service -> service.addCar(elevatorType));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> drainCar(@NonNull String carId) {
+        return publish(service -> service.drainCar(carId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeCar(@NonNull String carId) {
+        return publish(service -> service.removeCar(carId));
+    }
+
+    @Override
+    public CompletableFuture<Void> setNumberOfFloors(int numberOfFloors) {
+        return publish(service -> service.setNumberOfFloors(numberOfFloors));
+    }
+
+    /**
+     * Fleet changes take their turn with the requests, so every request sees the fleet as of its place in the ring.
+     */
+    private <T> CompletableFuture<T> publish(Function<ElevatorService, CompletableFuture<T>> change) {
+        final var fleetChange = new FleetChange<>(change, new CompletableFuture<>());
+        publish(fleetChange);
+        return fleetChange.result();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry meterRegistry) {
+        Gauge.builder("elevator.inbound.backlog", this, RingBufferElevatorService::getBacklog)
+                .description("Requests published to the service thread but not yet run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of requests published but not yet run
+     */
+    public long getBacklog() {
+        return claimed.get() - consumed.get();
+    }
+
+    private void publish(Object request) {
+        final var sequence = claim();
+        final var slot = slots[(int) sequence & mask];
+        slot.request = request;
+        slot.sequence = sequence;
+        if (!draining.get() && draining.compareAndSet(false, true)) {
+            submitDrain();
+        }
+    }
+
+    /**
+     * Submits the drain task, which must only be called while {@link #draining} is set. If the executor rejects it,
+     * for example while shutting down, the flag is cleared so that the next request tries again.
+     */
+    private void submitDrain() {
+        try {
+            executor.execute(drainTask);
+        } catch (RuntimeException ex) {
+            draining.set(false);
+            throw ex;
+        }
+    }
+
+    private long claim() {
+        int spins = 0;
+        while (true) {
+            final var sequence = claimed.get();
+            if (sequence - consumed.get() >= slots.length) {
+                // full, wait for the service thread to free a slot
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(1_000L);
+                }
+            } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void drain() {
+        var next = consumed.get();
+        for (int i = 0; i < MAX_DRAIN; i++) {
+            final var slot = slots[(int) next & mask];
+            if (slot.sequence != next) {
+                break;
+            }
+            final var request = slot.request;
+            slot.request = null;
+            next++;
+            run(request);
+        }
+        consumed.set(next);
+
+        if (slots[(int) next & mask].sequence == next) {
+            // more to do, go to the back of the executor queue so due car timers run first
+            submitDrain();
+            return;
+        }
+        draining.set(false);
+        // a producer may have published after the check above but seen the drain still running
+        if (slots[(int) next & mask].sequence == next && draining.compareAndSet(false, true)) {
+            submitDrain();
+        }
+    }
+
+    private void run(Object request) {
+        try {
+            switch (request) {
+                case ServiceRequestEvent serviceRequestEvent -> delegate.processServiceRequest(serviceRequestEvent);
+                case FloorsRequestEvent floorsRequestEvent -> delegate.processFloorsRequest(floorsRequestEvent);
+                case Batch batch -> delegate.processBatch(batch.serviceRequestEvents(), batch.floorsRequestEvents());
+                case DestinationRequest destinationRequest -> delegate
+                        .processDestinationRequest(destinationRequest.destinationRequestEvent())
+                        .whenComplete((carId, ex) -> {
+                            if (ex == null) {
+                                destinationRequest.carId().complete(carId);
+                            } else {
+                                destinationRequest.carId().completeExceptionally(ex);
+                            }
+                        });
+                case FleetChange<?> fleetChange -> fleetChange.run(delegate);
+                default -> throw new IllegalStateException("unexpected request: " + request);
+            }
+        } catch (RuntimeException ex) {
+            log.error("failed to process {}", request, ex);
+            if (request instanceof DestinationRequest destinationRequest) {
+                destinationRequest.carId().completeExceptionally(ex);
+            } else if (request instanceof FleetChange<?> fleetChange) {
+                fleetChange.result().completeExceptionally(ex);
+            }
+        }
+    }
+
+    @Override
+    public int getNumberOfFloors() {
+        return delegate.getNumberOfFloors();
+    }
+
+    @Override
+    public List<String> getElevatorNames() {
+        return delegate.getElevatorNames();
+    }
+
+    @Override
+    public boolean isActiveServiceRequest(@NonNull UUID serviceRequestId) {
+        return delegate.isActiveServiceRequest(serviceRequestId);
+    }
+
+    @Override
+    public ServiceRequestStatus getServiceRequestStatus(@NonNull UUID serviceRequestId) {
+        return delegate.getServiceRequestStatus(serviceRequestId);
+    }
+
+    @Override
+    public FleetSnapshot snapshot(@NonNull Instant now) {
+        return delegate.snapshot(now);
+    }
+
+    @Override
+    public void restore(@NonNull FleetSnapshot snapshot) {
+        delegate.restore(snapshot);
+    }
+
+    @Override
+    public void addRiderCueListener(@NonNull RiderCueListener riderCueListener) {
+        delegate.addRiderCueListener(riderCueListener);
+    }
+
+    @Override
+    public void addCarStateListener(@NonNull CarStateListener carStateListener) {
+        delegate.addCarStateListener(carStateListener);
+    }
+
+    @Override
+    public UserDefinedElevatorConfiguration getConfiguration() {
+        return delegate.getConfiguration();
+    }
+
+    /**
+     * One entry of the ring. The request is written before the sequence, which publishes it to the service thread.
+     */
+    private static final class Slot {
+
+        private Object request;
+
+        private volatile long sequence;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private record Batch(
+            Collection<ServiceRequestEvent> serviceRequestEvents,
+            Collection<FloorsRequestEvent> floorsRequestEvents
+    ) {
+
+    }
+
+    /**
+     * @param carId completed on the service thread once the call is dispatched
+     */
+    private record DestinationRequest(
+            DestinationRequestEvent destinationRequestEvent,
+            CompletableFuture<String> carId
+    ) {
+
+    }
+
+    /**
+     * @param result completed on the service thread once the fleet has changed
+     */
+    private record FleetChange<T>(
+            Function<ElevatorService, CompletableFuture<T>> change,
+            CompletableFuture<T> result
+    ) {
+
+        private void run(ElevatorService elevatorService) {
+            change.apply(elevatorService).whenComplete((value, ex) -> {
+                if (ex == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The latest {@link ServiceRequestStatus} of every recent service request, so a client can poll for its own request
+ * instead of following every event in the building. Requests are dropped oldest first once there are more than the
+ * capacity, or once they have not changed for the retention period.
+ * <p>
+ * Only the service thread updates the index, {@link #get(UUID)} may be called from any thread.
+ */
+public class ServiceRequestIndex {
+
+    private final Clock clock;
+
+    private final int capacity;
+
+    private final Duration retention;
+
+    private final Map<UUID, ServiceRequestStatus> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Every indexed request in the order it came in, the next one to evict first.
+     */
+    private final Queue<UUID> arrivalOrder = new ArrayDeque<>();
+
+    /**
+     * The origination floor of every request each car is on its way to, to update the expected arrivals as it moves.
+     */
+    private final Map<String, Map<UUID, Integer>> assignedByCar = new HashMap<>();
+
+    /**
+     * The requested floors each car has yet to stop at, by request.
+     */
+    private final Map<String, Map<UUID, Set<Integer>>> ridingByCar = new HashMap<>();
+
+    /**
+     * @param clock the service clock, which ages the requests
+     * @param capacity the most requests to keep
+     * @param retention how long to keep a request after its last change
+     */
+    public ServiceRequestIndex(@NonNull Clock clock, int capacity, @NonNull Duration retention) {
+        this.clock = clock;
+        this.capacity = capacity;
+        this.retention = retention;
+    }
+
+    /**
+     * @return the status of the request, or {@code null} if it is unknown or has been evicted
+     */
+    @Nullable
+    public ServiceRequestStatus get(@NonNull UUID serviceRequestId) {
+        final var status = statuses.get(serviceRequestId);
+        if (status == null || isExpired(status, clock.instant())) {
+            return null;
+        }
+        return status;
+    }
+
+    public int size() {
+        return statuses.size();
+    }
+
+    /**
+     * Indexes a new request as pending, evicting the oldest requests to make room.
+     */
+    public void requested(@NonNull ServiceRequestEvent serviceRequestEvent) {
+        final var now = clock.instant();
+        evict(now);
+        if (statuses.put(serviceRequestEvent.id(), status(serviceRequestEvent.id(), ServiceRequestStatus.State.PENDING, null, null, now)) == null) {
+            arrivalOrder.add(serviceRequestEvent.id());
+        }
+    }
+
+    /**
+     * Marks the request as answered by the car, expected at the origination floor as the car estimates it.
+     */
+    public void assigned(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull Car car) {
+        final var now = clock.instant();
+        if (update(serviceRequestEvent.id(), ServiceRequestStatus.State.ASSIGNED, car.getCarId(), expectedArrival(car, serviceRequestEvent.originationFloor(), now), now)) {
+            assignedByCar.computeIfAbsent(car.getCarId(), carId -> new HashMap<>())
+                    .put(serviceRequestEvent.id(), serviceRequestEvent.originationFloor());
+        }
+    }
+
+    /**
+     * Marks a request its car gave up as pending again.
+     */
+    public void released(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull String carId) {
+        forget(carId, serviceRequestEvent.id());
+        update(serviceRequestEvent.id(), ServiceRequestStatus.State.PENDING, null, null, clock.instant());
+    }
+
+    public void cued(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull String carId) {
+        forget(carId, serviceRequestEvent.id());
+        update(serviceRequestEvent.id(), ServiceRequestStatus.State.CUED, carId, null, clock.instant());
+    }
+
+    /**
+     * Marks the rider as aboard, on the way to the requested floors, or the trip as completed if there are none.
+     * @param floors the requested floors the car is going to stop at
+     */
+    public void riding(@NonNull ServiceRequestEvent serviceRequestEvent, @NonNull String carId, @NonNull Collection<Integer> floors) {
+        final var id = serviceRequestEvent.id();
+        if (!statuses.containsKey(id)) {
+            return;
+        }
+        final var remainingFloors = new HashSet<>(floors);
+        final var state = remainingFloors.isEmpty() ? ServiceRequestStatus.State.COMPLETED : ServiceRequestStatus.State.IN_TRANSIT;
+        statuses.put(id, new ServiceRequestStatus(id, state, carId, null, Set.copyOf(remainingFloors), clock.instant()));
+        if (!remainingFloors.isEmpty()) {
+            ridingByCar.computeIfAbsent(carId, c -> new HashMap<>()).put(id, remainingFloors);
+        }
+    }
+
+    /**
+     * Updates the requests of a car that stopped or moved on: the expected arrivals of those it is on its way to, and
+     * the remaining floors of those aboard. Once the car is available, every trip aboard is over.
+     * @param car the car
+     * @param stoppedAt the floor the car opened its doors at, or {@code -1} if it is moving
+     * @param available {@code true} if the car has run out of work
+     */
+    public void carChanged(@NonNull Car car, int stoppedAt, boolean available) {
+        final var now = clock.instant();
+        final var assigned = assignedByCar.get(car.getCarId());
+        if (assigned != null) {
+            assigned.forEach((id, floor) -> statuses.computeIfPresent(id, (i, status) ->
+                    status(id, status.state(), status.carId(), expectedArrival(car, floor, now), now)));
+        }
+
+        final var riding = ridingByCar.get(car.getCarId());
+        if (riding == null) {
+            return;
+        }
+        final var iterator = riding.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final var entry = iterator.next();
+            final var remainingFloors = entry.getValue();
+            if (!remainingFloors.remove(stoppedAt) && !available) {
+                continue;
+            }
+            // floors the car declined are never reached, the trip is over once it has nothing left to do
+            final var completed = remainingFloors.isEmpty() || available;
+            statuses.computeIfPresent(entry.getKey(), (id, status) -> new ServiceRequestStatus(
+                    id,
+                    completed ? ServiceRequestStatus.State.COMPLETED : ServiceRequestStatus.State.IN_TRANSIT,
+                    status.carId(),
+                    null,
+                    completed ? Set.of() : Set.copyOf(remainingFloors),
+                    now
+            ));
+            if (completed) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forgets every request, e.g. when the fleet is restored.
+     */
+    public void clear() {
+        statuses.clear();
+        arrivalOrder.clear();
+        assignedByCar.clear();
+        ridingByCar.clear();
+    }
+
+    private boolean update(UUID id, ServiceRequestStatus.State state, @Nullable String carId, @Nullable Instant expectedArrival, Instant now) {
+        return statuses.computeIfPresent(id, (i, status) -> status(id, state, carId, expectedArrival, now)) != null;
+    }
+
+    private void forget(String carId, UUID id) {
+        final var assigned = assignedByCar.get(carId);
+        if (assigned != null) {
+            assigned.remove(id);
+        }
+    }
+
+    private void evict(Instant now) {
+        while (!arrivalOrder.isEmpty()) {
+            final var oldest = statuses.get(arrivalOrder.peek());
+            if (oldest != null && statuses.size() < capacity && !isExpired(oldest, now)) {
+                return;
+            }
+            final var id = arrivalOrder.remove();
+            statuses.remove(id);
+            if (oldest != null && oldest.carId() != null) {
+                forget(oldest.carId(), id);
+                final var riding = ridingByCar.get(oldest.carId());
+                if (riding != null) {
+                    riding.remove(id);
+                }
+            }
+        }
+    }
+
+    private boolean isExpired(ServiceRequestStatus status, Instant now) {
+        return status.updatedAt().plus(retention).isBefore(now);
+    }
+
+    @Nullable
+    private static Instant expectedArrival(Car car, int floor, Instant now) {
+        final var estimate = car.estimateTimeToStop(floor);
+        return estimate == null ? null : now.plus(estimate);
+    }
+
+    private static ServiceRequestStatus status(
+            UUID id,
+            ServiceRequestStatus.State state,
+            @Nullable String carId,
+            @Nullable Instant expectedArrival,
+            Instant now
+    ) {
+        return new ServiceRequestStatus(id, state, carId, expectedArrival, Set.of(), now);
+    }
+
+}
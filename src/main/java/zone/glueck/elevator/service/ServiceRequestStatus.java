@@ -0,0 +1,52 @@
+package zone.glueck.elevator.service;
+
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Where a service request stands, as of its last change.
+ * @param id the id of the service request
+ * @param state how far the request has come
+ * @param carId the car answering the request, {@code null} while it is pending
+ * @param expectedArrival when the assigned car is expected at the origination floor, {@code null} unless assigned and
+ *                        the car has started towards it
+ * @param remainingFloors the requested floors the car has not stopped at yet, empty until the rider selects floors
+ * @param updatedAt when the state last changed, on the service clock
+ */
+public record ServiceRequestStatus(
+        @NonNull UUID id,
+        @NonNull State state,
+        @Nullable String carId,
+        @Nullable Instant expectedArrival,
+        @NonNull Set<Integer> remainingFloors,
+        @NonNull Instant updatedAt
+) {
+
+    public enum State {
+        /**
+         * Waiting for a car to become available.
+         */
+        PENDING,
+        /**
+         * A car has accepted the request and is on its way.
+         */
+        ASSIGNED,
+        /**
+         * The car is at the origination floor waiting for the rider to select floors.
+         */
+        CUED,
+        /**
+         * The rider is aboard, on the way to the requested floors.
+         */
+        IN_TRANSIT,
+        /**
+         * The car has stopped at every requested floor it accepted.
+         */
+        COMPLETED
+    }
+
+}
@@ -0,0 +1,135 @@
+package zone.glueck.elevator.simulation;
+
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The aggregated outcome of the replicas a {@link SimulationEvaluator} ran for one candidate building.
+ * @param name the candidate's name
+ * @param pattern the traffic pattern that was simulated
+ * @param replicas the number of replicas aggregated
+ * @param passengersGenerated the mean number of passengers arriving per replica
+ * @param passengersDelivered the mean number of passengers delivered per replica
+ * @param averageWaitTime the estimated average wait time
+ * @param waitTimePercentiles the estimated wait time of each of {@link SimulationEvaluator#PERCENTILES}
+ */
+public record EvaluationReport(
+        @NonNull String name,
+        @NonNull TrafficPattern pattern,
+        int replicas,
+        double passengersGenerated,
+        double passengersDelivered,
+        @NonNull Estimate averageWaitTime,
+        @NonNull Map<Double, Estimate> waitTimePercentiles
+) {
+
+    /**
+     * Student's t at 97.5% for 1 to 30 degrees of freedom, for a two-sided 95% confidence interval.
+     */
+    private static final double[] T_975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    /**
+     * The normal approximation used beyond 30 degrees of freedom.
+     */
+    private static final double Z_975 = 1.96;
+
+    static EvaluationReport of(@NonNull String name, @NonNull TrafficPattern pattern, @NonNull List<TrafficReport> runs) {
+        final Map<Double, Estimate> percentiles = new HashMap<>();
+        for (double percentile : SimulationEvaluator.PERCENTILES) {
+            percentiles.put(percentile, Estimate.of(runs, run -> run.waitTimePercentile(percentile)));
+        }
+        return new EvaluationReport(
+                name,
+                pattern,
+                runs.size(),
+                runs.stream().mapToInt(TrafficReport::passengersGenerated).average().orElse(0.0),
+                runs.stream().mapToInt(TrafficReport::passengersDelivered).average().orElse(0.0),
+                Estimate.of(runs, TrafficReport::averageWaitTime),
+                Map.copyOf(percentiles)
+        );
+    }
+
+    /**
+     * @param percentile one of {@link SimulationEvaluator#PERCENTILES}
+     */
+    public Estimate waitTimePercentile(double percentile) {
+        final var estimate = waitTimePercentiles.get(percentile);
+        if (estimate == null) {
+            throw new IllegalArgumentException("percentile " + percentile + " not estimated");
+        }
+        return estimate;
+    }
+
+    /**
+     * @return a human readable summary with the confidence intervals of the wait time estimates
+     */
+    public String format() {
+        final var report = new StringBuilder()
+                .append("candidate: ").append(name).append(", pattern: ").append(pattern)
+                .append(", replicas: ").append(replicas).append('\n')
+                .append(String.format("passengers: %.1f delivered of %.1f%n", passengersDelivered, passengersGenerated))
+                .append("average wait: ").append(averageWaitTime.format()).append('\n');
+        for (double percentile : SimulationEvaluator.PERCENTILES) {
+            report.append(String.format("p%s wait: ", Math.round(percentile * 100)))
+                    .append(waitTimePercentile(percentile).format()).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * A mean across replicas and its 95% confidence interval.
+     * @param mean the mean of the replicas' values
+     * @param margin half the width of the confidence interval, zero for a single replica
+     */
+    public record Estimate(@NonNull Duration mean, @NonNull Duration margin) {
+
+        static Estimate of(List<TrafficReport> runs, Function<TrafficReport, Duration> value) {
+            final var seconds = runs.stream().mapToDouble(run -> value.apply(run).toNanos() / 1e9).toArray();
+            if (seconds.length == 0) {
+                return new Estimate(Duration.ZERO, Duration.ZERO);
+            }
+            var sum = 0.0;
+            for (double s : seconds) {
+                sum += s;
+            }
+            final var mean = sum / seconds.length;
+            if (seconds.length == 1) {
+                return new Estimate(duration(mean), Duration.ZERO);
+            }
+            var squares = 0.0;
+            for (double s : seconds) {
+                squares += (s - mean) * (s - mean);
+            }
+            final var degreesOfFreedom = seconds.length - 1;
+            final var standardError = Math.sqrt(squares / degreesOfFreedom / seconds.length);
+            final var t = degreesOfFreedom <= T_975.length ? T_975[degreesOfFreedom - 1] : Z_975;
+            return new Estimate(duration(mean), duration(t * standardError));
+        }
+
+        public Duration lower() {
+            return mean.minus(margin).isNegative() ? Duration.ZERO : mean.minus(margin);
+        }
+
+        public Duration upper() {
+            return mean.plus(margin);
+        }
+
+        String format() {
+            return String.format("%.1fs ± %.1fs", mean.toMillis() / 1000.0, margin.toMillis() / 1000.0);
+        }
+
+        private static Duration duration(double seconds) {
+            return Duration.ofNanos(Math.round(seconds * 1e9));
+        }
+    }
+
+}
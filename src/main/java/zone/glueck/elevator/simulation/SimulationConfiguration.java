@@ -0,0 +1,94 @@
+package zone.glueck.elevator.simulation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for a headless traffic simulation, which runs at startup when a pattern is set. With more than one replica
+ * or with candidate fleets the runs are evaluated in parallel by a {@link SimulationEvaluator}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "elevator.simulation")
+public class SimulationConfiguration {
+
+    private TrafficPattern pattern;
+
+    private double arrivalsPerMinute = 10.0;
+
+    private Duration duration = Duration.ofHours(1L);
+
+    private long seed = 1L;
+
+    private int replicas = 1;
+
+    /**
+     * The number of replicas run at once, the available processors when not positive.
+     */
+    private int parallelism;
+
+    /**
+     * Candidate fleets by name, each a list of elevator types run in the configured building instead of its own fleet.
+     */
+    private Map<String, List<String>> fleets = new LinkedHashMap<>();
+
+    public TrafficPattern getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(TrafficPattern pattern) {
+        this.pattern = pattern;
+    }
+
+    public double getArrivalsPerMinute() {
+        return arrivalsPerMinute;
+    }
+
+    public void setArrivalsPerMinute(double arrivalsPerMinute) {
+        this.arrivalsPerMinute = arrivalsPerMinute;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(int replicas) {
+        this.replicas = replicas;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public Map<String, List<String>> getFleets() {
+        return fleets;
+    }
+
+    public void setFleets(Map<String, List<String>> fleets) {
+        this.fleets = fleets;
+    }
+}
@@ -0,0 +1,87 @@
+package zone.glueck.elevator.simulation;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs many replicas of a {@link TrafficSimulation} for each of several candidate buildings in parallel on a fork-join
+ * pool and aggregates their wait times. Every replica builds its own virtual time scheduler, fleet and service, so
+ * replicas share nothing but the read-only configuration and scale with the cores of the pool.
+ * <p>
+ * Replica {@code i} of every candidate runs with the seed {@code seed + i}, so candidates are compared on the same
+ * passenger arrivals and their differences are not drowned out by the randomness of the traffic.
+ */
+public class SimulationEvaluator {
+
+    /**
+     * The wait time percentiles every {@link EvaluationReport} estimates.
+     */
+    static final List<Double> PERCENTILES = List.of(0.5, 0.9, 0.95, 0.99);
+
+    private final ForkJoinPool pool;
+
+    public SimulationEvaluator(@NonNull ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param candidates the buildings to evaluate, a configuration must not be changed while the evaluation runs
+     * @param pattern where passengers travel from and to
+     * @param arrivalsPerMinute the mean passenger arrival rate
+     * @param duration how long passengers keep arriving in each replica
+     * @param replicas the number of independent runs per candidate, at least two for a confidence interval
+     * @param seed the seed of the first replica, equal seeds produce equal reports
+     * @return a report per candidate, in candidate order
+     */
+    public List<EvaluationReport> evaluate(
+            @NonNull List<Candidate> candidates,
+            @NonNull TrafficPattern pattern,
+            double arrivalsPerMinute,
+            @NonNull Duration duration,
+            int replicas,
+            long seed
+    ) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("replicas " + replicas);
+        }
+        final List<List<ForkJoinTask<TrafficReport>>> runs = new ArrayList<>(candidates.size());
+        final List<ForkJoinTask<TrafficReport>> tasks = new ArrayList<>(candidates.size() * replicas);
+        for (Candidate candidate : candidates) {
+            final var simulation = new TrafficSimulation(candidate.configuration());
+            final List<ForkJoinTask<TrafficReport>> candidateRuns = new ArrayList<>(replicas);
+            for (int replica = 0; replica < replicas; replica++) {
+                final var replicaSeed = seed + replica;
+                candidateRuns.add(ForkJoinTask.adapt(() -> simulation.run(pattern, arrivalsPerMinute, duration, replicaSeed)));
+            }
+            runs.add(candidateRuns);
+            tasks.addAll(candidateRuns);
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+
+        final List<EvaluationReport> reports = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            reports.add(EvaluationReport.of(
+                    candidates.get(i).name(),
+                    pattern,
+                    runs.get(i).stream().map(ForkJoinTask::join).toList()
+            ));
+        }
+        return reports;
+    }
+
+    /**
+     * A building to evaluate.
+     * @param name how the candidate is called in its report
+     * @param configuration the floors, fleet and dispatcher of the building
+     */
+    public record Candidate(@NonNull String name, @NonNull UserDefinedElevatorConfiguration configuration) {
+
+    }
+
+}
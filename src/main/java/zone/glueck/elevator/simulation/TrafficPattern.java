@@ -0,0 +1,69 @@
+package zone.glueck.elevator.simulation;
+
+import java.util.Random;
+
+/**
+ * Classic building traffic patterns, expressed as the share of passengers travelling up from the lobby (incoming),
+ * down to the lobby (outgoing) and between two upper floors (interfloor). The lobby is floor zero.
+ */
+public enum TrafficPattern {
+
+    /**
+     * Morning arrivals, nearly everyone boards at the lobby.
+     */
+    UP_PEAK(0.85, 0.05),
+
+    /**
+     * Evening departures, nearly everyone heads for the lobby.
+     */
+    DOWN_PEAK(0.05, 0.85),
+
+    /**
+     * Midday, a mix of people leaving for and returning from lunch.
+     */
+    LUNCH(0.45, 0.45),
+
+    /**
+     * Meetings and errands, trips between random floors with no lobby bias.
+     */
+    INTERFLOOR(0.0, 0.0);
+
+    private final double incomingShare;
+
+    private final double outgoingShare;
+
+    TrafficPattern(double incomingShare, double outgoingShare) {
+        this.incomingShare = incomingShare;
+        this.outgoingShare = outgoingShare;
+    }
+
+    /**
+     * Draws a passenger's trip.
+     * @param random the simulation's random source
+     * @param numberOfFloors the top floor, the building must have at least one floor above the lobby
+     * @return the origination floor and destination floor, never equal
+     */
+    public Trip nextTrip(Random random, int numberOfFloors) {
+        final var draw = random.nextDouble();
+        if (draw < incomingShare) {
+            return new Trip(0, 1 + random.nextInt(numberOfFloors));
+        }
+        if (draw < incomingShare + outgoingShare) {
+            return new Trip(1 + random.nextInt(numberOfFloors), 0);
+        }
+
+        final var lowestFloor = this == INTERFLOOR ? 0 : 1;
+        final var floors = numberOfFloors - lowestFloor + 1;
+        if (floors < 2) {
+            return new Trip(0, numberOfFloors);
+        }
+        final var originationFloor = lowestFloor + random.nextInt(floors);
+        final var destinationFloor = lowestFloor + (originationFloor - lowestFloor + 1 + random.nextInt(floors - 1)) % floors;
+        return new Trip(originationFloor, destinationFloor);
+    }
+
+    public record Trip(int originationFloor, int destinationFloor) {
+
+    }
+
+}
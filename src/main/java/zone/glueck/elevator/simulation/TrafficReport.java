@@ -0,0 +1,82 @@
+package zone.glueck.elevator.simulation;
+
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of a {@link TrafficSimulation} run.
+ * @param pattern the traffic pattern that was simulated
+ * @param passengersGenerated every passenger that arrived at a hall
+ * @param passengersDelivered passengers that reached their destination floor
+ * @param waitTimes each boarded passenger's time from arriving at the hall to the car cueing them, sorted ascending
+ * @param journeyTimes each delivered passenger's time from arriving at the hall to reaching the destination, sorted ascending
+ * @param interval the width of each throughput and queue length bucket
+ * @param deliveredPerInterval passengers delivered in each interval
+ * @param waitingPerInterval passengers waiting at a hall at the end of each interval
+ */
+public record TrafficReport(
+        @NonNull TrafficPattern pattern,
+        int passengersGenerated,
+        int passengersDelivered,
+        @NonNull List<Duration> waitTimes,
+        @NonNull List<Duration> journeyTimes,
+        @NonNull Duration interval,
+        @NonNull List<Integer> deliveredPerInterval,
+        @NonNull List<Integer> waitingPerInterval
+) {
+
+    public Duration averageWaitTime() {
+        return average(waitTimes);
+    }
+
+    public Duration averageJourneyTime() {
+        return average(journeyTimes);
+    }
+
+    /**
+     * @param percentile between 0 and 1
+     * @return the wait time at the percentile, nearest rank
+     */
+    public Duration waitTimePercentile(double percentile) {
+        if (waitTimes.isEmpty()) {
+            return Duration.ZERO;
+        }
+        final var rank = (int) Math.ceil(percentile * waitTimes.size());
+        return waitTimes.get(Math.max(0, rank - 1));
+    }
+
+    /**
+     * @return a human readable summary with the throughput and queue length curves
+     */
+    public String format() {
+        final var report = new StringBuilder()
+                .append("pattern: ").append(pattern).append('\n')
+                .append("passengers: ").append(passengersDelivered).append(" delivered of ").append(passengersGenerated).append('\n')
+                .append("average wait: ").append(seconds(averageWaitTime())).append(", p95 wait: ").append(seconds(waitTimePercentile(0.95))).append('\n')
+                .append("average journey: ").append(seconds(averageJourneyTime())).append('\n')
+                .append(String.format("%8s %10s %8s%n", "minute", "delivered", "waiting"));
+        for (int i = 0; i < deliveredPerInterval.size(); i++) {
+            report.append(String.format(
+                    "%8d %10d %8d%n",
+                    interval.multipliedBy(i + 1).toMinutes(),
+                    deliveredPerInterval.get(i),
+                    i < waitingPerInterval.size() ? waitingPerInterval.get(i) : 0
+            ));
+        }
+        return report.toString();
+    }
+
+    private static Duration average(List<Duration> durations) {
+        if (durations.isEmpty()) {
+            return Duration.ZERO;
+        }
+        return durations.stream().reduce(Duration.ZERO, Duration::plus).dividedBy(durations.size());
+    }
+
+    private static String seconds(Duration duration) {
+        return String.format("%.1fs", duration.toMillis() / 1000.0);
+    }
+
+}
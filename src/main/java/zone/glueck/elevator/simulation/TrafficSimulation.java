@@ -0,0 +1,320 @@
+package zone.glueck.elevator.simulation;
+
+import org.springframework.lang.NonNull;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.configs.FleetFactory;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.service.NonBlockingElevatorService;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static zone.glueck.elevator.cars.EventPublisherCar.State.MOVING;
+
+/**
+ * Drives a configured building with generated passengers in virtual time. Passengers arrive at the halls as a Poisson
+ * process and behave like real riders: the first to arrive presses the hall button, everyone waiting boards when a car
+ * cues them and enters their destinations, and they leave the car when it stops at their floor. Riders who do not fit
+ * into the car press the hall button again and wait for the next one. So do riders the car would not take closer to
+ * their floor, like those left behind by an express car zoned elsewhere. Riders whose floor the car does not serve
+ * ride to the served floor closest to it, a sky lobby for example, and change cars there.
+ * <p>
+ * Every {@link #run} builds its own scheduler, fleet and service, so runs are independent of each other and of the
+ * live application.
+ */
+public class TrafficSimulation {
+
+    /**
+     * The time riders need to board and press their floor buttons after the car cues them.
+     */
+    static final Duration BOARDING_DURATION = Duration.ofSeconds(2L);
+
+    static final Duration REPORTING_INTERVAL = Duration.ofMinutes(5L);
+
+    /**
+     * How long the simulation keeps running after the last arrival to deliver the passengers still in the building.
+     */
+    static final Duration DRAIN_LIMIT = Duration.ofHours(1L);
+
+    private final UserDefinedElevatorConfiguration configuration;
+
+    public TrafficSimulation(@NonNull UserDefinedElevatorConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * @param pattern where passengers travel from and to
+     * @param arrivalsPerMinute the mean passenger arrival rate
+     * @param duration how long passengers keep arriving
+     * @param seed the random seed, equal seeds produce equal reports
+     */
+    public TrafficReport run(@NonNull TrafficPattern pattern, double arrivalsPerMinute, @NonNull Duration duration, long seed) {
+        return new Run(pattern, arrivalsPerMinute, duration, seed).execute();
+    }
+
+    private final class Run {
+
+        private final TrafficPattern pattern;
+
+        private final double arrivalsPerMinute;
+
+        private final Duration duration;
+
+        private final Random random;
+
+        private final VirtualTimeTaskScheduler scheduler = new VirtualTimeTaskScheduler();
+
+        private final Instant start = scheduler.now();
+
+        private final NonBlockingElevatorService service;
+
+        private final Map<String, Car> cars = new HashMap<>();
+
+        private final Map<Integer, HallCall> litButtons = new HashMap<>();
+
+        private final Map<UUID, HallCall> hallCalls = new HashMap<>();
+
+        private final Map<String, List<Rider>> riding = new HashMap<>();
+
+        private final List<Duration> waitTimes = new ArrayList<>();
+
+        private final List<Duration> journeyTimes = new ArrayList<>();
+
+        private final List<Integer> deliveredPerInterval = new ArrayList<>();
+
+        private final List<Integer> waitingPerInterval = new ArrayList<>();
+
+        private int generated;
+
+        private int waiting;
+
+        private int inFlight;
+
+        private Run(TrafficPattern pattern, double arrivalsPerMinute, Duration duration, long seed) {
+            this.pattern = pattern;
+            this.arrivalsPerMinute = arrivalsPerMinute;
+            this.duration = duration;
+            this.random = new Random(seed);
+
+            final var fleet = new FleetFactory(
+                    configuration.getCapacities(),
+                    configuration.isCollectiveControl(),
+                    configuration.getExpressZones()
+            ).createCars(configuration.getElevators(), scheduler);
+            fleet.forEach(car -> cars.put(car.getCarId(), car));
+            this.service = new NonBlockingElevatorService(
+                    configuration,
+                    fleet,
+                    FleetFactory.createDispatcher(configuration.getDispatcher()),
+                    scheduler.getClock()
+            );
+            service.addRiderCueListener(this::board);
+            service.addCarStateListener(this::alight);
+        }
+
+        private TrafficReport execute() {
+            final var end = start.plus(duration);
+            scheduleArrival(nextArrival(start), end);
+            scheduler.scheduleAtFixedRate(this::sample, start.plus(REPORTING_INTERVAL), REPORTING_INTERVAL);
+
+            scheduler.runUntil(end);
+            final var drainLimit = end.plus(DRAIN_LIMIT);
+            while (inFlight > 0 && scheduler.now().isBefore(drainLimit) && scheduler.runNext()) {
+                // deliver the passengers still in the building
+            }
+
+            final var intervals = (int) Math.ceil((double) Duration.between(start, scheduler.now()).toMillis() / REPORTING_INTERVAL.toMillis());
+            while (deliveredPerInterval.size() < intervals) {
+                deliveredPerInterval.add(0);
+            }
+            waitTimes.sort(null);
+            journeyTimes.sort(null);
+            return new TrafficReport(
+                    pattern,
+                    generated,
+                    journeyTimes.size(),
+                    List.copyOf(waitTimes),
+                    List.copyOf(journeyTimes),
+                    REPORTING_INTERVAL,
+                    List.copyOf(deliveredPerInterval),
+                    List.copyOf(waitingPerInterval)
+            );
+        }
+
+        private void scheduleArrival(Instant arrival, Instant end) {
+            if (arrival.isAfter(end)) {
+                return;
+            }
+            scheduler.schedule(() -> {
+                arrive(pattern.nextTrip(random, configuration.getNumberOfFloors()));
+                scheduleArrival(nextArrival(arrival), end);
+            }, arrival);
+        }
+
+        /**
+         * @return the next arrival of a Poisson process, exponentially distributed inter-arrival times
+         */
+        private Instant nextArrival(Instant previous) {
+            final var minutes = -Math.log(1.0 - random.nextDouble()) / arrivalsPerMinute;
+            return previous.plusNanos((long) (minutes * Duration.ofMinutes(1L).toNanos()));
+        }
+
+        private void arrive(TrafficPattern.Trip trip) {
+            generated++;
+            inFlight++;
+            waitAt(trip.originationFloor(), new Passenger(trip.destinationFloor(), scheduler.now(), false));
+        }
+
+        private void waitAt(int floor, Passenger passenger) {
+            waiting++;
+            final var direction = passenger.destinationFloor() > floor ? Direction.ASCENDING : Direction.DESCENDING;
+            final var button = floor * 2 + direction.ordinal();
+            final var hallCall = litButtons.get(button);
+            if (hallCall != null) {
+                hallCall.passengers().add(passenger);
+                return;
+            }
+            pressHallButton(button, direction, floor, new ArrayList<>(List.of(passenger)));
+        }
+
+        private void pressHallButton(int button, Direction direction, int floor, List<Passenger> passengers) {
+            final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), direction, floor);
+            final var hallCall = new HallCall(button, serviceRequestEvent, passengers);
+            litButtons.put(button, hallCall);
+            hallCalls.put(serviceRequestEvent.id(), hallCall);
+            service.processServiceRequest(serviceRequestEvent);
+        }
+
+        private void board(RiderCueEvent riderCueEvent) {
+            final var hallCall = hallCalls.remove(riderCueEvent.serviceRequestEvent().id());
+            if (hallCall == null) {
+                return;
+            }
+            litButtons.remove(hallCall.button());
+
+            final Set<Integer> destinations = new HashSet<>();
+            final var car = cars.get(riderCueEvent.carId());
+            final var aboard = riding.computeIfAbsent(riderCueEvent.carId(), carId -> new ArrayList<>());
+            final var room = Math.max(0, car.getCapacity() - aboard.size());
+            final var floor = hallCall.serviceRequestEvent().originationFloor();
+            final List<Passenger> leftBehind = new ArrayList<>();
+            var boarding = 0;
+            for (Passenger passenger : hallCall.passengers()) {
+                final var alightFloor = boarding < room ? alightFloor(car, floor, passenger.destinationFloor()) : -1;
+                if (alightFloor < 0) {
+                    leftBehind.add(passenger);
+                    continue;
+                }
+                if (!passenger.changingCars()) {
+                    waitTimes.add(Duration.between(passenger.arrivedAt(), scheduler.now()));
+                }
+                destinations.add(alightFloor);
+                aboard.add(new Rider(passenger, alightFloor));
+                boarding++;
+            }
+            waiting -= boarding;
+
+            final var floorsRequestEvent = new FloorsRequestEvent(hallCall.serviceRequestEvent(), destinations, boarding);
+            scheduler.schedule(
+                    () -> service.processFloorsRequest(floorsRequestEvent),
+                    scheduler.now().plus(BOARDING_DURATION)
+            );
+
+            if (!leftBehind.isEmpty()) {
+                final var serviceRequestEvent = hallCall.serviceRequestEvent();
+                pressHallButton(hallCall.button(), serviceRequestEvent.direction(), serviceRequestEvent.originationFloor(), leftBehind);
+            }
+        }
+
+        private void alight(CarStateEvent carStateEvent) {
+            final var riders = riding.get(carStateEvent.carName());
+            if (riders == null || MOVING.name().equals(carStateEvent.status())) {
+                return;
+            }
+
+            final List<Passenger> changingCars = new ArrayList<>();
+            final var iterator = riders.iterator();
+            while (iterator.hasNext()) {
+                final var rider = iterator.next();
+                final var passenger = rider.passenger();
+                if (rider.alightFloor() != carStateEvent.currentFloor()) {
+                    continue;
+                }
+                iterator.remove();
+                if (passenger.destinationFloor() != carStateEvent.currentFloor()) {
+                    changingCars.add(new Passenger(passenger.destinationFloor(), passenger.arrivedAt(), true));
+                } else {
+                    inFlight--;
+                    journeyTimes.add(Duration.between(passenger.arrivedAt(), scheduler.now()));
+                    final var interval = (int) (Duration.between(start, scheduler.now()).toMillis() / REPORTING_INTERVAL.toMillis());
+                    while (deliveredPerInterval.size() <= interval) {
+                        deliveredPerInterval.add(0);
+                    }
+                    deliveredPerInterval.set(interval, deliveredPerInterval.get(interval) + 1);
+                }
+            }
+            if (!changingCars.isEmpty()) {
+                // the car is still changing state, riders changing cars get to the hall once it is done
+                scheduler.schedule(
+                        () -> changingCars.forEach(passenger -> waitAt(carStateEvent.currentFloor(), passenger)),
+                        scheduler.now()
+                );
+            }
+        }
+
+        /**
+         * @return the rider's floor if the car serves it, otherwise the served floor closest to it on the way, or
+         * {@code -1} if the car would not take the rider any closer
+         */
+        private static int alightFloor(Car car, int originationFloor, int destinationFloor) {
+            final var towardsOrigin = destinationFloor > originationFloor ? -1 : 1;
+            for (int floor = destinationFloor; floor != originationFloor; floor += towardsOrigin) {
+                if (car.serves(floor)) {
+                    return floor;
+                }
+            }
+            return -1;
+        }
+
+        private void sample() {
+            waitingPerInterval.add(waiting);
+        }
+    }
+
+    /**
+     * @param arrivedAt when the passenger first arrived at a hall, their wait and journey times start then
+     * @param changingCars {@code true} once the passenger has left a car to take another one
+     */
+    private record Passenger(int destinationFloor, Instant arrivedAt, boolean changingCars) {
+
+    }
+
+    /**
+     * A passenger aboard a car and the floor they get off at.
+     */
+    private record Rider(Passenger passenger, int alightFloor) {
+
+    }
+
+    /**
+     * A lit hall button and everyone waiting for it.
+     */
+    private record HallCall(int button, ServiceRequestEvent serviceRequestEvent, List<Passenger> passengers) {
+
+    }
+
+}
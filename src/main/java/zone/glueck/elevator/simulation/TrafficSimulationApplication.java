@@ -0,0 +1,29 @@
+package zone.glueck.elevator.simulation;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+/**
+ * Runs the {@link TrafficSimulationRunner} on its own. Only the building and simulation settings are loaded, without a
+ * web server, SSE streams, journal or live fleet, so evaluating fleets opens no ports and leaves the production journal
+ * alone. Not a component, so the elevator service does not pick it up.
+ */
+@EnableConfigurationProperties
+@Import({UserDefinedElevatorConfiguration.class, SimulationConfiguration.class, TrafficSimulationRunner.class})
+public class TrafficSimulationApplication {
+
+    public static void main(String[] args) {
+        run(args);
+    }
+
+    static ConfigurableApplicationContext run(String... args) {
+        return new SpringApplicationBuilder(TrafficSimulationApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+}
@@ -0,0 +1,101 @@
+package zone.glueck.elevator.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the configured traffic simulation against the configured building at startup and logs the report. Started by
+ * {@link TrafficSimulationApplication}, never by the elevator service itself. Several replicas or candidate fleets are
+ * evaluated in parallel on a dedicated fork-join pool and logged with the confidence intervals of their wait times.
+ */
+public class TrafficSimulationRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficSimulationRunner.class);
+
+    private final UserDefinedElevatorConfiguration configuration;
+
+    private final SimulationConfiguration simulation;
+
+    public TrafficSimulationRunner(UserDefinedElevatorConfiguration configuration, SimulationConfiguration simulation) {
+        this.configuration = configuration;
+        this.simulation = simulation;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (simulation.getPattern() == null) {
+            throw new IllegalStateException("elevator.simulation.pattern not set");
+        }
+        if (simulation.getReplicas() > 1 || !simulation.getFleets().isEmpty()) {
+            evaluate();
+            return;
+        }
+        final var report = new TrafficSimulation(configuration).run(
+                simulation.getPattern(),
+                simulation.getArrivalsPerMinute(),
+                simulation.getDuration(),
+                simulation.getSeed()
+        );
+        log.info("traffic simulation of {} elevators over {} floors at {} arrivals per minute for {}\n{}",
+                configuration.getElevators(),
+                configuration.getNumberOfFloors(),
+                simulation.getArrivalsPerMinute(),
+                simulation.getDuration(),
+                report.format());
+    }
+
+    private void evaluate() {
+        final List<SimulationEvaluator.Candidate> candidates = new ArrayList<>();
+        if (simulation.getFleets().isEmpty()) {
+            candidates.add(new SimulationEvaluator.Candidate("configured", configuration));
+        }
+        simulation.getFleets().forEach((name, elevators) ->
+                candidates.add(new SimulationEvaluator.Candidate(name, withFleet(configuration, elevators))));
+
+        final var parallelism = simulation.getParallelism() > 0
+                ? simulation.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        try (var pool = new ForkJoinPool(parallelism)) {
+            final var reports = new SimulationEvaluator(pool).evaluate(
+                    candidates,
+                    simulation.getPattern(),
+                    simulation.getArrivalsPerMinute(),
+                    simulation.getDuration(),
+                    simulation.getReplicas(),
+                    simulation.getSeed()
+            );
+            for (EvaluationReport report : reports) {
+                log.info("traffic simulation of {} replicas over {} floors at {} arrivals per minute for {} on {} threads\n{}",
+                        report.replicas(),
+                        configuration.getNumberOfFloors(),
+                        simulation.getArrivalsPerMinute(),
+                        simulation.getDuration(),
+                        parallelism,
+                        report.format());
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the building settings with another fleet
+     */
+    static UserDefinedElevatorConfiguration withFleet(UserDefinedElevatorConfiguration configuration, List<String> elevators) {
+        final var candidate = new UserDefinedElevatorConfiguration();
+        candidate.setNumberOfFloors(configuration.getNumberOfFloors());
+        candidate.setElevators(List.copyOf(elevators));
+        candidate.setDispatcher(configuration.getDispatcher());
+        candidate.setCapacities(configuration.getCapacities());
+        candidate.setCollectiveControl(configuration.isCollectiveControl());
+        candidate.setExpressZones(configuration.getExpressZones());
+        candidate.getParking().setEnabled(configuration.getParking().isEnabled());
+        return candidate;
+    }
+
+}
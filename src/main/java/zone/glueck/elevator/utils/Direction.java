@@ -1,5 +1,9 @@
 package zone.glueck.elevator.utils;
 
 public enum Direction {
-    ASCENDING, DESCENDING
+    ASCENDING, DESCENDING;
+
+    public Direction opposite() {
+        return this == ASCENDING ? DESCENDING : ASCENDING;
+    }
 }
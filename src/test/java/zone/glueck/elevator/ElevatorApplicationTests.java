@@ -1,7 +1,16 @@
 package zone.glueck.elevator;
 
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class ElevatorApplicationTests {
@@ -10,4 +19,34 @@ class ElevatorApplicationTests {
 	void contextLoads() {
 	}
 
+	@Nested
+	@SpringBootTest(properties = "spring.threads.virtual.enabled=false")
+	class PlatformThreads {
+
+		@Autowired
+		private ApplicationContext context;
+
+		@Test
+		void testBroadcastsOnThreadPool() {
+			assertThat(context.getBeansOfType(Executor.class)).containsKey("sseBroadcastExecutor");
+			assertThat(context.getBean("sseBroadcastExecutor")).isInstanceOf(ThreadPoolTaskExecutor.class);
+			assertThat(context.containsBean("virtualSseBroadcastExecutor")).isFalse();
+		}
+	}
+
+	@Nested
+	@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+	class VirtualThreads {
+
+		@Autowired
+		private ApplicationContext context;
+
+		@Test
+		void testBroadcastsOnVirtualThreads() {
+			assertThat(context.getBean("sseBroadcastExecutor")).isInstanceOf(SimpleAsyncTaskExecutor.class);
+			assertThat(context.getBeansOfType(SimpleAsyncTaskExecutor.class)).hasSize(1);
+			assertThat(context.getBeansOfType(ThreadPoolTaskExecutor.class)).doesNotContainKey("sseBroadcastExecutor");
+		}
+	}
+
 }
@@ -0,0 +1,248 @@
+package zone.glueck.elevator.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import zone.glueck.elevator.api.models.RiderBatchRequest;
+import zone.glueck.elevator.api.models.RiderDestinationRequest;
+import zone.glueck.elevator.api.models.RiderFloorsRequest;
+import zone.glueck.elevator.api.models.RiderServiceRequest;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.service.CarStateListener;
+import zone.glueck.elevator.service.ElevatorService;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ElevatorControllerTest {
+
+    private static final int NUMBER_OF_FLOORS = 10;
+
+    @Mock
+    private ElevatorService elevatorService;
+
+    private ElevatorController controller;
+
+    @BeforeEach
+    void setup() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setMaxBatchSize(3);
+        lenient().when(elevatorService.getNumberOfFloors()).thenReturn(NUMBER_OF_FLOORS);
+        lenient().when(elevatorService.isActiveServiceRequest(any())).thenReturn(true);
+
+        final var sseEventEncoder = new SseEventEncoder(new ObjectMapper());
+        controller = new ElevatorController(
+                elevatorService,
+                new SseBroadcaster(Runnable::run, configuration),
+                sseEventEncoder,
+                new ReactiveEventStream(elevatorService, sseEventEncoder, configuration),
+                configuration
+        );
+    }
+
+    @Test
+    void testAcceptsAValidBatch() {
+        final var batch = batch(
+                List.of(serviceRequest(0), serviceRequest(NUMBER_OF_FLOORS)),
+                List.of(floorsRequest(UUID.randomUUID(), Set.of(0, NUMBER_OF_FLOORS)))
+        );
+
+        controller.createBatchRequest(batch);
+
+        assertThat(batch.getServiceRequests()).allSatisfy(request -> assertThat(request.getId()).isNotNull());
+        verify(elevatorService).processBatch(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void testRejectsBatchesLargerThanTheConfiguredSize() {
+        final var batch = batch(
+                List.of(serviceRequest(1), serviceRequest(2)),
+                List.of(floorsRequest(UUID.randomUUID(), Set.of(3)), floorsRequest(UUID.randomUUID(), Set.of(4)))
+        );
+
+        assertRejected(batch, HttpStatus.BAD_REQUEST, "batch larger than 3");
+    }
+
+    @Test
+    void testReportsTheIndexOfAnOutOfRangeOriginationFloor() {
+        final var batch = batch(List.of(serviceRequest(1), serviceRequest(NUMBER_OF_FLOORS + 1)), List.of());
+
+        assertRejected(batch, HttpStatus.BAD_REQUEST, "invalid service request at index 1");
+    }
+
+    @Test
+    void testReportsTheIndexOfAnOutOfRangeRequestedFloor() {
+        final var batch = batch(
+                List.of(),
+                List.of(floorsRequest(UUID.randomUUID(), Set.of(2)), floorsRequest(UUID.randomUUID(), Set.of(3, -1)))
+        );
+
+        assertRejected(batch, HttpStatus.BAD_REQUEST, "invalid floors request at index 1");
+    }
+
+    @Test
+    void testReportsTheIndexOfADuplicateServiceRequest() {
+        final var id = UUID.randomUUID();
+        final var batch = batch(List.of(), List.of(floorsRequest(id, Set.of(2)), floorsRequest(id, Set.of(3))));
+
+        assertRejected(batch, HttpStatus.BAD_REQUEST, "duplicate service request at index 1");
+    }
+
+    @Test
+    void testReportsTheIndexOfAnUnknownServiceRequest() {
+        final var unknown = UUID.randomUUID();
+        lenient().when(elevatorService.isActiveServiceRequest(unknown)).thenReturn(false);
+        final var batch = batch(
+                List.of(serviceRequest(1)),
+                List.of(floorsRequest(UUID.randomUUID(), Set.of(2)), floorsRequest(unknown, Set.of(3)))
+        );
+
+        assertRejected(batch, HttpStatus.NOT_FOUND, "unknown service request at index 1");
+    }
+
+    @Test
+    void testProcessesNothingOfARejectedBatch() {
+        final var valid = serviceRequest(1);
+        final var batch = batch(List.of(valid, serviceRequest(-1)), List.of());
+
+        assertRejected(batch, HttpStatus.BAD_REQUEST, "invalid service request at index 1");
+        assertThat(valid.getId()).isNull();
+        verify(elevatorService, never()).processBatch(anyCollection(), anyCollection());
+        verify(elevatorService, never()).processServiceRequest(any());
+        verify(elevatorService, never()).processFloorsRequest(any());
+    }
+
+    @Test
+    void testRejectsAFloorsRequestOutsideTheBuilding() {
+        final var id = UUID.randomUUID();
+        for (Set<Integer> floors : List.of(Set.of(3, NUMBER_OF_FLOORS + 1), Set.of(-1), Set.of(Integer.MAX_VALUE))) {
+            assertThatThrownBy(() -> controller.createFloorsRequest(id, floorsRequest(id, floors)))
+                    .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                        assertThat(e.getReason()).isEqualTo("invalid requested floors");
+                    });
+        }
+
+        controller.createFloorsRequest(id, floorsRequest(id, Set.of(0, NUMBER_OF_FLOORS)));
+        verify(elevatorService).processFloorsRequest(any());
+    }
+
+    @Test
+    void testAnswersADestinationRequestWithTheAssignedCar() {
+        when(elevatorService.processDestinationRequest(any())).thenReturn(CompletableFuture.completedFuture("Car 2"));
+        final var request = destinationRequest(7, 2);
+
+        final var response = controller.createDestinationRequest(request);
+
+        assertThat(response).isCompletedWithValueMatching(r -> "Car 2".equals(r.getCarName()) && r.getId() != null);
+        verify(elevatorService).processDestinationRequest(argThat((DestinationRequestEvent event) ->
+                event.destinationFloor() == 2 &&
+                event.serviceRequestEvent().originationFloor() == 7 &&
+                event.serviceRequestEvent().direction() == Direction.DESCENDING));
+    }
+
+    @Test
+    void testRejectsADestinationRequestToTheOriginationFloor() {
+        assertThatThrownBy(() -> controller.createDestinationRequest(destinationRequest(4, 4)))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verify(elevatorService, never()).processDestinationRequest(any());
+    }
+
+    @Test
+    void testReportsAnUnknownServiceRequestStatus() {
+        assertThatThrownBy(() -> controller.getServiceRequestStatus(UUID.randomUUID()))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void testBroadcastsAMovingCarToTheFloorItLeaves() {
+        final var broadcaster = mock(SseBroadcaster.class);
+        final var sseEventEncoder = new SseEventEncoder(new ObjectMapper());
+        final var reactiveEventStream = new ReactiveEventStream(elevatorService, sseEventEncoder, new UserDefinedElevatorConfiguration());
+        new ElevatorController(elevatorService, broadcaster, sseEventEncoder, reactiveEventStream, new UserDefinedElevatorConfiguration());
+        final var carStateListeners = ArgumentCaptor.forClass(CarStateListener.class);
+        verify(elevatorService, atLeastOnce()).addCarStateListener(carStateListeners.capture());
+        // the controller registers after the stream it is handed
+        final var listener = carStateListeners.getAllValues().getLast();
+
+        listener.handleCarState(new CarStateEvent("Car 1", "AVAILABLE", 2));
+        listener.handleCarState(new CarStateEvent("Car 1", "MOVING", 7));
+        listener.handleCarState(new CarStateEvent("Car 1", "WAITING", 7));
+
+        final var inOrder = inOrder(broadcaster);
+        inOrder.verify(broadcaster).broadcast(eq(SseEventFilter.EventType.CAR_STATE), eq("Car 1"), eq(2), eq(2), eq("Car 1"), any());
+        inOrder.verify(broadcaster).broadcast(eq(SseEventFilter.EventType.CAR_STATE), eq("Car 1"), eq(7), eq(2), eq("Car 1"), any());
+        inOrder.verify(broadcaster).broadcast(eq(SseEventFilter.EventType.CAR_STATE), eq("Car 1"), eq(7), eq(7), eq("Car 1"), any());
+    }
+
+    private void assertRejected(RiderBatchRequest batch, HttpStatus status, String reason) {
+        assertThatThrownBy(() -> controller.createBatchRequest(batch))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(status);
+                    assertThat(e.getReason()).isEqualTo(reason);
+                });
+    }
+
+    private static RiderBatchRequest batch(
+            Collection<RiderServiceRequest> serviceRequests,
+            Collection<RiderFloorsRequest> floorsRequests
+    ) {
+        final var batch = new RiderBatchRequest();
+        batch.setServiceRequests(new ArrayList<>(serviceRequests));
+        batch.setFloorsRequests(new ArrayList<>(floorsRequests));
+        return batch;
+    }
+
+    private static RiderDestinationRequest destinationRequest(int originationFloor, int destinationFloor) {
+        final var destinationRequest = new RiderDestinationRequest();
+        destinationRequest.setOriginationFloor(originationFloor);
+        destinationRequest.setDestinationFloor(destinationFloor);
+        return destinationRequest;
+    }
+
+    private static RiderServiceRequest serviceRequest(int floor) {
+        final var serviceRequest = new RiderServiceRequest();
+        serviceRequest.setDirection(Direction.ASCENDING);
+        serviceRequest.setOriginationFloor(floor);
+        return serviceRequest;
+    }
+
+    private static RiderFloorsRequest floorsRequest(UUID id, Set<Integer> floors) {
+        final var serviceRequest = serviceRequest(0);
+        serviceRequest.setId(id);
+        final var floorsRequest = new RiderFloorsRequest();
+        floorsRequest.setRiderServiceRequest(serviceRequest);
+        floorsRequest.setRequestedFloors(floors);
+        return floorsRequest;
+    }
+}
@@ -0,0 +1,116 @@
+package zone.glueck.elevator.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import zone.glueck.elevator.api.models.FleetCarRequest;
+import zone.glueck.elevator.api.models.FloorsChangeRequest;
+import zone.glueck.elevator.service.ElevatorService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FleetAdminControllerTest {
+
+    @Mock
+    private ElevatorService elevatorService;
+
+    private FleetAdminController controller;
+
+    @BeforeEach
+    void setup() {
+        controller = new FleetAdminController(elevatorService);
+    }
+
+    @Test
+    void testAnswersAnAddedCarWithItsName() {
+        when(elevatorService.addCar("StandardCar")).thenReturn(CompletableFuture.completedFuture("Car 4"));
+
+        final var response = controller.addCar(carRequest("StandardCar"));
+
+        assertThat(response).isCompletedWithValueMatching(r -> "Car 4".equals(r.getCarName()));
+    }
+
+    @Test
+    void testRejectsAnUnknownElevatorType() {
+        when(elevatorService.addCar("PaternosterCar")).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertFailsWith(controller.addCar(carRequest("PaternosterCar")), HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testReportsAnUnknownCar() {
+        when(elevatorService.drainCar("Car 9")).thenReturn(CompletableFuture.completedFuture(false));
+        when(elevatorService.removeCar("Car 9")).thenReturn(CompletableFuture.completedFuture(false));
+
+        assertFailsWith(controller.drainCar("Car 9"), HttpStatus.NOT_FOUND);
+        assertFailsWith(controller.removeCar("Car 9"), HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testRefusesToRemoveABusyCar() {
+        when(elevatorService.removeCar("Car 1"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("car still busy: Car 1")));
+
+        assertFailsWith(controller.removeCar("Car 1"), HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void testResizesTheBuilding() {
+        when(elevatorService.setNumberOfFloors(30)).thenReturn(CompletableFuture.completedFuture(null));
+        when(elevatorService.getNumberOfFloors()).thenReturn(30);
+        when(elevatorService.getElevatorNames()).thenReturn(List.of("Car 1"));
+
+        final var response = controller.setNumberOfFloors(floorsRequest(30));
+
+        assertThat(response).isCompletedWithValueMatching(configuration -> configuration.getTotalFloors() == 30);
+        assertThatThrownBy(() -> controller.setNumberOfFloors(floorsRequest(0)))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verify(elevatorService, never()).setNumberOfFloors(0);
+        verify(elevatorService).setNumberOfFloors(anyInt());
+    }
+
+    @Test
+    void testRefusesToStrandCallsAboveANewTopFloor() {
+        when(elevatorService.setNumberOfFloors(5))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("queued call from floor 9")));
+
+        assertFailsWith(controller.setNumberOfFloors(floorsRequest(5)), HttpStatus.CONFLICT);
+        verify(elevatorService, never()).getNumberOfFloors();
+    }
+
+    private static void assertFailsWith(CompletableFuture<?> response, HttpStatus status) {
+        assertThat(response)
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .havingCause()
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+
+    private static FleetCarRequest carRequest(String elevatorType) {
+        final var carRequest = new FleetCarRequest();
+        carRequest.setElevatorType(elevatorType);
+        return carRequest;
+    }
+
+    private static FloorsChangeRequest floorsRequest(int totalFloors) {
+        final var floorsRequest = new FloorsChangeRequest();
+        floorsRequest.setTotalFloors(totalFloors);
+        return floorsRequest;
+    }
+}
@@ -0,0 +1,173 @@
+package zone.glueck.elevator.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.service.CarStateListener;
+import zone.glueck.elevator.service.ElevatorService;
+import zone.glueck.elevator.service.RiderCueListener;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveEventStreamTest {
+
+    private static final int QUEUE_CAPACITY = 4;
+
+    private final SseEventEncoder encoder = new SseEventEncoder(new ObjectMapper());
+
+    @Mock
+    private ElevatorService elevatorService;
+
+    private ReactiveEventStream stream;
+
+    private RiderCueListener riderCueListener;
+
+    private CarStateListener carStateListener;
+
+    @BeforeEach
+    void setUp() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setSseQueueCapacity(QUEUE_CAPACITY);
+        stream = new ReactiveEventStream(elevatorService, encoder, configuration);
+
+        final var riderCueListenerCaptor = ArgumentCaptor.forClass(RiderCueListener.class);
+        final var carStateListenerCaptor = ArgumentCaptor.forClass(CarStateListener.class);
+        verify(elevatorService).addRiderCueListener(riderCueListenerCaptor.capture());
+        verify(elevatorService).addCarStateListener(carStateListenerCaptor.capture());
+        riderCueListener = riderCueListenerCaptor.getValue();
+        carStateListener = carStateListenerCaptor.getValue();
+    }
+
+    @Test
+    void testDeliversEventsInOrder() {
+        final var subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        stream.subscribe().subscribe(subscriber);
+
+        final var state = new CarStateEvent("Car 1", "MOVING", 2);
+        final var cue = riderCue(2);
+        carStateListener.handleCarState(state);
+        riderCueListener.handleRiderCue(cue);
+
+        assertThat(subscriber.received).containsExactly(encoder.toJson(state), encoder.toJson(cue));
+    }
+
+    @Test
+    void testSubscriberBehindOnlyGetsTheNewestStateOfEachCar() {
+        final var subscriber = new CollectingSubscriber(0L);
+        stream.subscribe().subscribe(subscriber);
+
+        for (int floor = 1; floor <= 10; floor++) {
+            carStateListener.handleCarState(new CarStateEvent("Car 1", "MOVING", floor));
+            carStateListener.handleCarState(new CarStateEvent("Car 2", "MOVING", 10 - floor));
+        }
+        subscriber.request(Long.MAX_VALUE);
+
+        final var car1 = subscriber.received.stream().filter(json -> json.contains("Car 1")).toList();
+        final var car2 = subscriber.received.stream().filter(json -> json.contains("Car 2")).toList();
+        assertThat(car1).hasSizeLessThan(4).last().isEqualTo(encoder.toJson(new CarStateEvent("Car 1", "MOVING", 10)));
+        assertThat(car2).hasSizeLessThan(4).last().isEqualTo(encoder.toJson(new CarStateEvent("Car 2", "MOVING", 0)));
+    }
+
+    @Test
+    void testSubscriberBehindMissesTheNewestCuesBeyondItsBuffer() {
+        final var subscriber = new CollectingSubscriber(0L);
+        stream.subscribe().subscribe(subscriber);
+
+        final List<String> published = new ArrayList<>();
+        for (int floor = 0; floor < 10; floor++) {
+            final var cue = riderCue(floor);
+            riderCueListener.handleRiderCue(cue);
+            published.add(encoder.toJson(cue));
+        }
+        subscriber.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.received).hasSizeBetween(QUEUE_CAPACITY, QUEUE_CAPACITY + 1);
+        assertThat(subscriber.received).isEqualTo(published.subList(0, subscriber.received.size()));
+    }
+
+    @Test
+    void testSlowSubscriberDoesNotHoldBackOthers() {
+        final var slow = new CollectingSubscriber(0L);
+        final var fast = new CollectingSubscriber(Long.MAX_VALUE);
+        stream.subscribe().subscribe(slow);
+        stream.subscribe().subscribe(fast);
+
+        for (int floor = 0; floor < 10; floor++) {
+            riderCueListener.handleRiderCue(riderCue(floor));
+        }
+
+        assertThat(slow.received).isEmpty();
+        assertThat(fast.received).hasSize(10);
+    }
+
+    @Test
+    void testCompletesSubscribersOnShutdown() {
+        final var subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        stream.subscribe().subscribe(subscriber);
+
+        stream.destroy();
+
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    void testCompletesSubscribersOnceTheSseTimeoutIsUp() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setSseTimeout(Duration.ofMillis(50L));
+        final var timed = new ReactiveEventStream(elevatorService, encoder, configuration);
+
+        assertThat(timed.subscribe().collectList().block(Duration.ofSeconds(5L))).isEmpty();
+    }
+
+    private static RiderCueEvent riderCue(int floor) {
+        return new RiderCueEvent(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, floor), "Car 1");
+    }
+
+    private static class CollectingSubscriber extends BaseSubscriber<String> {
+
+        private final long initialDemand;
+
+        private final List<String> received = new ArrayList<>();
+
+        private boolean completed;
+
+        private CollectingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialDemand > 0L) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        protected void hookOnNext(String value) {
+            received.add(value);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package zone.glueck.elevator.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseBroadcasterTest {
+
+    @Test
+    void testSubscriptionsTimeOutAfterTheConfiguredDuration() {
+        assertThat(subscribeWithTimeout(Duration.ofMinutes(5L)).getTimeout()).isEqualTo(300_000L);
+    }
+
+    @Test
+    void testNoTimeoutWhenUnsetZeroOrNegative() {
+        assertThat(subscribeWithTimeout(null).getTimeout()).isEqualTo(-1L);
+        assertThat(subscribeWithTimeout(Duration.ZERO).getTimeout()).isEqualTo(-1L);
+        assertThat(subscribeWithTimeout(Duration.ofSeconds(-1L)).getTimeout()).isEqualTo(-1L);
+    }
+
+    private static SseEmitter subscribeWithTimeout(Duration timeout) {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setSseTimeout(timeout);
+        return new SseBroadcaster(Runnable::run, configuration).subscribe();
+    }
+}
@@ -0,0 +1,48 @@
+package zone.glueck.elevator.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseEventEncoderTest {
+
+    private final SseEventEncoder encoder = new SseEventEncoder(new ObjectMapper());
+
+    @Test
+    void testEncodesCarStateInTheWireFormat() {
+        final var frame = encoder.encode(new CarStateEvent("Car 1", "MOVING", 3));
+
+        assertThat(text(frame)).isEqualTo("data:{\"carName\":\"Car 1\",\"status\":\"MOVING\",\"currentFloor\":3}\n\n");
+    }
+
+    @Test
+    void testEncodesRiderCueInTheWireFormat() {
+        final var id = UUID.fromString("0b6e9a4e-6f0c-4d8e-9d2a-5f1b1c2d3e4f");
+        final var frame = encoder.encode(new RiderCueEvent(new ServiceRequestEvent(id, Direction.DESCENDING, 7), "ECar 4"));
+
+        assertThat(text(frame)).isEqualTo(
+                "data:{\"serviceRequest\":{\"id\":\"0b6e9a4e-6f0c-4d8e-9d2a-5f1b1c2d3e4f\",\"direction\":\"DESCENDING\"," +
+                        "\"originationFloor\":7},\"carName\":\"ECar 4\"}\n\n"
+        );
+    }
+
+    @Test
+    void testJsonIsTheFramedObject() {
+        final var carStateEvent = new CarStateEvent("Car 1", "WAITING", 0);
+
+        assertThat("data:" + encoder.toJson(carStateEvent) + "\n\n").isEqualTo(text(encoder.encode(carStateEvent)));
+    }
+
+    private static String text(SseFrame frame) {
+        assertThat(frame.parts()).hasSize(1);
+        return new String((byte[]) frame.parts().iterator().next().getData(), StandardCharsets.UTF_8);
+    }
+}
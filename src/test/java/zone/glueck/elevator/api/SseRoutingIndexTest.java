@@ -0,0 +1,117 @@
+package zone.glueck.elevator.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseRoutingIndexTest {
+
+    private final SseRoutingIndex<String> index = new SseRoutingIndex<>();
+
+    @Test
+    void testRoutesEventsOnlyToSubscribersThatWantThem() {
+        index.add("dashboard", SseEventFilter.ALL);
+        index.add("floor display", new SseEventFilter(null, Set.of(3), null));
+        index.add("car monitor", new SseEventFilter(Set.of("Car 2"), null, Set.of(SseEventFilter.EventType.CAR_STATE)));
+        index.add("car at floor", new SseEventFilter(Set.of("Car 2"), Set.of(3), null));
+        index.add("cue log", new SseEventFilter(null, null, Set.of(SseEventFilter.EventType.RIDER_CUE)));
+
+        assertThat(route(SseEventFilter.EventType.CAR_STATE, "Car 2", 3))
+                .containsExactlyInAnyOrder("dashboard", "floor display", "car monitor", "car at floor");
+        assertThat(route(SseEventFilter.EventType.RIDER_CUE, "Car 2", 5))
+                .containsExactlyInAnyOrder("dashboard", "cue log");
+
+        assertThat(index.remove("floor display")).isTrue();
+        assertThat(index.remove("floor display")).isFalse();
+        assertThat(route(SseEventFilter.EventType.RIDER_CUE, "Car 1", 3)).containsExactlyInAnyOrder("dashboard", "cue log");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void testRoutesAnEventOnTwoFloorsToEachSubscriberOnce() {
+        index.add("dashboard", SseEventFilter.ALL);
+        index.add("lobby display", new SseEventFilter(null, Set.of(0), null));
+        index.add("both floors", new SseEventFilter(null, Set.of(0, 7), null));
+        index.add("car 1 at the lobby", new SseEventFilter(Set.of("Car 1"), Set.of(0), null));
+        index.add("car 2 at the lobby", new SseEventFilter(Set.of("Car 2"), Set.of(0), null));
+        index.add("top display", new SseEventFilter(null, Set.of(9), null));
+
+        final List<String> routed = new ArrayList<>();
+        index.route(SseEventFilter.EventType.CAR_STATE, "Car 1", 7, 0, routed::add);
+
+        assertThat(routed).containsExactlyInAnyOrder("dashboard", "lobby display", "both floors", "car 1 at the lobby");
+    }
+
+    @Test
+    void testRoutesAsEveryFilterMatches() {
+        final var random = new Random(7L);
+        final Map<String, SseEventFilter> filters = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            final var filter = randomFilter(random);
+            filters.put("subscriber " + i, filter);
+            index.add("subscriber " + i, filter);
+        }
+
+        assertRoutesAsFiltersMatch(filters);
+    }
+
+    @Test
+    void testRoutesAsEveryFilterMatchesThroughChurn() {
+        final var random = new Random(11L);
+        final Map<String, SseEventFilter> filters = new HashMap<>();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                final var subscriber = "subscriber " + random.nextInt(150);
+                if (random.nextInt(3) == 0) {
+                    assertThat(index.remove(subscriber)).isEqualTo(filters.remove(subscriber) != null);
+                } else {
+                    final var filter = randomFilter(random);
+                    filters.put(subscriber, filter);
+                    index.add(subscriber, filter);
+                }
+            }
+            assertThat(index.size()).isEqualTo(filters.size());
+            assertRoutesAsFiltersMatch(filters);
+        }
+
+        assertThat(index.clear()).containsExactlyInAnyOrderElementsOf(filters.keySet());
+        assertRoutesAsFiltersMatch(Map.of());
+    }
+
+    private void assertRoutesAsFiltersMatch(Map<String, SseEventFilter> filters) {
+        for (SseEventFilter.EventType eventType : SseEventFilter.EventType.values()) {
+            for (int car = 0; car < 4; car++) {
+                for (int i = 0; i < 10; i++) {
+                    final var carId = "Car " + car;
+                    final var floor = i;
+                    final var expected = filters.entrySet().stream()
+                            .filter(entry -> entry.getValue().matches(eventType, carId, floor))
+                            .map(Map.Entry::getKey)
+                            .toList();
+                    assertThat(route(eventType, carId, floor)).containsExactlyInAnyOrderElementsOf(expected);
+                }
+            }
+        }
+    }
+
+    private static SseEventFilter randomFilter(Random random) {
+        return new SseEventFilter(
+                random.nextBoolean() ? Set.of() : Set.copyOf(List.of("Car " + random.nextInt(4), "Car " + random.nextInt(4))),
+                random.nextBoolean() ? Set.of() : Set.copyOf(List.of(random.nextInt(10), random.nextInt(10))),
+                random.nextBoolean() ? Set.of() : Set.of(SseEventFilter.EventType.values()[random.nextInt(2)])
+        );
+    }
+
+    private List<String> route(SseEventFilter.EventType eventType, String carId, int floor) {
+        final List<String> routed = new ArrayList<>();
+        index.route(eventType, carId, floor, routed::add);
+        return routed;
+    }
+}
@@ -0,0 +1,175 @@
+package zone.glueck.elevator.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseSubscriberTest {
+
+    private RecordingEmitter emitter;
+
+    private HeldExecutor executor;
+
+    private List<SseSubscriber> evicted;
+
+    @BeforeEach
+    void setUp() {
+        emitter = new RecordingEmitter();
+        executor = new HeldExecutor();
+        evicted = new ArrayList<>();
+    }
+
+    @Test
+    void testCoalescesUnsentMessagesWithTheSameKey() {
+        final var subscriber = subscriber(8);
+
+        subscriber.publish("Car 1", frame("car 1 moving"));
+        subscriber.publish(null, frame("cue"));
+        subscriber.publish("Car 1", frame("car 1 waiting"));
+        executor.runAll();
+
+        assertThat(emitter.sent).containsExactly("car 1 waiting", "cue");
+    }
+
+    @Test
+    void testFullQueueDropsTheOldestKeyedMessage() {
+        final var subscriber = subscriber(2);
+
+        subscriber.publish("Car 1", frame("car 1 moving"));
+        subscriber.publish("Car 2", frame("car 2 moving"));
+        subscriber.publish(null, frame("cue"));
+        executor.runAll();
+
+        assertThat(emitter.sent).containsExactly("car 2 moving", "cue");
+        assertThat(evicted).isEmpty();
+    }
+
+    @Test
+    void testBurstOfUnkeyedMessagesDropsTheNewestWithoutEvicting() {
+        final var subscriber = subscriber(2);
+
+        subscriber.publish(null, frame("cue 1"));
+        subscriber.publish(null, frame("cue 2"));
+        subscriber.publish(null, frame("cue 3"));
+        executor.runAll();
+        subscriber.publish(null, frame("cue 4"));
+        executor.runAll();
+
+        assertThat(emitter.sent).containsExactly("cue 1", "cue 2", "cue 4");
+        assertThat(evicted).isEmpty();
+        assertThat(emitter.completed).isFalse();
+    }
+
+    @Test
+    void testEvictsSubscriberThatDropsMoreThanAFullQueue() {
+        final var subscriber = subscriber(2);
+
+        for (int i = 0; i < 5; i++) {
+            subscriber.publish(null, frame("cue " + i));
+        }
+        executor.runAll();
+
+        assertThat(evicted).containsExactly(subscriber);
+        assertThat(emitter.completed).isTrue();
+        assertThat(emitter.sent).isEmpty();
+    }
+
+    @Test
+    void testRemovesSubscriberWhoseConnectionFailed() {
+        final var subscriber = new SseSubscriber(emitter, Runnable::run, 8, evicted::add);
+        emitter.failing = true;
+
+        subscriber.publish(null, frame("cue 1"));
+        emitter.failing = false;
+        subscriber.publish(null, frame("cue 2"));
+
+        assertThat(evicted).containsExactly(subscriber);
+        assertThat(emitter.completed).isTrue();
+        assertThat(emitter.sent).isEmpty();
+    }
+
+    @Test
+    void testRetriesDeliveryAfterTheExecutorRejectedIt() {
+        final var subscriber = subscriber(8);
+        executor.rejectNext = true;
+
+        subscriber.publish(null, frame("cue 1"));
+        subscriber.publish(null, frame("cue 2"));
+        executor.runAll();
+
+        assertThat(emitter.sent).containsExactly("cue 1", "cue 2");
+        assertThat(evicted).isEmpty();
+    }
+
+    private SseSubscriber subscriber(int capacity) {
+        return new SseSubscriber(emitter, executor, capacity, evicted::add);
+    }
+
+    private static SseFrame frame(String data) {
+        return SseFrame.of(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Holds drain tasks until the test runs them, like a client that is slow to read.
+     */
+    private static final class HeldExecutor implements Executor {
+
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+        private boolean rejectNext;
+
+        @Override
+        public void execute(Runnable task) {
+            if (rejectNext) {
+                rejectNext = false;
+                throw new RejectedExecutionException("saturated");
+            }
+            tasks.add(task);
+        }
+
+        private void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new ArrayList<>();
+
+        private boolean failing;
+
+        private boolean completed;
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+            if (failing) {
+                throw new IOException("connection reset");
+            }
+            items.forEach(item -> sent.add(new String((byte[]) item.getData(), StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+    }
+}
@@ -7,25 +7,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import zone.glueck.elevator.events.CarStateEvent;
 import zone.glueck.elevator.events.FloorsRequestEvent;
 import zone.glueck.elevator.events.ServiceRequestEvent;
 import zone.glueck.elevator.utils.Direction;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static zone.glueck.elevator.cars.EventPublisherCar.State.AVAILABLE;
 import static zone.glueck.elevator.cars.EventPublisherCar.State.MOVING;
+import static zone.glueck.elevator.cars.EventPublisherCar.State.WAITING;
 
 @ExtendWith(MockitoExtension.class)
 class EventPublisherCarTest {
@@ -37,7 +42,7 @@ class EventPublisherCarTest {
 
         private int processRequests;
 
-        public TestEventPublisherCar(ThreadPoolTaskScheduler taskScheduler) {
+        public TestEventPublisherCar(TaskScheduler taskScheduler) {
             super(taskScheduler);
         }
 
@@ -46,6 +51,26 @@ class EventPublisherCarTest {
 
         }
 
+        @Override
+        protected int nextStop() {
+            return 0;
+        }
+
+        @Override
+        public CarSnapshot snapshot() {
+            return null;
+        }
+
+        @Override
+        public void restore(CarSnapshot snapshot) {
+
+        }
+
+        @Override
+        public List<ServiceRequestEvent> releaseServiceRequests() {
+            return List.of();
+        }
+
         @Override
         public String getCarId() {
             return "";
@@ -57,6 +82,21 @@ class EventPublisherCarTest {
             return true;
         }
 
+        @Override
+        public Duration estimateTimeToArrival(ServiceRequestEvent serviceRequestEvent) {
+            return null;
+        }
+
+        @Override
+        public boolean isStoppingAt(int floor) {
+            return false;
+        }
+
+        @Override
+        public boolean park(int floor) {
+            return false;
+        }
+
         @Override
         public boolean processFloorsRequest(FloorsRequestEvent floorsRequestEvent) {
             return false;
@@ -67,7 +107,7 @@ class EventPublisherCarTest {
     private ThreadPoolTaskScheduler taskScheduler;
 
     @Mock
-    private Supplier<ServiceRequestEvent> serviceRequestEventSupplier;
+    private ServiceRequestQueue serviceRequestQueue;
 
     @Mock
     private Consumer<CarStateEvent> carStateEventConsumer;
@@ -77,13 +117,15 @@ class EventPublisherCarTest {
     @BeforeEach
     void setUp() {
         car = new TestEventPublisherCar(taskScheduler);
-        car.setServiceRequestSupplier(serviceRequestEventSupplier);
+        car.setServiceRequestQueue(serviceRequestQueue);
         car.setCarStateEventConsumer(carStateEventConsumer);
         car.currentFloor = 1;
     }
 
     @Test
     void testMoveTo() {
+        when(taskScheduler.getClock()).thenReturn(Clock.systemDefaultZone());
+
         car.moveTo(5);
 
         assertThat(car.currentFloor).isEqualTo(5);
@@ -99,16 +141,35 @@ class EventPublisherCarTest {
 
     @Test
     void testChangeStateAndRetrieveNextJob() {
+        when(taskScheduler.getClock()).thenReturn(Clock.systemDefaultZone());
         final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3);
-        when(serviceRequestEventSupplier.get()).thenReturn(serviceRequestEvent);
+        when(serviceRequestQueue.pollNearest(eq(1), any())).thenReturn(serviceRequestEvent);
 
         car.changeState(AVAILABLE);
 
         assertThat(((TestEventPublisherCar) car).processRequests).isEqualTo(1);
+        verify(serviceRequestQueue).claimOnTheWay(eq(Direction.ASCENDING), eq(3), any());
 
         final var carStateCaptor = ArgumentCaptor.forClass(CarStateEvent.class);
         verify(carStateEventConsumer).accept(carStateCaptor.capture());
         final var carState = carStateCaptor.getValue();
         assertThat(carState.status()).isEqualTo(AVAILABLE.name());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTimeInState() {
+        final var start = Instant.parse("2025-01-01T08:00:00Z");
+        when(taskScheduler.getClock()).thenReturn(
+                Clock.fixed(start, ZoneOffset.UTC),
+                Clock.fixed(start.plusSeconds(12L), ZoneOffset.UTC),
+                Clock.fixed(start.plusSeconds(15L), ZoneOffset.UTC)
+        );
+
+        car.changeState(MOVING);
+        car.changeState(WAITING);
+
+        assertThat(car.getTimeInState(MOVING)).isEqualTo(Duration.ofSeconds(12L));
+        assertThat(car.getTimeInState(WAITING)).isEqualTo(Duration.ofSeconds(3L));
+        assertThat(car.getTimeInState(AVAILABLE)).isEqualTo(Duration.ZERO);
+    }
+}
@@ -0,0 +1,75 @@
+package zone.glueck.elevator.cars;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpressCarTest {
+
+    private VirtualTimeTaskScheduler scheduler;
+
+    private ExpressCar car;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new VirtualTimeTaskScheduler();
+        car = new ExpressCar(scheduler, "ECar 1", new ExpressZone(0, 6, 9, Set.of(3)));
+        car.setCapacity(20);
+    }
+
+    @Test
+    void testCarriesEveryCallOnTheWayInOneTrip() {
+        final var lobby = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        car.processServiceRequest(lobby);
+        scheduler.runNext();
+
+        // riders still boarding at the lobby, the car is waiting there
+        final var skyLobby = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3);
+        final var zone = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 7);
+        assertThat(car.processServiceRequest(skyLobby)).isTrue();
+        assertThat(car.processServiceRequest(zone)).isTrue();
+        assertThat(car.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 8))).isFalse();
+
+        car.processFloorsRequest(new FloorsRequestEvent(lobby, Set.of(9), 4));
+        assertThat(car.isStoppingAt(3)).isTrue();
+        assertThat(car.isStoppingAt(7)).isTrue();
+        assertThat(car.isStoppingAt(9)).isTrue();
+    }
+
+    @Test
+    void testRunsNonStopPastFloorsOutsideItsZone() {
+        final var between = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+        assertThat(car.serves(4)).isFalse();
+        assertThat(car.estimateTimeToArrival(between)).isNull();
+        assertThat(car.processServiceRequest(between)).isFalse();
+
+        final List<Integer> stops = new ArrayList<>();
+        car.setCarStateEventConsumer(carStateEvent -> {
+            if (!EventPublisherCar.State.MOVING.name().equals(carStateEvent.status())) {
+                stops.add(carStateEvent.currentFloor());
+            }
+        });
+        final var lobby = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        car.processServiceRequest(lobby);
+        scheduler.runNext();
+        car.processFloorsRequest(new FloorsRequestEvent(lobby, Set.of(2, 3, 5, 8), 4));
+        while (scheduler.runNext()) {
+            // finish the trip
+        }
+
+        assertThat(stops).containsExactly(0, 3, 8);
+        assertThat(car.park(4)).isFalse();
+        assertThat(car.park(6)).isTrue();
+    }
+
+}
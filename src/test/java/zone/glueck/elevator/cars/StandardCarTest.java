@@ -0,0 +1,171 @@
+package zone.glueck.elevator.cars;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class StandardCarTest {
+
+    private VirtualTimeTaskScheduler scheduler;
+
+    private StandardCar car;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new VirtualTimeTaskScheduler();
+        car = new StandardCar(scheduler, "Car 1");
+        car.setCapacity(10);
+    }
+
+    @Test
+    void testRidersBoardWithTheirFloorsRequestAndAlightAtTheirFloors() {
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        car.processServiceRequest(serviceRequestEvent);
+        scheduler.runNext();
+
+        car.processFloorsRequest(new FloorsRequestEvent(serviceRequestEvent, Set.of(3, 6), 5));
+        assertThat(car.getLoad()).isEqualTo(5);
+
+        scheduler.runNext();
+        assertThat(car.getCurrentFloor()).isEqualTo(3);
+        assertThat(car.getLoad()).isBetween(2, 3);
+
+        while (scheduler.runNext()) {
+            // finish the trip
+        }
+        assertThat(car.getLoad()).isZero();
+        assertThat(car.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+    }
+
+    @Test
+    void testPassesCallsOnTheWayWhenNearlyFull() {
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        car.processServiceRequest(serviceRequestEvent);
+        scheduler.runNext();
+        car.processFloorsRequest(new FloorsRequestEvent(serviceRequestEvent, Set.of(9), 8));
+
+        final var onTheWay = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 11);
+        car.setCapacity(11);
+        assertThat(car.estimateTimeToArrival(onTheWay)).isNotNull();
+        car.setCapacity(10);
+        assertThat(car.estimateTimeToArrival(onTheWay)).isNull();
+        assertThat(car.processServiceRequest(onTheWay)).isFalse();
+    }
+
+    @Test
+    void testIgnoresFloorsAboveTheBuilding() {
+        car.setNumberOfFloors(10);
+        assertThat(car.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 11))).isFalse();
+
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        car.processServiceRequest(serviceRequestEvent);
+        scheduler.runNext();
+        car.processFloorsRequest(new FloorsRequestEvent(serviceRequestEvent, Set.of(4, 11, Integer.MAX_VALUE)));
+
+        assertThat(car.isStoppingAt(4)).isTrue();
+        assertThat(car.isStoppingAt(11)).isFalse();
+        assertThat(car.isStoppingAt(Integer.MAX_VALUE)).isFalse();
+        assertThat(catchThrowable(() -> car.setNumberOfFloors(3)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(car.getNumberOfFloors()).isEqualTo(10);
+    }
+
+    @Test
+    void testStopsAtTheDestinationOfACallAndSharesItsPickup() {
+        final var first = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+        final var second = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+        final var below = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+        assertThat(car.processServiceRequest(first, 6)).isTrue();
+        assertThat(car.isStoppingAt(6)).isTrue();
+
+        // the car is arriving at floor 4, so a rider from there shares the pickup
+        assertThat(car.estimateTimeToArrival(second, 8)).isEqualTo(car.estimateTimeToStop(4));
+        assertThat(car.processServiceRequest(second, 8)).isTrue();
+        assertThat(car.processServiceRequest(below, 2)).isFalse();
+
+        final List<ServiceRequestEvent> cued = new ArrayList<>();
+        car.setRiderCueEventConsumer(riderCueEvent -> {
+            cued.add(riderCueEvent.serviceRequestEvent());
+            final var destination = riderCueEvent.serviceRequestEvent() == first ? 6 : 8;
+            car.processFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(destination)));
+        });
+        scheduler.runNext();
+
+        assertThat(cued).containsExactly(first, second);
+        assertThat(car.getCurrentFloor()).isEqualTo(6);
+        assertThat(car.isStoppingAt(4)).isFalse();
+        assertThat(car.isStoppingAt(8)).isTrue();
+        assertThat(car.getLoad()).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectsOppositeCallsWithoutCollectiveControl() {
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        car.processServiceRequest(serviceRequestEvent);
+        scheduler.runNext();
+        car.processFloorsRequest(new FloorsRequestEvent(serviceRequestEvent, Set.of(8)));
+
+        assertThat(car.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 5))).isFalse();
+    }
+
+    @Test
+    void testReversesForOppositeCallsUnderCollectiveControl() {
+        final var collective = new StandardCar(scheduler, "Car 2", true);
+        final List<Integer> cued = new ArrayList<>();
+        collective.setRiderCueEventConsumer(riderCueEvent -> cued.add(riderCueEvent.serviceRequestEvent().originationFloor()));
+        final var up = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        collective.processServiceRequest(up);
+        scheduler.runNext();
+        collective.processFloorsRequest(new FloorsRequestEvent(up, Set.of(6)));
+
+        // one call behind the car and one beyond its last stop, both for the way down
+        final var below = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 3);
+        final var above = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 9);
+        final var beforeTurningHigher = collective.estimateTimeToArrival(below);
+        assertThat(collective.processServiceRequest(above)).isTrue();
+        assertThat(collective.estimateTimeToArrival(below)).isGreaterThan(beforeTurningHigher);
+        assertThat(collective.processServiceRequest(below)).isTrue();
+        assertThat(collective.isStoppingAt(3)).isTrue();
+
+        scheduler.runUntil(scheduler.now().plusSeconds(60L));
+        assertThat(cued).containsExactly(0, 9);
+        assertThat(collective.getCurrentFloor()).isEqualTo(9);
+        collective.processFloorsRequest(new FloorsRequestEvent(above, Set.of(1)));
+
+        scheduler.runUntil(scheduler.now().plusSeconds(60L));
+        assertThat(cued).containsExactly(0, 9, 3);
+        collective.processFloorsRequest(new FloorsRequestEvent(below, Set.of(1)));
+        while (scheduler.runNext()) {
+            // finish the trip
+        }
+        assertThat(collective.getCurrentFloor()).isEqualTo(1);
+        assertThat(collective.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+    }
+
+    @Test
+    void testRestoresCallsStoredForTheWayBack() {
+        final var collective = new StandardCar(scheduler, "Car 2", true);
+        final var up = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        collective.processServiceRequest(up);
+        scheduler.runNext();
+        collective.processFloorsRequest(new FloorsRequestEvent(up, Set.of(6)));
+        collective.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 3));
+
+        final var restored = new StandardCar(scheduler, "Car 2", true);
+        restored.restore(collective.snapshot());
+
+        assertThat(restored.snapshot()).isEqualTo(collective.snapshot());
+        assertThat(restored.isStoppingAt(3)).isTrue();
+    }
+}
@@ -0,0 +1,127 @@
+package zone.glueck.elevator.cars;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StopSetTest {
+
+    private StopSet stops;
+
+    @BeforeEach
+    void setUp() {
+        stops = new StopSet(300);
+    }
+
+    @Test
+    void testFirstFollowsDirection() {
+        assertThat(stops.first(Direction.ASCENDING)).isEqualTo(-1);
+
+        stops.add(5);
+        stops.add(299);
+        stops.add(64);
+
+        assertThat(stops.size()).isEqualTo(3);
+        assertThat(stops.first(Direction.ASCENDING)).isEqualTo(5);
+        assertThat(stops.first(Direction.DESCENDING)).isEqualTo(299);
+
+        stops.remove(299);
+        assertThat(stops.first(Direction.DESCENDING)).isEqualTo(64);
+        assertThat(stops.contains(299)).isFalse();
+    }
+
+    @Test
+    void testServiceRequestsPerFloor() {
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 70);
+        stops.add(70);
+        assertThat(stops.getServiceRequest(70)).isNull();
+
+        stops.addServiceRequest(serviceRequestEvent);
+        assertThat(stops.add(70)).isFalse();
+
+        assertThat(stops.size()).isEqualTo(1);
+        assertThat(stops.getServiceRequest(70)).isEqualTo(serviceRequestEvent);
+
+        stops.remove(70);
+        assertThat(stops.getServiceRequest(70)).isNull();
+        assertThat(stops.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testRidersSharingAStopAreAnsweredInTurn() {
+        final var first = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 70);
+        final var second = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 70);
+        stops.addServiceRequest(first);
+        stops.addServiceRequest(second);
+
+        assertThat(stops.size()).isEqualTo(1);
+        assertThat(stops.getServiceRequest(70)).isEqualTo(first);
+        final List<ServiceRequestEvent> visited = new ArrayList<>();
+        stops.forEachServiceRequest(70, visited::add);
+        assertThat(visited).containsExactly(first, second);
+
+        assertThat(stops.nextServiceRequest(70)).isEqualTo(second);
+        assertThat(stops.getServiceRequest(70)).isEqualTo(second);
+        assertThat(stops.nextServiceRequest(70)).isNull();
+        assertThat(stops.contains(70)).isTrue();
+
+        stops.addServiceRequest(first);
+        stops.addServiceRequest(second);
+        stops.remove(70);
+        stops.addServiceRequest(first);
+        assertThat(stops.nextServiceRequest(70)).isNull();
+    }
+
+    @Test
+    void testCountAcrossWords() {
+        for (int floor = 0; floor < 200; floor += 3) {
+            stops.add(floor);
+        }
+
+        assertThat(stops.count(0, 200)).isEqualTo(67);
+        assertThat(stops.count(1, 3)).isZero();
+        assertThat(stops.count(63, 129)).isEqualTo(22);
+        assertThat(stops.count(64, 128)).isEqualTo(21);
+        assertThat(stops.count(150, 500)).isEqualTo(17);
+        assertThat(stops.count(10, 5)).isZero();
+
+        stops.clear();
+        assertThat(stops.count(0, 200)).isZero();
+    }
+
+    @Test
+    void testRejectsFloorsOutsideItsCapacity() {
+        assertThatThrownBy(() -> stops.add(300)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> stops.add(Integer.MAX_VALUE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> stops.add(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(stops.contains(Integer.MAX_VALUE)).isFalse();
+        assertThat(stops.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testResizeKeepsStopsAndRefusesToDropAny() {
+        stops.add(5);
+        stops.add(120);
+
+        assertThatThrownBy(() -> stops.resize(100)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(stops.capacity()).isEqualTo(300);
+
+        stops.remove(120);
+        stops.resize(100);
+        assertThat(stops.capacity()).isEqualTo(100);
+        assertThat(stops.first(Direction.DESCENDING)).isEqualTo(5);
+        assertThatThrownBy(() -> stops.add(100)).isInstanceOf(IllegalArgumentException.class);
+
+        stops.resize(200);
+        stops.add(199);
+        assertThat(stops.count(0, 200)).isEqualTo(2);
+    }
+}
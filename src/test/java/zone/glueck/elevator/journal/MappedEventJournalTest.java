@@ -0,0 +1,369 @@
+package zone.glueck.elevator.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.cars.EventPublisherCar;
+import zone.glueck.elevator.cars.ExpressZone;
+import zone.glueck.elevator.configs.FleetFactory;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.service.DestinationDispatcher;
+import zone.glueck.elevator.service.LowestCostDispatcher;
+import zone.glueck.elevator.service.NonBlockingElevatorService;
+import zone.glueck.elevator.utils.Direction;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedEventJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private Path path;
+
+    private JournalHeader header;
+
+    @BeforeEach
+    void setUp() {
+        path = directory.resolve("elevator.journal");
+        header = new JournalHeader(
+                10,
+                "LowestCostDispatcher",
+                true,
+                true,
+                List.of(new JournalHeader.CarDescriptor("StandardCar", "Car 1", 16), new JournalHeader.CarDescriptor("ExpressCar", "ECar 2", 20))
+        );
+    }
+
+    @Test
+    void testRecordsSurviveRegionsAndReopening() throws Exception {
+        final var clock = Clock.fixed(Instant.parse("2025-03-01T08:15:30.123456789Z"), ZoneOffset.UTC);
+        final List<Object> written = new ArrayList<>();
+        try (final var journal = MappedEventJournal.open(path, header, clock, 256)) {
+            journal.appendBoot();
+            for (int i = 0; i < 20; i++) {
+                final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, i);
+                final var riderCueEvent = new RiderCueEvent(serviceRequestEvent, "ECar 2");
+                final var floorsRequestEvent = new FloorsRequestEvent(serviceRequestEvent, Set.of(0, 1, 2), 5);
+                final var carStateEvent = new CarStateEvent("Car 1", "MOVING", i);
+                final var destinationRequestEvent = new DestinationRequestEvent(serviceRequestEvent, 0);
+                journal.append(serviceRequestEvent);
+                journal.append(riderCueEvent);
+                journal.append(floorsRequestEvent);
+                journal.append(carStateEvent);
+                journal.append(destinationRequestEvent);
+                written.addAll(List.of(serviceRequestEvent, riderCueEvent, floorsRequestEvent, carStateEvent, destinationRequestEvent));
+            }
+        }
+        try (final var journal = MappedEventJournal.open(path, header, clock, 256)) {
+            journal.appendRestore();
+            final var carStateEvent = new CarStateEvent("ECar 2", "WAITING", 3);
+            journal.append(carStateEvent);
+            written.add(carStateEvent);
+        }
+
+        final List<JournalEntry> entries = new ArrayList<>();
+        try (final var reader = new JournalReader(path)) {
+            assertThat(reader.getHeader()).isEqualTo(header);
+            reader.read(entries::add);
+        }
+
+        assertThat(entries.stream().map(JournalEntry::event).filter(JournalEntry.Marker.class::isInstance))
+                .containsExactly(JournalEntry.Marker.BOOT, JournalEntry.Marker.RESTORE);
+        assertThat(entries.stream().map(JournalEntry::event).filter(event -> !(event instanceof JournalEntry.Marker)))
+                .containsExactlyElementsOf(written);
+        assertThat(entries).allSatisfy(entry -> assertThat(entry.time()).isEqualTo(clock.instant()));
+    }
+
+    @Test
+    void testRejectsRecordsLargerThanARegion() throws Exception {
+        final var clock = Clock.fixed(Instant.parse("2025-03-01T08:15:30Z"), ZoneOffset.UTC);
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        final Set<Integer> everyFloor = new HashSet<>();
+        for (int floor = 0; floor < 64; floor++) {
+            everyFloor.add(floor);
+        }
+        final var carStateEvent = new CarStateEvent("Car 1", "WAITING", 0);
+        try (final var journal = MappedEventJournal.open(path, header, clock, 256)) {
+            final var position = journal.getPosition();
+            assertThatThrownBy(() -> journal.append(new FloorsRequestEvent(serviceRequestEvent, everyFloor)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("does not fit");
+            assertThat(journal.getPosition()).isEqualTo(position);
+            journal.append(carStateEvent);
+        }
+
+        final List<JournalEntry> entries = new ArrayList<>();
+        try (final var reader = new JournalReader(path)) {
+            reader.read(entries::add);
+        }
+        assertThat(entries).extracting(JournalEntry::event).containsExactly(carStateEvent);
+    }
+
+    @Test
+    void testRejectsJournalOfAnotherBuilding() throws Exception {
+        final var clock = Clock.systemUTC();
+        MappedEventJournal.open(path, header, clock).close();
+
+        final var otherBuilding = new JournalHeader(20, header.dispatcher(), header.parking(), header.collectiveControl(), header.cars());
+        assertThatThrownBy(() -> MappedEventJournal.open(path, otherBuilding, clock))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testReplayReproducesJournaledRun() throws Exception {
+        final var scheduler = new VirtualTimeTaskScheduler(Instant.parse("2025-03-01T08:00:00Z"));
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.setElevators(List.of("StandardCar", "ExpressCar"));
+        final List<Car> cars = new FleetFactory().createCars(configuration.getElevators(), scheduler);
+        final var journal = MappedEventJournal.open(path, JournalHeader.of(10, "LowestCostDispatcher", cars), scheduler.getClock());
+        journal.appendBoot();
+        final var service = new NonBlockingElevatorService(configuration, cars, new LowestCostDispatcher(), scheduler.getClock(), new SimpleMeterRegistry(), journal);
+        final var random = new Random(5L);
+        service.addRiderCueListener(riderCueEvent -> scheduler.schedule(
+                () -> service.processFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(random.nextInt(11)))),
+                scheduler.now().plusMillis(1_500L + random.nextInt(2_000))
+        ));
+
+        for (int i = 0; i < 30; i++) {
+            scheduler.runFor(Duration.ofMillis(random.nextInt(20_000)));
+            final var floor = random.nextInt(11);
+            final var direction = floor == 10 || (floor > 0 && random.nextBoolean()) ? Direction.DESCENDING : Direction.ASCENDING;
+            service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), direction, floor));
+        }
+        while (scheduler.runNext()) {
+            // finish every trip
+        }
+        journal.close();
+
+        final var report = new JournalReplayer(path).replay();
+
+        assertThat(report.firstDivergence()).isNull();
+        assertThat(report.requestsReplayed()).isGreaterThan(30);
+        assertThat(report.eventsReplayed()).isEqualTo(report.eventsJournaled()).isGreaterThan(60);
+    }
+
+    @Test
+    void testReplayReproducesDestinationDispatch() throws Exception {
+        final var scheduler = new VirtualTimeTaskScheduler(Instant.parse("2025-03-01T08:00:00Z"));
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.setElevators(List.of("StandardCar", "StandardCar"));
+        final List<Car> cars = new FleetFactory().createCars(configuration.getElevators(), scheduler);
+        final var journal = MappedEventJournal.open(path, JournalHeader.of(10, "DestinationDispatcher", cars), scheduler.getClock());
+        journal.appendBoot();
+        final var service = new NonBlockingElevatorService(configuration, cars, new DestinationDispatcher(), scheduler.getClock(), new SimpleMeterRegistry(), journal);
+        final var random = new Random(7L);
+
+        for (int i = 0; i < 30; i++) {
+            scheduler.runFor(Duration.ofMillis(random.nextInt(20_000)));
+            final var origin = random.nextInt(11);
+            final var destination = (origin + 1 + random.nextInt(10)) % 11;
+            final var direction = destination > origin ? Direction.ASCENDING : Direction.DESCENDING;
+            service.processDestinationRequest(new DestinationRequestEvent(new ServiceRequestEvent(UUID.randomUUID(), direction, origin), destination));
+        }
+        while (scheduler.runNext()) {
+            // finish every trip
+        }
+        journal.close();
+
+        final var report = new JournalReplayer(path).replay();
+
+        assertThat(report.firstDivergence()).isNull();
+        assertThat(report.requestsReplayed()).isEqualTo(30);
+        assertThat(report.eventsReplayed()).isEqualTo(report.eventsJournaled()).isGreaterThan(60);
+    }
+
+    @Test
+    void testReplayReproducesParking() throws Exception {
+        final var scheduler = new VirtualTimeTaskScheduler(Instant.parse("2025-03-01T08:00:00Z"));
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.setElevators(List.of("StandardCar", "ExpressCar"));
+        configuration.getParking().setEnabled(true);
+        final List<Car> cars = new FleetFactory().createCars(configuration.getElevators(), scheduler);
+        final var journal = MappedEventJournal.open(path, JournalHeader.of(10, "LowestCostDispatcher", true, false, cars), scheduler.getClock());
+        journal.appendBoot();
+        final var service = new NonBlockingElevatorService(configuration, cars, new LowestCostDispatcher(), scheduler.getClock(), new SimpleMeterRegistry(), journal);
+        service.addRiderCueListener(riderCueEvent -> scheduler.schedule(
+                () -> service.processFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(9))),
+                scheduler.now().plusSeconds(2L)
+        ));
+
+        // a morning rush from the lobby, which the idle cars learn to wait at
+        for (int i = 0; i < 30; i++) {
+            scheduler.runFor(Duration.ofSeconds(40L));
+            service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, i % 5 == 0 ? 3 : 0));
+        }
+        while (scheduler.runNext()) {
+            // finish every trip
+        }
+        journal.close();
+
+        final var report = new JournalReplayer(path).replay();
+
+        assertThat(report.firstDivergence()).isNull();
+        assertThat(report.eventsReplayed()).isEqualTo(report.eventsJournaled()).isGreaterThan(60);
+        assertThat(cars).extracting(car -> ((EventPublisherCar) car).getCurrentFloor()).contains(0);
+    }
+
+    @Test
+    void testReplayReproducesCollectiveControl() throws Exception {
+        final var scheduler = new VirtualTimeTaskScheduler(Instant.parse("2025-03-01T08:00:00Z"));
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.setElevators(List.of("StandardCar", "StandardCar"));
+        configuration.setCollectiveControl(true);
+        final List<Car> cars = new FleetFactory(Map.of(), true).createCars(configuration.getElevators(), scheduler);
+        final var journal = MappedEventJournal.open(path, JournalHeader.of(10, "LowestCostDispatcher", false, true, cars), scheduler.getClock());
+        journal.appendBoot();
+        final var service = new NonBlockingElevatorService(configuration, cars, new LowestCostDispatcher(), scheduler.getClock(), new SimpleMeterRegistry(), journal);
+        service.addRiderCueListener(riderCueEvent -> scheduler.schedule(
+                () -> service.processFloorsRequest(new FloorsRequestEvent(
+                        riderCueEvent.serviceRequestEvent(),
+                        Set.of(riderCueEvent.serviceRequestEvent().direction() == Direction.ASCENDING ? 9 : 0)
+                )),
+                scheduler.now().plusSeconds(2L)
+        ));
+
+        // calls both ways, which the cars store for their way back
+        for (int i = 0; i < 30; i++) {
+            scheduler.runFor(Duration.ofSeconds(7L));
+            final var floor = 1 + i * 7 % 8;
+            service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), i % 2 == 0 ? Direction.ASCENDING : Direction.DESCENDING, floor));
+        }
+        while (scheduler.runNext()) {
+            // finish every trip
+        }
+        journal.close();
+
+        final var report = new JournalReplayer(path).replay();
+
+        assertThat(report.firstDivergence()).isNull();
+        assertThat(report.eventsReplayed()).isEqualTo(report.eventsJournaled()).isGreaterThan(60);
+    }
+
+    @Test
+    void testReplayRebuildsExpressZones() throws Exception {
+        final var scheduler = new VirtualTimeTaskScheduler(Instant.parse("2025-03-01T08:00:00Z"));
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.setElevators(List.of("StandardCar", "ExpressCar"));
+        final var zone = new ExpressZone(0, 7, 10, Set.of(4));
+        final List<Car> cars = new FleetFactory(Map.of(), false, List.of(zone)).createCars(configuration.getElevators(), scheduler);
+        final var journalHeader = JournalHeader.of(10, "LowestCostDispatcher", cars);
+        final var journal = MappedEventJournal.open(path, journalHeader, scheduler.getClock());
+        journal.appendBoot();
+        final var service = new NonBlockingElevatorService(configuration, cars, new LowestCostDispatcher(), scheduler.getClock(), new SimpleMeterRegistry(), journal);
+        service.addRiderCueListener(riderCueEvent -> scheduler.schedule(
+                () -> service.processFloorsRequest(new FloorsRequestEvent(
+                        riderCueEvent.serviceRequestEvent(),
+                        Set.of(riderCueEvent.serviceRequestEvent().direction() == Direction.ASCENDING ? 9 : 0)
+                )),
+                scheduler.now().plusSeconds(2L)
+        ));
+
+        for (int i = 0; i < 30; i++) {
+            scheduler.runFor(Duration.ofSeconds(7L));
+            final var floor = i % 3 == 0 ? 0 : 1 + i * 7 % 9;
+            service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), floor == 0 ? Direction.ASCENDING : Direction.DESCENDING, floor));
+        }
+        while (scheduler.runNext()) {
+            // finish every trip
+        }
+        journal.close();
+
+        try (final var reader = new JournalReader(path)) {
+            assertThat(reader.getHeader()).isEqualTo(journalHeader);
+            assertThat(reader.getHeader().cars().get(1).zone()).isEqualTo(zone);
+        }
+        final var report = new JournalReplayer(path).replay();
+
+        assertThat(report.firstDivergence()).isNull();
+        assertThat(report.eventsReplayed()).isEqualTo(report.eventsJournaled()).isGreaterThan(60);
+    }
+
+    @Test
+    void testReplayReproducesFleetChanges() throws Exception {
+        final var scheduler = new VirtualTimeTaskScheduler(Instant.parse("2025-03-01T08:00:00Z"));
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.setElevators(List.of("StandardCar", "StandardCar"));
+        final var fleetFactory = new FleetFactory();
+        final List<Car> cars = fleetFactory.createCars(configuration.getElevators(), scheduler);
+        final var journal = MappedEventJournal.open(path, JournalHeader.of(10, "LowestCostDispatcher", cars), scheduler.getClock());
+        journal.appendBoot();
+        final var service = new NonBlockingElevatorService(
+                configuration,
+                cars,
+                new LowestCostDispatcher(),
+                scheduler.getClock(),
+                new SimpleMeterRegistry(),
+                journal,
+                elevatorType -> fleetFactory.createCar(elevatorType, scheduler)
+        );
+        service.addRiderCueListener(riderCueEvent -> scheduler.schedule(
+                () -> service.processFloorsRequest(new FloorsRequestEvent(
+                        riderCueEvent.serviceRequestEvent(),
+                        Set.of(riderCueEvent.serviceRequestEvent().direction() == Direction.ASCENDING ? 9 : 0)
+                )),
+                scheduler.now().plusSeconds(2L)
+        ));
+
+        for (int i = 0; i < 40; i++) {
+            scheduler.runFor(Duration.ofSeconds(5L));
+            switch (i) {
+                case 5 -> assertThat(service.addCar("StandardCar")).isCompletedWithValue("Car 3");
+                case 12 -> assertThat(service.drainCar("Car 1")).isCompletedWithValue(true);
+                case 18 -> service.setNumberOfFloors(12);
+                case 30 -> assertThat(service.removeCar("Car 1")).isCompletedWithValue(true);
+                default -> {
+                    // no change
+                }
+            }
+            final var floor = i % 3 == 0 ? 0 : 1 + i * 7 % 9;
+            service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), floor == 0 ? Direction.ASCENDING : Direction.DESCENDING, floor));
+        }
+        while (scheduler.runNext()) {
+            // finish every trip
+        }
+        journal.close();
+
+        final List<CarStateEvent> addedCarStates = new ArrayList<>();
+        try (final var reader = new JournalReader(path)) {
+            reader.read(entry -> {
+                if (entry.event() instanceof CarStateEvent carStateEvent && carStateEvent.carName().equals("Car 3")) {
+                    addedCarStates.add(carStateEvent);
+                }
+            });
+        }
+        final var report = new JournalReplayer(path).replay();
+
+        assertThat(addedCarStates).isNotEmpty();
+        assertThat(report.firstDivergence()).isNull();
+        assertThat(report.eventsReplayed()).isEqualTo(report.eventsJournaled()).isGreaterThan(80);
+    }
+}
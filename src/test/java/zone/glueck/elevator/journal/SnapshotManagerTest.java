@@ -0,0 +1,102 @@
+package zone.glueck.elevator.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.configs.FleetFactory;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.service.LowestCostDispatcher;
+import zone.glueck.elevator.service.NonBlockingElevatorService;
+import zone.glueck.elevator.utils.Direction;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotManagerTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testRestoredFleetCarriesOnLikeTheUninterruptedOne() throws Exception {
+        final var journalPath = directory.resolve("elevator.journal");
+        final var store = new SnapshotStore(directory.resolve("elevator.snapshot"));
+        final var scheduler = new VirtualTimeTaskScheduler(Instant.parse("2025-03-01T08:00:00Z"));
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.setElevators(List.of("StandardCar", "ExpressCar", "StandardCar"));
+        final List<Car> cars = new FleetFactory().createCars(configuration.getElevators(), scheduler);
+        final var journal = MappedEventJournal.open(journalPath, JournalHeader.of(10, "LowestCostDispatcher", cars), scheduler.getClock());
+        journal.appendBoot();
+        final var service = new NonBlockingElevatorService(configuration, cars, new LowestCostDispatcher(), scheduler.getClock(), new SimpleMeterRegistry(), journal);
+
+        // the application stops at the crash, the fleet without it shows where the restored fleet should be
+        final var crash = scheduler.now().plus(Duration.ofMinutes(2L));
+        final var random = new Random(9L);
+        service.addRiderCueListener(riderCueEvent -> scheduler.schedule(() -> {
+            if (scheduler.now().isBefore(crash)) {
+                service.processFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(random.nextInt(11))));
+            }
+        }, scheduler.now().plusMillis(1_500L + random.nextInt(2_000))));
+        for (int i = 0; i < 6; i++) {
+            service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, i));
+            scheduler.runFor(Duration.ofSeconds(5L));
+        }
+        store.write(service.snapshot(scheduler.now()));
+        while (scheduler.now().isBefore(crash)) {
+            final var floor = random.nextInt(11);
+            final var direction = floor == 10 || (floor > 0 && random.nextBoolean()) ? Direction.DESCENDING : Direction.ASCENDING;
+            service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), direction, floor));
+            scheduler.runUntil(min(crash, scheduler.now().plusMillis(random.nextInt(6_000))));
+        }
+        journal.close();
+
+        final var restartedAt = crash.plusSeconds(2L);
+        scheduler.runUntil(restartedAt);
+        final var expected = service.snapshot(restartedAt);
+
+        final var caughtUp = SnapshotManager.catchUp(journalPath, store, restartedAt);
+
+        assertThat(caughtUp).isNotNull();
+        assertThat(caughtUp.cars()).isEqualTo(expected.cars());
+        assertThat(caughtUp.pendingServiceRequests()).isEqualTo(expected.pendingServiceRequests());
+
+        final var restartedScheduler = new VirtualTimeTaskScheduler(restartedAt);
+        final var restarted = new NonBlockingElevatorService(
+                configuration,
+                new FleetFactory().createCars(configuration.getElevators(), restartedScheduler),
+                new LowestCostDispatcher(),
+                restartedScheduler.getClock()
+        );
+        restarted.restore(caughtUp);
+        final List<CarStateEvent> expectedStates = new ArrayList<>();
+        final List<CarStateEvent> restoredStates = new ArrayList<>();
+        service.addCarStateListener(expectedStates::add);
+        restarted.addCarStateListener(restoredStates::add);
+        while (scheduler.runNext()) {
+            // finish every trip
+        }
+        while (restartedScheduler.runNext()) {
+            // finish every trip
+        }
+
+        assertThat(restoredStates).isNotEmpty().isEqualTo(expectedStates);
+    }
+
+    private static Instant min(Instant first, Instant second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
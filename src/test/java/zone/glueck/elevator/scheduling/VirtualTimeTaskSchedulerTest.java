@@ -0,0 +1,89 @@
+package zone.glueck.elevator.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static zone.glueck.elevator.cars.EventPublisherCar.State.AVAILABLE;
+
+class VirtualTimeTaskSchedulerTest {
+
+    private VirtualTimeTaskScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new VirtualTimeTaskScheduler();
+    }
+
+    @Test
+    void testRunsTasksInTimeOrderWithoutWaiting() {
+        final List<String> order = new ArrayList<>();
+        scheduler.schedule(() -> order.add("late"), Instant.EPOCH.plus(Duration.ofDays(2L)));
+        scheduler.schedule(() -> order.add("early"), Instant.EPOCH.plusSeconds(3L));
+        scheduler.schedule(() -> order.add("tied"), Instant.EPOCH.plusSeconds(3L));
+
+        while (scheduler.runNext()) {
+            // drain
+        }
+
+        assertThat(order).containsExactly("early", "tied", "late");
+        assertThat(scheduler.now()).isEqualTo(Instant.EPOCH.plus(Duration.ofDays(2L)));
+    }
+
+    @Test
+    void testRunUntilStopsAtEndTime() {
+        final List<Instant> runs = new ArrayList<>();
+        scheduler.scheduleAtFixedRate(() -> runs.add(scheduler.now()), Duration.ofMinutes(1L));
+
+        scheduler.runFor(Duration.ofMinutes(5L).plusSeconds(30L));
+
+        assertThat(runs).hasSize(6);
+        assertThat(runs.getLast()).isEqualTo(Instant.EPOCH.plus(Duration.ofMinutes(5L)));
+        assertThat(scheduler.now()).isEqualTo(Instant.EPOCH.plus(Duration.ofMinutes(5L).plusSeconds(30L)));
+    }
+
+    @Test
+    void testCancelledTaskDoesNotRun() {
+        final List<String> order = new ArrayList<>();
+        final var future = scheduler.schedule(() -> order.add("cancelled"), Instant.EPOCH.plusSeconds(1L));
+
+        assertThat(future.cancel(false)).isTrue();
+        scheduler.runFor(Duration.ofSeconds(2L));
+
+        assertThat(order).isEmpty();
+        assertThat(future.isCancelled()).isTrue();
+    }
+
+    @Test
+    void testStandardCarTripInVirtualTime() {
+        final var car = new StandardCar(scheduler, "Car 1");
+        final List<RiderCueEvent> cues = new ArrayList<>();
+        car.setRiderCueEventConsumer(cues::add);
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2);
+
+        car.processServiceRequest(serviceRequestEvent);
+        scheduler.runNext();
+
+        assertThat(cues).hasSize(1);
+        assertThat(scheduler.now()).isEqualTo(Instant.EPOCH.plusSeconds(6L));
+
+        car.processFloorsRequest(new FloorsRequestEvent(serviceRequestEvent, Set.of(10)));
+        scheduler.runNext();
+
+        assertThat(car.getState()).isEqualTo(AVAILABLE);
+        assertThat(car.getCurrentFloor()).isEqualTo(10);
+        assertThat(scheduler.now()).isEqualTo(Instant.EPOCH.plusSeconds(30L));
+    }
+}
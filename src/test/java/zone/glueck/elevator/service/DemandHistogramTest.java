@@ -0,0 +1,54 @@
+package zone.glueck.elevator.service;
+
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DemandHistogramTest {
+
+    private static final Instant MORNING = Instant.parse("2025-03-03T08:05:00Z");
+
+    private static final Instant EVENING = Instant.parse("2025-03-03T17:05:00Z");
+
+    @Test
+    void testHotFloorsFollowTheTimeOfDay() {
+        final var histogram = new DemandHistogram(10, ZoneOffset.UTC);
+        for (int day = 0; day < 5; day++) {
+            final var offset = Duration.ofDays(day);
+            for (int i = 0; i < 6; i++) {
+                histogram.record(call(Direction.ASCENDING, 0), MORNING.plus(offset));
+                histogram.record(call(Direction.DESCENDING, 8 + i % 2), EVENING.plus(offset));
+            }
+            histogram.record(call(Direction.DESCENDING, 5), MORNING.plus(offset));
+        }
+
+        final var nextDay = Duration.ofDays(5L);
+        assertThat(histogram.hotFloors(MORNING.plus(nextDay).minusSeconds(300L), 1.0)).containsExactly(0, 5);
+        assertThat(histogram.hotFloors(EVENING.plus(nextDay).minusSeconds(300L), 1.0)).containsExactly(8, 9);
+        assertThat(histogram.hotFloors(Instant.parse("2025-03-08T12:00:00Z"), 1.0)).isEmpty();
+    }
+
+    @Test
+    void testOlderDaysCountLess() {
+        final var histogram = new DemandHistogram(10, ZoneOffset.UTC);
+        histogram.record(call(Direction.ASCENDING, 0), MORNING);
+
+        assertThat(histogram.demand(0, MORNING)).isEqualTo(1.0);
+        assertThat(histogram.demand(0, MORNING.plus(DemandHistogram.HALF_LIFE))).isCloseTo(0.5, within(1e-9));
+
+        histogram.record(call(Direction.ASCENDING, 0), MORNING.plus(DemandHistogram.HALF_LIFE));
+        assertThat(histogram.demand(0, MORNING.plus(DemandHistogram.HALF_LIFE))).isCloseTo(1.5, within(1e-9));
+    }
+
+    private static ServiceRequestEvent call(Direction direction, int floor) {
+        return new ServiceRequestEvent(UUID.randomUUID(), direction, floor);
+    }
+}
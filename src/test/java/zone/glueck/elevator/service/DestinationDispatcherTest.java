@@ -0,0 +1,82 @@
+package zone.glueck.elevator.service;
+
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.cars.EventPublisherCar;
+import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DestinationDispatcherTest {
+
+    @Test
+    void testGroupsRidersGoingToTheSameFloor() {
+        final var scheduler = new VirtualTimeTaskScheduler();
+        final var idle = new StandardCar(scheduler, "Car 1");
+        final var stoppingAtSix = new StandardCar(scheduler, "Car 2");
+        stoppingAtSix.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2));
+        stoppingAtSix.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 6));
+        scheduler.runFor(Duration.ofSeconds(1L));
+
+        final var toSix = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+
+        // the idle car arrives a little sooner, but would have to make one more stop on the way up
+        assertThat(idle.estimateTimeToArrival(toSix)).isLessThan(stoppingAtSix.estimateTimeToArrival(toSix));
+        assertThat(new DestinationDispatcher().dispatch(toSix, 6, List.of(idle, stoppingAtSix))).isSameAs(stoppingAtSix);
+    }
+
+    @Test
+    void testGroupsRidersFromTheSameFloorGoingToTheSameFloor() {
+        final var scheduler = new VirtualTimeTaskScheduler();
+        final var first = new StandardCar(scheduler, "Car 1");
+        final var second = new StandardCar(scheduler, "Car 2");
+        final List<RiderCueEvent> cued = new ArrayList<>();
+        for (StandardCar car : List.of(first, second)) {
+            car.setRiderCueEventConsumer(riderCueEvent -> {
+                cued.add(riderCueEvent);
+                car.processFloorsRequest(new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(6)));
+            });
+        }
+        final var dispatcher = new DestinationDispatcher();
+
+        final var rider = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+        assertThat(dispatcher.dispatch(rider, 6, List.of(first, second))).isSameAs(first);
+        assertThat(first.isStoppingAt(6)).isTrue();
+
+        final var otherRider = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+        assertThat(dispatcher.dispatch(otherRider, 6, List.of(second, first))).isSameAs(first);
+
+        while (scheduler.runNext()) {
+            // deliver both riders
+        }
+        assertThat(cued).extracting(RiderCueEvent::serviceRequestEvent).containsExactly(rider, otherRider);
+        assertThat(cued).extracting(RiderCueEvent::carId).containsOnly("Car 1");
+        assertThat(first.getCurrentFloor()).isEqualTo(6);
+        assertThat(second.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+        assertThat(second.getCurrentFloor()).isZero();
+    }
+
+    @Test
+    void testDispatchesToTheNearestCarWhenNoneStopsAtTheDestination() {
+        final var scheduler = new VirtualTimeTaskScheduler();
+        final var idle = new StandardCar(scheduler, "Car 1");
+        final var stoppingAtSix = new StandardCar(scheduler, "Car 2");
+        stoppingAtSix.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2));
+        stoppingAtSix.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 6));
+        scheduler.runFor(Duration.ofSeconds(1L));
+
+        final var toEight = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+
+        assertThat(new DestinationDispatcher().dispatch(toEight, 8, List.of(idle, stoppingAtSix))).isSameAs(idle);
+    }
+}
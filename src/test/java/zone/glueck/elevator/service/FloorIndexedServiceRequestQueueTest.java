@@ -0,0 +1,73 @@
+package zone.glueck.elevator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FloorIndexedServiceRequestQueueTest {
+
+    private FloorIndexedServiceRequestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new FloorIndexedServiceRequestQueue();
+    }
+
+    @Test
+    void testPollNearestIgnoresArrivalOrder() {
+        final var far = request(Direction.DESCENDING, 30);
+        final var near = request(Direction.ASCENDING, 6);
+        queue.add(far);
+        queue.add(near);
+
+        assertThat(queue.pollNearest(4)).isEqualTo(near);
+        assertThat(queue.pollNearest(4)).isEqualTo(far);
+        assertThat(queue.pollNearest(4)).isNull();
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testPollNearestSkipsFloorsTheCarDoesNotServe() {
+        final var unserved = request(Direction.ASCENDING, 5);
+        final var below = request(Direction.DESCENDING, 1);
+        final var above = request(Direction.ASCENDING, 9);
+        List.of(unserved, below, above).forEach(queue::add);
+
+        assertThat(queue.pollNearest(4, floor -> floor > 6)).isEqualTo(above);
+        assertThat(queue.pollNearest(4, floor -> floor > 6)).isNull();
+        assertThat(queue.pollNearest(4, floor -> floor != 5)).isEqualTo(below);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testClaimOnTheWayOffersOnlyCompatibleRequestsInTravelOrder() {
+        final var furthest = request(Direction.DESCENDING, 2);
+        final var opposite = request(Direction.ASCENDING, 3);
+        final var first = request(Direction.DESCENDING, 7);
+        final var second = request(Direction.DESCENDING, 4);
+        final var rejected = request(Direction.DESCENDING, 5);
+        List.of(furthest, opposite, first, second, rejected).forEach(queue::add);
+
+        final List<ServiceRequestEvent> offered = new ArrayList<>();
+        queue.claimOnTheWay(Direction.DESCENDING, 8, serviceRequestEvent -> {
+            offered.add(serviceRequestEvent);
+            return serviceRequestEvent != rejected;
+        });
+
+        assertThat(offered).containsExactly(first, rejected, second, furthest);
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(queue.pollNearest(5)).isEqualTo(rejected);
+        assertThat(queue.pollNearest(5)).isEqualTo(opposite);
+    }
+
+    private static ServiceRequestEvent request(Direction direction, int floor) {
+        return new ServiceRequestEvent(UUID.randomUUID(), direction, floor);
+    }
+}
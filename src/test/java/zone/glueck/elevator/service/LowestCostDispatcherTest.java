@@ -0,0 +1,113 @@
+package zone.glueck.elevator.service;
+
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LowestCostDispatcherTest {
+
+    private static final int NUMBER_OF_FLOORS = 20;
+
+    private static final int NUMBER_OF_CARS = 4;
+
+    @Test
+    void testDispatchesToNearestCar() {
+        final var scheduler = new VirtualTimeTaskScheduler();
+        final var far = new StandardCar(scheduler, "Car 1");
+        final var near = new StandardCar(scheduler, "Car 2");
+        near.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 10));
+        scheduler.runNext();
+
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 12);
+
+        assertThat(new LowestCostDispatcher().dispatch(serviceRequestEvent, List.of(far, near))).isSameAs(near);
+    }
+
+    @Test
+    void testReducesMeanAndP95WaitTime() {
+        final var firstAccept = simulateWaitTimes(new FirstAcceptDispatcher());
+        final var lowestCost = simulateWaitTimes(new LowestCostDispatcher());
+
+        assertThat(mean(lowestCost)).isLessThan(mean(firstAccept));
+        assertThat(percentile(lowestCost, 0.95)).isLessThan(percentile(firstAccept, 0.95));
+    }
+
+    /**
+     * Replays the same seeded hall calls against a fleet in virtual time and collects each call's wait from request to
+     * rider cue, in seconds.
+     */
+    private List<Long> simulateWaitTimes(Dispatcher dispatcher) {
+        final var scheduler = new VirtualTimeTaskScheduler();
+        final List<Car> cars = new ArrayList<>();
+        for (int i = 1; i <= NUMBER_OF_CARS; i++) {
+            cars.add(new StandardCar(scheduler, "Car " + i));
+        }
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(NUMBER_OF_FLOORS);
+        final var service = new NonBlockingElevatorService(configuration, cars, dispatcher, scheduler.getClock());
+
+        final var random = new Random(42L);
+        final Map<UUID, Instant> requestTimes = new HashMap<>();
+        final Set<String> litButtons = new HashSet<>();
+        final List<Long> waits = new ArrayList<>();
+
+        service.addRiderCueListener(riderCueEvent -> {
+            final var request = riderCueEvent.serviceRequestEvent();
+            waits.add(Duration.between(requestTimes.remove(request.id()), scheduler.now()).toSeconds());
+            litButtons.remove(request.originationFloor() + "" + request.direction());
+            final var destination = request.direction() == Direction.ASCENDING ?
+                    request.originationFloor() + 1 + random.nextInt(NUMBER_OF_FLOORS - request.originationFloor()) :
+                    random.nextInt(request.originationFloor());
+            scheduler.schedule(
+                    () -> service.processFloorsRequest(new FloorsRequestEvent(request, Set.of(destination))),
+                    scheduler.now().plusSeconds(2L)
+            );
+        });
+
+        var arrival = Instant.EPOCH;
+        for (int i = 0; i < 400; i++) {
+            arrival = arrival.plusMillis((long) (-Math.log(1.0 - random.nextDouble()) * 15_000L));
+            final var floor = random.nextInt(NUMBER_OF_FLOORS + 1);
+            final var direction = floor == NUMBER_OF_FLOORS || (floor > 0 && random.nextBoolean()) ?
+                    Direction.DESCENDING : Direction.ASCENDING;
+            scheduler.schedule(() -> {
+                if (litButtons.add(floor + "" + direction)) {
+                    final var request = new ServiceRequestEvent(UUID.randomUUID(), direction, floor);
+                    requestTimes.put(request.id(), scheduler.now());
+                    service.processServiceRequest(request);
+                }
+            }, arrival);
+        }
+
+        scheduler.runUntil(arrival.plus(Duration.ofHours(1L)));
+        assertThat(requestTimes).isEmpty();
+        return waits;
+    }
+
+    private static double mean(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).average().orElseThrow();
+    }
+
+    private static long percentile(List<Long> values, double percentile) {
+        final var sorted = values.stream().sorted().toList();
+        return sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+    }
+}
@@ -0,0 +1,368 @@
+package zone.glueck.elevator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.cars.Car;
+import zone.glueck.elevator.cars.EventPublisherCar;
+import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+import zone.glueck.elevator.events.CarStateEvent;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.RiderCueEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.journal.NoOpEventJournal;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NonBlockingElevatorServiceTest {
+
+    private VirtualTimeTaskScheduler scheduler;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private NonBlockingElevatorService service;
+
+    private StandardCar car;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new VirtualTimeTaskScheduler();
+        meterRegistry = new SimpleMeterRegistry();
+        car = new StandardCar(scheduler, "Car 1");
+        final List<Car> cars = List.of(car);
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        service = new NonBlockingElevatorService(configuration, cars, new LowestCostDispatcher(), scheduler.getClock(), meterRegistry);
+        service.addRiderCueListener(riderCueEvent -> service.processFloorsRequest(
+                new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(riderCueEvent.serviceRequestEvent().originationFloor() + 2))
+        ));
+    }
+
+    @Test
+    void testRecordsRequestAndTravelMetrics() {
+        service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3));
+        service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 1));
+
+        assertThat(meterRegistry.get("elevator.dispatch").timer().count()).isEqualTo(2L);
+        assertThat(meterRegistry.get("elevator.service.requests.pending").gauge().value()).isEqualTo(1.0);
+
+        while (scheduler.runNext()) {
+            // run both trips
+        }
+
+        assertThat(meterRegistry.get("elevator.service.request.wait").timer().count()).isEqualTo(2L);
+        assertThat(meterRegistry.get("elevator.floors.request.travel").timer().count()).isEqualTo(2L);
+        assertThat(meterRegistry.get("elevator.service.requests.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void testMeasuresWaitsOnTheSchedulerClock() {
+        final var requested = scheduler.now();
+        final List<Instant> cued = new ArrayList<>();
+        service.addRiderCueListener(riderCueEvent -> cued.add(scheduler.now()));
+
+        service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 5));
+        while (scheduler.runNext()) {
+            // run the trip
+        }
+
+        final var wait = Duration.between(requested, cued.getFirst());
+        assertThat(wait).isPositive();
+        assertThat(meterRegistry.get("elevator.service.request.wait").timer().totalTime(TimeUnit.NANOSECONDS))
+                .isEqualTo((double) wait.toNanos());
+    }
+
+    @Test
+    void testRecordsTimeInEachState() {
+        service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4));
+        while (scheduler.runNext()) {
+            // run the trip
+        }
+
+        final var moving = meterRegistry.get("elevator.car.state.time").tags("car", "Car 1", "state", "MOVING").functionCounter();
+        assertThat(moving.count()).isEqualTo(18.0);
+    }
+
+    @Test
+    void testTracksActiveServiceRequests() {
+        final var cued = new ArrayList<ServiceRequestEvent>();
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        final var car = new StandardCar(scheduler, "Car 1");
+        final var indexed = new NonBlockingElevatorService(configuration, List.of(car), new LowestCostDispatcher(), scheduler.getClock(), new SimpleMeterRegistry());
+        indexed.addRiderCueListener(riderCueEvent -> cued.add(riderCueEvent.serviceRequestEvent()));
+
+        final var first = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2);
+        final var onTheWay = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4);
+        indexed.processServiceRequest(first);
+        indexed.processServiceRequest(onTheWay);
+
+        assertThat(indexed.isActiveServiceRequest(first.id())).isTrue();
+        assertThat(indexed.isActiveServiceRequest(onTheWay.id())).isTrue();
+
+        scheduler.runNext();
+        indexed.processFloorsRequest(new FloorsRequestEvent(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2), Set.of(8)));
+        assertThat(car.getState()).isEqualTo(EventPublisherCar.State.WAITING);
+
+        indexed.processFloorsRequest(new FloorsRequestEvent(cued.getFirst(), Set.of(8)));
+        assertThat(indexed.isActiveServiceRequest(first.id())).isFalse();
+        assertThat(indexed.isActiveServiceRequest(onTheWay.id())).isTrue();
+    }
+
+    @Test
+    void testProcessesBatchAsOneUnit() {
+        final var waiting = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0);
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        final var car = new StandardCar(scheduler, "Car 1");
+        final var batchedRegistry = new SimpleMeterRegistry();
+        final var batched = new NonBlockingElevatorService(configuration, List.of(car), new LowestCostDispatcher(), scheduler.getClock(), batchedRegistry);
+        batched.processServiceRequest(waiting);
+        scheduler.runNext();
+
+        final var onTheWay = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 8);
+        final var opposite = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 2);
+        batched.processBatch(List.of(onTheWay, opposite), List.of(new FloorsRequestEvent(waiting, Set.of(6))));
+
+        assertThat(batched.isActiveServiceRequest(waiting.id())).isFalse();
+        assertThat(batched.isActiveServiceRequest(onTheWay.id())).isTrue();
+        assertThat(batched.isActiveServiceRequest(opposite.id())).isFalse();
+        assertThat(batchedRegistry.get("elevator.service.requests.pending").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testDestinationCallsNeedNoFloorsRequest() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        final var car = new StandardCar(scheduler, "Car 1");
+        final var destinationRegistry = new SimpleMeterRegistry();
+        final var destinationService = new NonBlockingElevatorService(configuration, List.of(car), new DestinationDispatcher(), scheduler.getClock(), destinationRegistry);
+        final List<CarStateEvent> states = new ArrayList<>();
+        destinationService.addCarStateListener(states::add);
+
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3);
+        final var assigned = destinationService.processDestinationRequest(new DestinationRequestEvent(serviceRequestEvent, 7));
+        assertThat(assigned).isCompletedWithValue("Car 1");
+
+        while (scheduler.runNext()) {
+            // run the trip
+        }
+
+        assertThat(states).contains(new CarStateEvent("Car 1", "WAITING", 3), new CarStateEvent("Car 1", "AVAILABLE", 7));
+        assertThat(destinationService.isActiveServiceRequest(serviceRequestEvent.id())).isFalse();
+        assertThat(destinationRegistry.get("elevator.floors.request.travel").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    void testQueuedDestinationCallsAreAssignedNoCar() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        final var car = new StandardCar(scheduler, "Car 1");
+        final var destinationService = new NonBlockingElevatorService(configuration, List.of(car), new DestinationDispatcher(), scheduler.getClock());
+        destinationService.processDestinationRequest(new DestinationRequestEvent(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3), 7));
+
+        final var opposite = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 8);
+        assertThat(destinationService.processDestinationRequest(new DestinationRequestEvent(opposite, 1))).isCompletedWithValue(null);
+
+        while (scheduler.runNext()) {
+            // run both trips
+        }
+
+        assertThat(car.getCurrentFloor()).isEqualTo(1);
+        assertThat(car.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+    }
+
+    @Test
+    void testParksIdleCarsWhereCallsAreExpected() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        configuration.getParking().setEnabled(true);
+        final var first = new StandardCar(scheduler, "Car 1");
+        final var second = new StandardCar(scheduler, "Car 2");
+        final var parking = new NonBlockingElevatorService(configuration, List.of(first, second), new LowestCostDispatcher(), scheduler.getClock());
+        parking.addRiderCueListener(riderCueEvent -> parking.processFloorsRequest(
+                new FloorsRequestEvent(riderCueEvent.serviceRequestEvent(), Set.of(riderCueEvent.serviceRequestEvent().originationFloor() + 3))
+        ));
+
+        // the same calls every few minutes, the lobby busiest
+        for (int i = 0; i < 4; i++) {
+            parking.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0));
+            parking.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 4));
+            parking.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 0));
+            scheduler.runFor(Duration.ofMinutes(2L));
+        }
+
+        assertThat(first.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+        assertThat(second.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+        assertThat(List.of(first.getCurrentFloor(), second.getCurrentFloor())).containsExactlyInAnyOrder(0, 4);
+    }
+
+    @Test
+    void testAddedCarTakesQueuedCalls() {
+        final var car = new StandardCar(scheduler, "Car 1");
+        final var added = new StandardCar(scheduler, "Car 2");
+        final var registry = new SimpleMeterRegistry();
+        final var growing = new NonBlockingElevatorService(
+                tenFloors(),
+                List.of(car),
+                new FirstAcceptDispatcher(),
+                scheduler.getClock(),
+                registry,
+                new NoOpEventJournal(),
+                elevatorType -> "StandardCar".equals(elevatorType) ? added : null
+        );
+        final var busy = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3);
+        final var queued = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 6);
+        growing.processServiceRequest(busy);
+        growing.processServiceRequest(queued);
+        assertThat(registry.get("elevator.service.requests.pending").gauge().value()).isEqualTo(1.0);
+
+        assertThat(growing.addCar("ExpressElevator")).isCompletedWithValue(null);
+        assertThat(growing.addCar("StandardCar")).isCompletedWithValue("Car 2");
+
+        assertThat(growing.getElevatorNames()).containsExactly("Car 1", "Car 2");
+        assertThat(registry.get("elevator.service.requests.pending").gauge().value()).isZero();
+        assertThat(added.getState()).isEqualTo(EventPublisherCar.State.MOVING);
+        assertThat(added.isStoppingAt(6)).isTrue();
+    }
+
+    @Test
+    void testDrainedCarHandsItsCallsToTheOtherCars() {
+        final var cued = new ArrayList<RiderCueEvent>();
+        final var drained = new StandardCar(scheduler, "Car 1");
+        final var other = new StandardCar(scheduler, "Car 2");
+        final var registry = new SimpleMeterRegistry();
+        final var shrinking = new NonBlockingElevatorService(
+                tenFloors(),
+                List.of(drained, other),
+                new FirstAcceptDispatcher(),
+                scheduler.getClock(),
+                registry
+        );
+        final var boarding = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2);
+        final var onTheWay = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 5);
+        shrinking.addRiderCueListener(riderCueEvent -> {
+            cued.add(riderCueEvent);
+            if (riderCueEvent.serviceRequestEvent().equals(onTheWay)) {
+                shrinking.processFloorsRequest(new FloorsRequestEvent(onTheWay, Set.of(8)));
+            }
+        });
+        shrinking.processServiceRequest(boarding);
+        scheduler.runNext();
+        shrinking.processServiceRequest(onTheWay);
+        shrinking.processFloorsRequest(new FloorsRequestEvent(boarding, Set.of(9)));
+        assertThat(drained.isStoppingAt(5)).isTrue();
+        assertThat(other.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+
+        assertThat(shrinking.drainCar("Car 9")).isCompletedWithValue(false);
+        assertThat(shrinking.drainCar("Car 1")).isCompletedWithValue(true);
+
+        assertThat(other.isStoppingAt(5)).isTrue();
+        assertThat(drained.isStoppingAt(9)).isTrue();
+        assertThat(shrinking.removeCar("Car 1")).isCompletedExceptionally();
+
+        while (scheduler.runNext()) {
+            // finish both trips
+        }
+
+        assertThat(cued).extracting(RiderCueEvent::carId).containsExactly("Car 1", "Car 2");
+        assertThat(shrinking.removeCar("Car 1")).isCompletedWithValue(true);
+        assertThat(shrinking.getElevatorNames()).containsExactly("Car 2");
+        assertThat(registry.find("elevator.car.state.time").tag("car", "Car 1").meters()).isEmpty();
+
+        shrinking.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 7));
+        assertThat(other.getState()).isEqualTo(EventPublisherCar.State.MOVING);
+        assertThat(drained.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+    }
+
+    @Test
+    void testRemovesOnlyDrainedCars() {
+        assertThat(service.removeCar("Car 2")).isCompletedWithValue(false);
+        assertThat(service.removeCar("Car 1"))
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class);
+        assertThat(service.getElevatorNames()).containsExactly("Car 1");
+    }
+
+    @Test
+    void testResizesTheBuilding() {
+        assertThat(service.setNumberOfFloors(20)).isCompleted();
+        assertThat(service.getNumberOfFloors()).isEqualTo(20);
+
+        assertThat(service.setNumberOfFloors(0)).isCompletedExceptionally();
+        assertThat(service.getNumberOfFloors()).isEqualTo(20);
+    }
+
+    @Test
+    void testShrinksOnlyOnceNothingIsLeftAboveTheNewTopFloor() {
+        service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 6));
+        service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 9));
+
+        assertThat(service.setNumberOfFloors(8)).failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalStateException.class)
+                .withMessageContaining("queued call from floor 9");
+        assertThat(service.setNumberOfFloors(5)).isCompletedExceptionally();
+        assertThat(service.getNumberOfFloors()).isEqualTo(10);
+
+        while (scheduler.runNext()) {
+            // answer both calls, the car ends up idle at floor 9
+        }
+
+        assertThat(service.setNumberOfFloors(5)).isCompleted();
+        assertThat(service.getNumberOfFloors()).isEqualTo(5);
+        while (scheduler.runNext()) {
+            // the idle car comes back into the building
+        }
+        assertThat(car.getCurrentFloor()).isEqualTo(5);
+        assertThat(car.getState()).isEqualTo(EventPublisherCar.State.AVAILABLE);
+    }
+
+    @Test
+    void testReportsTheStatusOfEachServiceRequest() {
+        final var assigned = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3);
+        final var pending = new ServiceRequestEvent(UUID.randomUUID(), Direction.DESCENDING, 1);
+        service.processServiceRequest(assigned);
+        service.processServiceRequest(pending);
+
+        final var assignedStatus = service.getServiceRequestStatus(assigned.id());
+        assertThat(assignedStatus.state()).isEqualTo(ServiceRequestStatus.State.ASSIGNED);
+        assertThat(assignedStatus.carId()).isEqualTo("Car 1");
+        assertThat(assignedStatus.expectedArrival()).isEqualTo(scheduler.now().plusSeconds(9L));
+        assertThat(service.getServiceRequestStatus(pending.id()).state()).isEqualTo(ServiceRequestStatus.State.PENDING);
+        assertThat(service.getServiceRequestStatus(UUID.randomUUID())).isNull();
+
+        // arrives, cues the rider, who asks for floor 5
+        scheduler.runNext();
+        final var riding = service.getServiceRequestStatus(assigned.id());
+        assertThat(riding.state()).isEqualTo(ServiceRequestStatus.State.IN_TRANSIT);
+        assertThat(riding.remainingFloors()).containsExactly(5);
+
+        while (scheduler.runNext()) {
+            // run both trips
+        }
+
+        assertThat(service.getServiceRequestStatus(assigned.id()).state()).isEqualTo(ServiceRequestStatus.State.COMPLETED);
+        assertThat(service.getServiceRequestStatus(pending.id()).state()).isEqualTo(ServiceRequestStatus.State.COMPLETED);
+    }
+
+    private static UserDefinedElevatorConfiguration tenFloors() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(10);
+        return configuration;
+    }
+}
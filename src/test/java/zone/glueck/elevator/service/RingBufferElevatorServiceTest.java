@@ -0,0 +1,143 @@
+package zone.glueck.elevator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.events.DestinationRequestEvent;
+import zone.glueck.elevator.events.FloorsRequestEvent;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.utils.Direction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RingBufferElevatorServiceTest {
+
+    private ExecutorService serviceThread;
+
+    private ElevatorService delegate;
+
+    @BeforeEach
+    void setUp() {
+        serviceThread = Executors.newSingleThreadExecutor();
+        delegate = mock(ElevatorService.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serviceThread.shutdownNow();
+    }
+
+    @Test
+    void testRunsEveryRequestInPublishOrderOnTheServiceThread() throws Exception {
+        final var producers = 4;
+        final var requestsPerProducer = 5_000;
+        final var done = new CountDownLatch(producers * requestsPerProducer);
+        final Map<Integer, List<Integer>> floorsByProducer = new HashMap<>();
+        final Set<Thread> threads = new HashSet<>();
+        doAnswer(invocation -> {
+            // each producer publishes its own range of floors, in ascending order
+            final int floor = invocation.<ServiceRequestEvent>getArgument(0).originationFloor();
+            threads.add(Thread.currentThread());
+            floorsByProducer.computeIfAbsent(floor / requestsPerProducer, producer -> new ArrayList<>()).add(floor);
+            done.countDown();
+            return null;
+        }).when(delegate).processServiceRequest(any());
+        // far smaller than the burst, so producers wrap around and wait for the service thread
+        final var service = new RingBufferElevatorService(delegate, serviceThread, 8);
+
+        final var producerThreads = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            final var firstFloor = p * requestsPerProducer;
+            producerThreads.execute(() -> {
+                for (int floor = firstFloor; floor < firstFloor + requestsPerProducer; floor++) {
+                    service.processServiceRequest(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, floor));
+                }
+            });
+        }
+        producerThreads.shutdown();
+
+        assertThat(done.await(10L, TimeUnit.SECONDS)).isTrue();
+        // the drain task records what it consumed after running the last request
+        serviceThread.submit(() -> { }).get();
+        assertThat(service.getBacklog()).isZero();
+        assertThat(threads).hasSize(1);
+        assertThat(floorsByProducer).hasSize(producers).allSatisfy((producer, floors) ->
+                assertThat(floors).isSorted().hasSize(requestsPerProducer));
+    }
+
+    @Test
+    void testKeepsOrderAcrossRequestTypes() throws Exception {
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2);
+        final var floorsRequestEvent = new FloorsRequestEvent(serviceRequestEvent, Set.of(5));
+        final var service = new RingBufferElevatorService(delegate, serviceThread, 16);
+
+        service.processServiceRequest(serviceRequestEvent);
+        service.processFloorsRequest(floorsRequestEvent);
+        service.processBatch(List.of(serviceRequestEvent), List.of(floorsRequestEvent));
+        serviceThread.submit(() -> { }).get();
+
+        final var order = inOrder(delegate);
+        order.verify(delegate).processServiceRequest(serviceRequestEvent);
+        order.verify(delegate).processFloorsRequest(floorsRequestEvent);
+        order.verify(delegate).processBatch(List.of(serviceRequestEvent), List.of(floorsRequestEvent));
+    }
+
+    @Test
+    void testPublishesAgainAfterTheExecutorRejectedTheDrain() throws Exception {
+        final var serviceRequestEvent = new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2);
+        final var rejectNext = new AtomicBoolean(true);
+        final Executor executor = task -> {
+            if (rejectNext.getAndSet(false)) {
+                throw new RejectedExecutionException("shutting down");
+            }
+            serviceThread.execute(task);
+        };
+        final var service = new RingBufferElevatorService(delegate, executor, 16);
+
+        assertThatThrownBy(() -> service.processServiceRequest(serviceRequestEvent)).isInstanceOf(RejectedExecutionException.class);
+        service.processServiceRequest(serviceRequestEvent);
+        serviceThread.submit(() -> { }).get();
+
+        verify(delegate, times(2)).processServiceRequest(serviceRequestEvent);
+        assertThat(service.getBacklog()).isZero();
+    }
+
+    @Test
+    void testCompletesDestinationRequestsWithTheAssignedCar() throws Exception {
+        final var assigned = new DestinationRequestEvent(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 2), 5);
+        final var failing = new DestinationRequestEvent(new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, 3), 5);
+        when(delegate.processDestinationRequest(assigned)).thenReturn(CompletableFuture.completedFuture("Car 1"));
+        when(delegate.processDestinationRequest(failing)).thenThrow(new IllegalStateException("no cars"));
+        final var service = new RingBufferElevatorService(delegate, serviceThread, 16);
+
+        final var assignedCar = service.processDestinationRequest(assigned);
+        final var failedCar = service.processDestinationRequest(failing);
+
+        assertThat(assignedCar.get(5L, TimeUnit.SECONDS)).isEqualTo("Car 1");
+        assertThatThrownBy(() -> failedCar.get(5L, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package zone.glueck.elevator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.cars.StandardCar;
+import zone.glueck.elevator.events.ServiceRequestEvent;
+import zone.glueck.elevator.scheduling.VirtualTimeTaskScheduler;
+import zone.glueck.elevator.utils.Direction;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceRequestIndexTest {
+
+    private VirtualTimeTaskScheduler scheduler;
+
+    private ServiceRequestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new VirtualTimeTaskScheduler();
+        index = new ServiceRequestIndex(scheduler.getClock(), 2, Duration.ofMinutes(1L));
+    }
+
+    @Test
+    void testEvictsTheOldestRequestsBeyondTheCapacity() {
+        final var requests = List.of(request(1), request(2), request(3));
+        requests.forEach(index::requested);
+
+        assertThat(index.get(requests.get(0).id())).isNull();
+        assertThat(index.get(requests.get(1).id())).isNotNull();
+        assertThat(index.get(requests.get(2).id())).isNotNull();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testForgetsRequestsThatHaveNotChangedForTheRetention() {
+        final var old = request(1);
+        index.requested(old);
+        scheduler.runFor(Duration.ofSeconds(61L));
+
+        assertThat(index.get(old.id())).isNull();
+
+        final var recent = request(2);
+        index.requested(recent);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get(recent.id()).state()).isEqualTo(ServiceRequestStatus.State.PENDING);
+    }
+
+    @Test
+    void testCompletesTheTripOnceTheCarStoppedAtEveryFloor() {
+        final var car = new StandardCar(scheduler, "Car 1");
+        final var request = request(0);
+        index.requested(request);
+        index.cued(request, "Car 1");
+        index.riding(request, "Car 1", Set.of(4, 7));
+
+        index.carChanged(car, 4, false);
+        assertThat(index.get(request.id()).remainingFloors()).containsExactly(7);
+
+        index.carChanged(car, 7, false);
+        final var status = index.get(request.id());
+        assertThat(status.state()).isEqualTo(ServiceRequestStatus.State.COMPLETED);
+        assertThat(status.carId()).isEqualTo("Car 1");
+    }
+
+    @Test
+    void testIgnoresChangesToEvictedRequests() {
+        final var request = request(1);
+        index.assigned(request, new StandardCar(scheduler, "Car 1"));
+
+        assertThat(index.get(request.id())).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    private static ServiceRequestEvent request(int floor) {
+        return new ServiceRequestEvent(UUID.randomUUID(), Direction.ASCENDING, floor);
+    }
+}
@@ -0,0 +1,90 @@
+package zone.glueck.elevator.simulation;
+
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimulationEvaluatorTest {
+
+    @Test
+    void testParallelReplicasMatchSequentialRuns() {
+        final var candidates = List.of(candidate("three", 3));
+        final List<EvaluationReport> sequential;
+        final List<EvaluationReport> parallel;
+        try (var single = new ForkJoinPool(1); var many = new ForkJoinPool(4)) {
+            sequential = new SimulationEvaluator(single).evaluate(candidates, TrafficPattern.LUNCH, 6.0, Duration.ofMinutes(20L), 4, 3L);
+            parallel = new SimulationEvaluator(many).evaluate(candidates, TrafficPattern.LUNCH, 6.0, Duration.ofMinutes(20L), 4, 3L);
+        }
+
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    @Test
+    void testAggregatesTheReplicasOfEachCandidate() {
+        final var candidate = candidate("three", 3);
+        final List<EvaluationReport> reports;
+        try (var pool = new ForkJoinPool(4)) {
+            reports = new SimulationEvaluator(pool).evaluate(List.of(candidate), TrafficPattern.UP_PEAK, 6.0, Duration.ofMinutes(20L), 5, 11L);
+        }
+        final var runs = List.of(11L, 12L, 13L, 14L, 15L).stream()
+                .map(seed -> new TrafficSimulation(candidate.configuration()).run(TrafficPattern.UP_PEAK, 6.0, Duration.ofMinutes(20L), seed))
+                .toList();
+
+        final var report = reports.getFirst();
+        assertThat(report.replicas()).isEqualTo(5);
+        assertThat(report.passengersGenerated())
+                .isEqualTo(runs.stream().mapToInt(TrafficReport::passengersGenerated).average().orElseThrow());
+        final var p95 = report.waitTimePercentile(0.95);
+        assertThat(p95.lower()).isLessThanOrEqualTo(p95.mean());
+        assertThat(p95.upper()).isGreaterThanOrEqualTo(p95.mean());
+        assertThat(runs).anySatisfy(run -> assertThat(run.waitTimePercentile(0.95)).isBetween(p95.lower(), p95.upper()));
+        assertThat(report.waitTimePercentile(0.99).mean()).isGreaterThanOrEqualTo(p95.mean());
+        assertThat(report.format()).contains("candidate: three", "p95 wait: ");
+    }
+
+    @Test
+    void testALargerFleetWaitsLess() {
+        final List<EvaluationReport> reports;
+        try (var pool = new ForkJoinPool(4)) {
+            reports = new SimulationEvaluator(pool).evaluate(
+                    List.of(candidate("one", 1), candidate("four", 4)),
+                    TrafficPattern.UP_PEAK,
+                    6.0,
+                    Duration.ofMinutes(30L),
+                    4,
+                    1L
+            );
+        }
+
+        assertThat(reports).extracting(EvaluationReport::name).containsExactly("one", "four");
+        assertThat(reports.get(1).averageWaitTime().upper()).isLessThan(reports.get(0).averageWaitTime().lower());
+    }
+
+    @Test
+    void testASingleReplicaHasNoMargin() {
+        final List<EvaluationReport> reports;
+        try (var pool = new ForkJoinPool(1)) {
+            reports = new SimulationEvaluator(pool).evaluate(List.of(candidate("two", 2)), TrafficPattern.INTERFLOOR, 3.0, Duration.ofMinutes(10L), 1, 2L);
+        }
+
+        assertThat(reports.getFirst().averageWaitTime().margin()).isZero();
+        assertThatThrownBy(() -> new SimulationEvaluator(ForkJoinPool.commonPool())
+                .evaluate(List.of(candidate("two", 2)), TrafficPattern.INTERFLOOR, 3.0, Duration.ofMinutes(10L), 0, 2L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SimulationEvaluator.Candidate candidate(String name, int cars) {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(12);
+        configuration.setElevators(Collections.nCopies(cars, "StandardCar"));
+        return new SimulationEvaluator.Candidate(name, configuration);
+    }
+
+}
@@ -0,0 +1,41 @@
+package zone.glueck.elevator.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import zone.glueck.elevator.api.SseBroadcaster;
+import zone.glueck.elevator.journal.SnapshotManager;
+import zone.glueck.elevator.service.ElevatorService;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrafficSimulationApplicationTest {
+
+    @Test
+    void testRunsWithoutTheElevatorService() {
+        final var journal = Path.of("target", "simulation-test.journal");
+        try (var context = TrafficSimulationApplication.run(
+                "--elevator.simulation.pattern=LUNCH",
+                "--elevator.simulation.duration=5m",
+                "--elevator.simulation.replicas=2",
+                "--elevator.journal.path=" + journal
+        )) {
+            assertThat(context).isNotInstanceOf(WebServerApplicationContext.class);
+            assertThat(context.getBeansOfType(TrafficSimulationRunner.class)).hasSize(1);
+            assertThat(context.getBeansOfType(ElevatorService.class)).isEmpty();
+            assertThat(context.getBeansOfType(SseBroadcaster.class)).isEmpty();
+            assertThat(context.getBeansOfType(SnapshotManager.class)).isEmpty();
+            assertThat(journal).doesNotExist();
+        }
+    }
+
+    @Test
+    void testRefusesToRunWithoutAPattern() {
+        assertThatThrownBy(TrafficSimulationApplication::run)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("elevator.simulation.pattern not set");
+    }
+
+}
@@ -0,0 +1,135 @@
+package zone.glueck.elevator.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import zone.glueck.elevator.cars.ExpressZone;
+import zone.glueck.elevator.configs.UserDefinedElevatorConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrafficSimulationTest {
+
+    private TrafficSimulation simulation;
+
+    @BeforeEach
+    void setUp() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(12);
+        configuration.setElevators(List.of("StandardCar", "StandardCar", "StandardCar", "ExpressCar"));
+        simulation = new TrafficSimulation(configuration);
+    }
+
+    @Test
+    void testDeliversEveryPassenger() {
+        final var report = simulation.run(TrafficPattern.UP_PEAK, 6.0, Duration.ofMinutes(30L), 7L);
+
+        assertThat(report.passengersGenerated()).isGreaterThan(100);
+        assertThat(report.passengersDelivered()).isEqualTo(report.passengersGenerated());
+        assertThat(report.waitTimes()).hasSize(report.passengersGenerated());
+        assertThat(report.deliveredPerInterval().stream().mapToInt(Integer::intValue).sum())
+                .isEqualTo(report.passengersDelivered());
+        assertThat(report.waitingPerInterval()).hasSizeGreaterThanOrEqualTo(6);
+        assertThat(report.averageJourneyTime()).isGreaterThan(report.averageWaitTime());
+    }
+
+    @Test
+    void testRidersWhoDoNotFitWaitForTheNextCar() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(12);
+        configuration.setElevators(List.of("StandardCar", "StandardCar"));
+        final var roomy = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 12.0, Duration.ofMinutes(20L), 5L);
+        configuration.setCapacities(Map.of("StandardCar", 2));
+        final var cramped = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 12.0, Duration.ofMinutes(20L), 5L);
+
+        assertThat(cramped.passengersGenerated()).isEqualTo(roomy.passengersGenerated());
+        assertThat(cramped.passengersDelivered()).isEqualTo(cramped.passengersGenerated());
+        assertThat(cramped.averageWaitTime()).isGreaterThan(roomy.averageWaitTime());
+    }
+
+    @Test
+    void testParkingAtExpectedFloorsCutsWaits() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(12);
+        configuration.setElevators(List.of("StandardCar", "StandardCar", "StandardCar"));
+        final var roaming = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 2.0, Duration.ofHours(2L), 9L);
+        configuration.getParking().setEnabled(true);
+        final var parked = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 2.0, Duration.ofHours(2L), 9L);
+
+        assertThat(parked.passengersDelivered()).isEqualTo(parked.passengersGenerated());
+        assertThat(parked.averageWaitTime()).isLessThan(roaming.averageWaitTime());
+    }
+
+    @Test
+    void testCollectiveControlServesMoreOfAnUpPeak() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(12);
+        configuration.setElevators(List.of("StandardCar", "StandardCar", "StandardCar"));
+        final var oneWay = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 45.0, Duration.ofHours(1L), 9L);
+        configuration.setCollectiveControl(true);
+        final var collective = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 45.0, Duration.ofHours(1L), 9L);
+
+        assertThat(collective.passengersDelivered()).isEqualTo(collective.passengersGenerated());
+        assertThat(deliveredWithin(collective, Duration.ofHours(1L))).isGreaterThan(deliveredWithin(oneWay, Duration.ofHours(1L)));
+        assertThat(collective.averageWaitTime()).isLessThan(oneWay.averageWaitTime());
+    }
+
+    @Test
+    void testZonedExpressCarsServeMoreOfAHeavyUpPeak() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(24);
+        configuration.setElevators(List.of("StandardCar", "StandardCar", "StandardCar", "ExpressCar", "ExpressCar"));
+        final var everyFloor = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 30.0, Duration.ofHours(1L), 9L);
+        configuration.setExpressZones(List.of(new ExpressZone(0, 16, 24, Set.of())));
+        final var zoned = new TrafficSimulation(configuration).run(TrafficPattern.UP_PEAK, 30.0, Duration.ofHours(1L), 9L);
+
+        assertThat(zoned.passengersDelivered()).isEqualTo(zoned.passengersGenerated());
+        assertThat(zoned.averageWaitTime()).isLessThan(everyFloor.averageWaitTime());
+        assertThat(zoned.averageJourneyTime()).isLessThan(everyFloor.averageJourneyTime());
+    }
+
+    @Test
+    void testRidersChangeCarsAtSkyLobbies() {
+        final var configuration = new UserDefinedElevatorConfiguration();
+        configuration.setNumberOfFloors(24);
+        configuration.setElevators(List.of("StandardCar", "StandardCar", "ExpressCar"));
+        // the express runs from the lobby to the sky lobby and the upper floors, locals take riders on from there
+        configuration.setExpressZones(List.of(new ExpressZone(0, 20, 24, Set.of(12))));
+        final var report = new TrafficSimulation(configuration).run(TrafficPattern.LUNCH, 8.0, Duration.ofMinutes(30L), 5L);
+
+        assertThat(report.passengersDelivered()).isEqualTo(report.passengersGenerated());
+        assertThat(report.waitTimes()).hasSize(report.passengersGenerated());
+    }
+
+    @Test
+    void testSameSeedSameReport() {
+        final var first = simulation.run(TrafficPattern.LUNCH, 4.0, Duration.ofMinutes(20L), 3L);
+        final var second = simulation.run(TrafficPattern.LUNCH, 4.0, Duration.ofMinutes(20L), 3L);
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void testTripsNeverStayOnTheSameFloor() {
+        final var random = new Random(11L);
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            for (int i = 0; i < 1_000; i++) {
+                final var trip = pattern.nextTrip(random, 5);
+                assertThat(trip.originationFloor()).isNotEqualTo(trip.destinationFloor()).isBetween(0, 5);
+                assertThat(trip.destinationFloor()).isBetween(0, 5);
+            }
+        }
+    }
+
+    private static int deliveredWithin(TrafficReport report, Duration duration) {
+        return report.deliveredPerInterval().stream()
+                .limit(duration.dividedBy(report.interval()))
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+}